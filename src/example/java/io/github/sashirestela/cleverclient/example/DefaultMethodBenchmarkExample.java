@@ -0,0 +1,93 @@
+package io.github.sashirestela.cleverclient.example;
+
+import io.github.sashirestela.cleverclient.CleverClient;
+import io.github.sashirestela.cleverclient.annotation.GET;
+import io.github.sashirestela.cleverclient.annotation.Path;
+import io.github.sashirestela.cleverclient.annotation.Resource;
+import io.github.sashirestela.cleverclient.example.jsonplaceholder.Post;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+/**
+ * Measures the calls to a default method of an interface, passing the mode as argument: cached
+ * (default) calls it through the proxy of CleverClient, which reuses one method handle per method, and
+ * uncached calls it through a proxy that looks up and binds the method handle on every call, as
+ * CleverClient did before. The debug log is turned off so it does not hide the difference. No request
+ * is sent.
+ */
+public class DefaultMethodBenchmarkExample extends AbstractExample {
+
+    private static final int WARM_UP_CALLS = 100_000;
+    private static final int MEASURED_CALLS = 1_000_000;
+
+    private final String mode;
+
+    public DefaultMethodBenchmarkExample(String mode) {
+        super("javahttp");
+        this.mode = mode;
+    }
+
+    public void run() {
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://jsonplaceholder.typicode.com")
+                .clientAdapter(clientAdapter)
+                .build();
+        var postService = mode.equals("uncached")
+                ? createUncached()
+                : cleverClient.create(PostDefaultService.class);
+
+        callMany(postService, WARM_UP_CALLS);
+        var startTime = System.nanoTime();
+        var total = callMany(postService, MEASURED_CALLS);
+        var elapsedNanos = System.nanoTime() - startTime;
+
+        showTitle("Default Method Benchmark (" + mode + ")");
+        System.out.println("Calls: " + MEASURED_CALLS + ", time per call: " + elapsedNanos / MEASURED_CALLS
+                + " ns, total: " + total);
+    }
+
+    private long callMany(PostDefaultService postService, int calls) {
+        var total = 0L;
+        for (var i = 0; i < calls; i++) {
+            total += postService.sum(i, 1);
+        }
+        return total;
+    }
+
+    private PostDefaultService createUncached() {
+        InvocationHandler handler = (proxy, method, arguments) -> MethodHandles.lookup()
+                .findSpecial(
+                        method.getDeclaringClass(),
+                        method.getName(),
+                        MethodType.methodType(
+                                method.getReturnType(),
+                                method.getParameterTypes()),
+                        method.getDeclaringClass())
+                .bindTo(proxy)
+                .invokeWithArguments(arguments);
+        return (PostDefaultService) Proxy.newProxyInstance(PostDefaultService.class.getClassLoader(),
+                new Class<?>[] { PostDefaultService.class }, handler);
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "info");
+        var example = new DefaultMethodBenchmarkExample(args.length > 0 ? args[0] : "cached");
+        example.run();
+    }
+
+    @Resource("/posts")
+    public interface PostDefaultService {
+
+        @GET("/{postId}")
+        Post getPost(@Path("postId") Integer postId);
+
+        default int sum(int first, int second) {
+            return first + second;
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package io.github.sashirestela.cleverclient.example;
+
+import io.github.sashirestela.cleverclient.CleverClient;
+import io.github.sashirestela.cleverclient.example.jsonplaceholder.AlbumService;
+import io.github.sashirestela.cleverclient.example.jsonplaceholder.PostService;
+import io.github.sashirestela.cleverclient.example.jsonplaceholder.UserService;
+import io.github.sashirestela.cleverclient.example.openai.AudioService;
+import io.github.sashirestela.cleverclient.example.openai.ChatService;
+
+import java.util.List;
+
+/**
+ * Measures the time to have the instances of several interfaces ready. The interface metadata is
+ * cached for the whole JVM, so run it once per mode in a fresh JVM, passing the mode as argument:
+ * eager (default), lazy or prepare. No request is sent.
+ */
+public class StartupBenchmarkExample extends AbstractExample {
+
+    private static final List<Class<?>> INTERFACES = List.of(PostService.class, UserService.class,
+            AlbumService.class, ChatService.class, AudioService.class);
+
+    private final String mode;
+
+    public StartupBenchmarkExample(String mode) {
+        super("javahttp");
+        this.mode = mode;
+    }
+
+    public void run() {
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://api.example.com")
+                .clientAdapter(clientAdapter)
+                .lazyMetadata(mode.equals("lazy"))
+                .build();
+        var startTime = System.nanoTime();
+        if (mode.equals("prepare")) {
+            CleverClient.prepare(INTERFACES.toArray(new Class<?>[0]));
+        }
+        INTERFACES.forEach(cleverClient::create);
+        var elapsedMicros = (System.nanoTime() - startTime) / 1000;
+
+        showTitle("Startup Benchmark (" + mode + ")");
+        System.out.println("Interfaces: " + INTERFACES.size() + ", time to ready: " + elapsedMicros + " us");
+    }
+
+    public static void main(String[] args) {
+        var example = new StartupBenchmarkExample(args.length > 0 ? args[0] : "eager");
+        example.run();
+    }
+
+}
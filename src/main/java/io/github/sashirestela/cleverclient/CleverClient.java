@@ -1,14 +1,19 @@
 package io.github.sashirestela.cleverclient;
 
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.sashirestela.cleverclient.client.HttpClientAdapter;
 import io.github.sashirestela.cleverclient.client.JavaHttpClientAdapter;
 import io.github.sashirestela.cleverclient.http.HttpProcessor;
 import io.github.sashirestela.cleverclient.http.HttpRequestData;
 import io.github.sashirestela.cleverclient.http.HttpResponseData;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadataStore;
 import io.github.sashirestela.cleverclient.retry.RetryConfig;
 import io.github.sashirestela.cleverclient.retry.RetryableRequest;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.Codec;
 import io.github.sashirestela.cleverclient.support.Configurator;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
 import io.github.sashirestela.cleverclient.util.CommonUtil;
 import io.github.sashirestela.cleverclient.websocket.Action;
 import io.github.sashirestela.cleverclient.websocket.JavaHttpWebSocketAdapter;
@@ -20,7 +25,10 @@ import lombok.Singular;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -37,6 +45,8 @@ import java.util.function.UnaryOperator;
 public class CleverClient {
 
     private static final Logger logger = LoggerFactory.getLogger(CleverClient.class);
+    private static final int DEFAULT_WARM_UP_ITERATIONS = 200;
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
 
     private final String baseUrl;
     private final Map<String, String> headers;
@@ -45,6 +55,8 @@ public class CleverClient {
     private final UnaryOperator<HttpResponseData> responseInterceptor;
     private final RetryConfig retryConfig;
     private final HttpClientAdapter clientAdapter;
+    private final ObjectMapper objectMapper;
+    private final Codec codec;
     private final HttpProcessor httpProcessor;
 
     /**
@@ -58,17 +70,39 @@ public class CleverClient {
      * @param retryConfig         Cofiguration for retrying. Optional.
      * @param clientAdapter       Component to call http services. If none is passed the
      *                            JavaHttpClientAdapter will be used. Optional.
-     * @param objectMapper        Provides Json conversions either to and from objects. Optional.
+     * @param objectMapper        Provides Json conversions either to and from objects. It is owned by
+     *                            this client, so other clients can have different ones. Optional.
      * @param endsOfStream        Texts used to mark the final of streams when handling server sent
      *                            events (SSE). Optional.
+     * @param runtimeStubs        Creates the interface instances from classes defined at runtime, with
+     *                            one stub per endpoint, instead of dynamic proxies. Classes generated
+     *                            at build time take precedence. Optional, false by default.
+     * @param lazyMetadata        Collects and validates the metadata of each interface method on its
+     *                            first call instead of when the interface is created. Optional, false
+     *                            by default.
+     * @param codec               Encodes the bodies and decodes the responses of all the interfaces.
+     *                            Optional, Json with the objectMapper by default.
+     * @param otherCodecs         Other codecs, chosen by the MediaType annotation of an interface or
+     *                            a method. Optional.
+     * @param blackbird           Registers the Jackson Blackbird module in a copy of the objectMapper,
+     *                            to (de)serialize with generated accessors instead of reflection. It
+     *                            needs the jackson-module-blackbird dependency. Optional, false by
+     *                            default.
+     * @param pipelineDepth       Decodes the server sent events of Stream methods ahead of the
+     *                            consumer, on a pipeline thread, keeping up to this number of events.
+     *                            With OkHttp the events are also read ahead on another thread.
+     *                            These streams must be closed when they are not read to the end.
+     *                            Optional, 0 (decode on the consumer thread) by default.
      */
     @Builder
     @SuppressWarnings("java:S107")
     public CleverClient(@NonNull String baseUrl, @Singular Map<String, String> headers, Consumer<Object> bodyInspector,
             UnaryOperator<HttpRequestData> requestInterceptor, UnaryOperator<HttpResponseData> responseInterceptor,
             RetryConfig retryConfig, HttpClientAdapter clientAdapter, ObjectMapper objectMapper,
-            @Singular("endOfStream") List<String> endsOfStream) {
-        this.baseUrl = baseUrl;
+            @Singular("endOfStream") List<String> endsOfStream, boolean runtimeStubs,
+            boolean lazyMetadata, Codec codec, @Singular List<Codec> otherCodecs, boolean blackbird,
+            int pipelineDepth) {
+        this.baseUrl = validateBaseUrl(baseUrl);
         this.headers = Optional.ofNullable(headers).orElse(Map.of());
         this.bodyInspector = bodyInspector;
         this.requestInterceptor = requestInterceptor;
@@ -79,23 +113,61 @@ public class CleverClient {
                 .orElseGet(() -> new JavaHttpClientAdapter());
         this.clientAdapter.setRequestInterceptor(this.requestInterceptor);
         this.clientAdapter.setResponseInterceptor(this.responseInterceptor);
+        this.clientAdapter.setPipelineDepth(pipelineDepth);
+        this.clientAdapter.setEndsOfStream(List.copyOf(Optional.ofNullable(endsOfStream).orElse(List.of())));
         if (this.retryConfig != null) {
             this.clientAdapter.setRetryableRequest(new RetryableRequest(this.retryConfig));
         }
 
+        var clientObjectMapper = Optional.ofNullable(objectMapper).orElseGet(ObjectMapper::new);
+        this.objectMapper = blackbird ? registerBlackbird(clientObjectMapper) : clientObjectMapper;
+        var jsonCodec = JacksonCodec.json(this.objectMapper);
+        this.codec = Optional.ofNullable(codec).orElse(jsonCodec);
+        Map<String, Codec> codecsByMediaType = new HashMap<>();
+        Optional.ofNullable(otherCodecs)
+                .orElse(List.of())
+                .forEach(other -> codecsByMediaType.put(other.getMediaType(), other));
+        codecsByMediaType.put(this.codec.getMediaType(), this.codec);
+
         this.httpProcessor = HttpProcessor.builder()
                 .baseUrl(this.baseUrl)
                 .headers(CommonUtil.mapToListOfString(this.headers))
                 .clientAdapter(this.clientAdapter)
                 .bodyInspector(this.bodyInspector)
+                .runtimeStubs(runtimeStubs)
+                .lazyMetadata(lazyMetadata)
+                .jsonCodec(jsonCodec)
+                .codec(this.codec)
+                .codecsByMediaType(Map.copyOf(codecsByMediaType))
                 .build();
+        // Only for JsonUtil and the deprecated CleverClientSSE: the requests use the mapper and ends of stream
+        // of this client
         Configurator.builder()
-                .objectMapper(Optional.ofNullable(objectMapper).orElse(new ObjectMapper()))
+                .objectMapper(clientObjectMapper)
                 .endsOfStream(Optional.ofNullable(endsOfStream).orElse(Arrays.asList()))
                 .build();
         logger.debug("CleverClient has been created.");
     }
 
+    private static ObjectMapper registerBlackbird(ObjectMapper objectMapper) {
+        try {
+            var module = (Module) Class.forName(BLACKBIRD_MODULE).getConstructor().newInstance();
+            return objectMapper.copy().registerModule(module);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new CleverClientException("Cannot register the Blackbird module, check that {0} is a dependency.",
+                    "com.fasterxml.jackson.module:jackson-module-blackbird", e);
+        }
+    }
+
+    private static String validateBaseUrl(String baseUrl) {
+        try {
+            URI.create(baseUrl);
+        } catch (IllegalArgumentException e) {
+            throw new CleverClientException("The base url {0} is not valid.", baseUrl, e);
+        }
+        return baseUrl;
+    }
+
     /**
      * Creates an instance of an annotated interface that represents a resource of the API service and
      * its methods represent the endpoints that we can call: Get, Post, Put, Patch, Delete.
@@ -108,6 +180,54 @@ public class CleverClient {
         return this.httpProcessor.createProxy(interfaceClass);
     }
 
+    /**
+     * Collects and validates the metadata of many interfaces in parallel, on the common fork-join
+     * pool, so later calls to create() for those interfaces find it ready. The metadata is shared by
+     * all the CleverClient instances.
+     * 
+     * @param interfaceClasses The interfaces to be prepared.
+     */
+    public static void prepare(Class<?>... interfaceClasses) {
+        var store = InterfaceMetadataStore.one();
+        Arrays.stream(interfaceClasses).parallel().forEach(store::save);
+        logger.debug("Prepared {} interfaces.", interfaceClasses.length);
+    }
+
+    /**
+     * Runs the request and response pipeline of the interfaces against synthetic in-memory responses,
+     * without touching the network, so the first actual calls do not pay for class loading, metadata
+     * and Json readers, and the hot paths have been profiled by the JVM. It is intended to be called
+     * once, before taking traffic.
+     * 
+     * @param preconnect       Also opens a connection to the base url (a HEAD request) that is kept in
+     *                         the pool of the http client.
+     * @param iterations       How many times each endpoint pipeline is run.
+     * @param interfaceClasses The interfaces to be warmed up.
+     * @return How long the warm-up took.
+     */
+    public Duration warmUp(boolean preconnect, int iterations, Class<?>... interfaceClasses) {
+        var startTime = System.nanoTime();
+        if (preconnect) {
+            clientAdapter.preconnect(baseUrl);
+        }
+        for (var interfaceClass : interfaceClasses) {
+            httpProcessor.warmUp(interfaceClass, iterations);
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - startTime);
+        logger.debug("Warm-up of {} interfaces took {} ms.", interfaceClasses.length, elapsed.toMillis());
+        return elapsed;
+    }
+
+    /**
+     * Runs the pipeline of the interfaces a default number of times, without preconnecting.
+     * 
+     * @param interfaceClasses The interfaces to be warmed up.
+     * @return How long the warm-up took.
+     */
+    public Duration warmUp(Class<?>... interfaceClasses) {
+        return warmUp(false, DEFAULT_WARM_UP_ITERATIONS, interfaceClasses);
+    }
+
     /**
      * Handles websocket communication.
      */
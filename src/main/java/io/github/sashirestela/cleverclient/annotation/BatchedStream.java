@@ -0,0 +1,36 @@
+package io.github.sashirestela.cleverclient.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Delivers the server sent events of a method that returns a Stream of List in batches: each List
+ * holds the next event and the events already decoded behind it, up to a size, instead of being the
+ * Json array of one event. The events are decoded ahead of the consumer on a pipeline thread. It
+ * supports Stream&lt;List&lt;T&gt;&gt; and Stream&lt;List&lt;Event&gt;&gt;, also wrapped in a
+ * CompletableFuture.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface BatchedStream {
+
+    /**
+     * Most events in a batch.
+     *
+     * @return The maximum size of a batch.
+     */
+    int maxSize() default 64;
+
+    /**
+     * How long a batch waits for more events once it has one, so slow streams are not delivered one
+     * event at a time. With 0 a batch only takes the events that are already decoded.
+     *
+     * @return The maximum wait in milliseconds.
+     */
+    long maxDelayMs() default 0;
+
+}
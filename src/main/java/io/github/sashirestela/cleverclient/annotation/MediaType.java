@@ -0,0 +1,21 @@
+package io.github.sashirestela.cleverclient.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Media type of the bodies and responses of an interface or a method, e.g. application/cbor. It
+ * chooses one of the codecs of the client; the annotation of a method takes precedence over the one
+ * of its interface. Without it, the default codec of the client is used.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface MediaType {
+
+    String value();
+
+}
@@ -0,0 +1,28 @@
+package io.github.sashirestela.cleverclient.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Resumes the server sent events of a method that returns a Stream when the connection drops in the
+ * middle of the response: the request is sent again with the Last-Event-ID header, after the retry
+ * time sent by the server or the backoff of the RetryConfig of the client, and the Stream goes on with
+ * the events of the new response. It has no effect on other return types.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ResumableStream {
+
+    /**
+     * Consecutive reconnections that can fail before the error is thrown. The count starts again each
+     * time an event is received.
+     *
+     * @return The maximum number of reconnections, or 0 to use the maxAttempts of the RetryConfig.
+     */
+    int maxAttempts() default 0;
+
+}
@@ -0,0 +1,41 @@
+package io.github.sashirestela.cleverclient.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Format of the response of a method that returns a Stream. Without this annotation, the response is
+ * read as server sent events (SSE).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StreamFormat {
+
+    Format value();
+
+    enum Format {
+
+        /**
+         * Server sent events: each item is the Json in the "data: " lines of an event.
+         */
+        SSE,
+
+        /**
+         * A top-level Json array, parsed incrementally from the response: each item is an element of the
+         * array.
+         */
+        JSON_ARRAY,
+
+        /**
+         * Newline delimited Json (application/x-ndjson or Json Lines): each item is the Json value of a
+         * line.
+         */
+        NDJSON;
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.github.sashirestela.cleverclient.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * Publisher returned by the methods whose return type is a Flow.Publisher. Nothing is sent until a
+ * subscriber arrives; then the request is sent asynchronously and the subscriber is handed to the
+ * publisher of the response, or it gets the error of the request. Every subscriber sends its own
+ * request.
+ */
+class DeferredPublisher implements Flow.Publisher<Object> {
+
+    private final Supplier<Object> responseSupplier;
+
+    DeferredPublisher(Supplier<Object> responseSupplier) {
+        this.responseSupplier = responseSupplier;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+        CompletableFuture<Object> response;
+        try {
+            response = (CompletableFuture<Object>) responseSupplier.get();
+        } catch (RuntimeException e) {
+            signalError(subscriber, e);
+            return;
+        }
+        response.whenComplete((publisher, error) -> {
+            if (error != null) {
+                signalError(subscriber, error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                ((Flow.Publisher<Object>) publisher).subscribe(subscriber);
+            }
+        });
+    }
+
+    private static void signalError(Flow.Subscriber<? super Object> subscriber, Throwable error) {
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(long n) {
+                // The request failed, so there is nothing to deliver
+            }
+
+            @Override
+            public void cancel() {
+                // The request failed, so there is nothing to cancel
+            }
+
+        });
+        subscriber.onError(error);
+    }
+
+}
@@ -0,0 +1,178 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.EventStreamParser;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+import io.github.sashirestela.cleverclient.util.CommonUtil;
+import io.github.sashirestela.cleverclient.util.Constant;
+
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Body handler of the server sent events categories for the Java HttpClient. Successful responses
+ * are framed into events straight from the ByteBuffers as they arrive, and the body is a lazy Stream
+ * of ServerSentEvent. Chunks are requested while fewer than a bounded number of events wait to be
+ * consumed. For the Flow.Publisher return types the body is an EventStreamPublisher instead, which
+ * requests chunks according to the demand of its subscriber. Error responses are read as a String.
+ */
+public class EventStreamBodyHandler implements BodyHandler<Object> {
+
+    private final Supplier<EventStreamParser> parserSupplier;
+    private final boolean publisher;
+
+    public EventStreamBodyHandler(Supplier<EventStreamParser> parserSupplier, boolean publisher) {
+        this.parserSupplier = parserSupplier;
+        this.publisher = publisher;
+    }
+
+    public EventStreamBodyHandler(Supplier<EventStreamParser> parserSupplier) {
+        this(parserSupplier, false);
+    }
+
+    @Override
+    public BodySubscriber<Object> apply(ResponseInfo responseInfo) {
+        if (CommonUtil.isInHundredsOf(responseInfo.statusCode(), Constant.HTTP_SUCCESSFUL)) {
+            return publisher ? new EventStreamPublisher(parserSupplier.get())
+                    : new EventStreamSubscriber(parserSupplier.get());
+        }
+        return BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), body -> body);
+    }
+
+    static class EventStreamSubscriber implements BodySubscriber<Object> {
+
+        private static final int MAX_QUEUED_EVENTS = 256;
+        private static final int RESUME_QUEUED_EVENTS = MAX_QUEUED_EVENTS / 2;
+        private static final Object END_OF_EVENTS = new Object();
+
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private final AtomicBoolean paused = new AtomicBoolean();
+        private final EventStreamFramer framer;
+        private final CompletableFuture<Object> body = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        EventStreamSubscriber(EventStreamParser parser) {
+            this.framer = new EventStreamFramer(parser, queue::add);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            body.complete(events());
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            try {
+                for (var item : items) {
+                    framer.feed(item);
+                }
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                queue.add(e);
+                return;
+            }
+            if (queue.size() < MAX_QUEUED_EVENTS) {
+                subscription.request(1);
+                return;
+            }
+            paused.set(true);
+            // The consumer may have drained the queue before the pause was visible
+            resumeIfDrained();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            queue.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                framer.finish();
+                queue.add(END_OF_EVENTS);
+            } catch (RuntimeException e) {
+                queue.add(e);
+            }
+        }
+
+        @Override
+        public CompletionStage<Object> getBody() {
+            return body;
+        }
+
+        private void resumeIfDrained() {
+            if (queue.size() < RESUME_QUEUED_EVENTS && paused.compareAndSet(true, false)) {
+                subscription.request(1);
+            }
+        }
+
+        private Stream<ServerSentEvent> events() {
+            var iterator = new Iterator<ServerSentEvent>() {
+
+                private Object next;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null) {
+                        next = take();
+                        resumeIfDrained();
+                    }
+                    if (next instanceof Throwable) {
+                        var cause = (Throwable) next;
+                        next = END_OF_EVENTS;
+                        throw new CleverClientException("Cannot read the server sent events.", cause);
+                    }
+                    return next != END_OF_EVENTS;
+                }
+
+                @Override
+                public ServerSentEvent next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    var event = (ServerSentEvent) next;
+                    next = null;
+                    return event;
+                }
+
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .onClose(() -> {
+                        subscription.cancel();
+                        // Releases a consumer waiting on another thread, like the stage of a pipelined stream
+                        queue.add(END_OF_EVENTS);
+                    });
+        }
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return e;
+            }
+        }
+
+    }
+
+}
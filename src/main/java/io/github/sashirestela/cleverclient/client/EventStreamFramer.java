@@ -0,0 +1,129 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.EventStreamParser;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits the raw bytes of a server sent events response into lines (LF, CRLF or CR terminated) and
+ * feeds them to an EventStreamParser, so no line is decoded to a String. Lines contained in a chunk
+ * are parsed in place; only a line split across chunks is copied. Each dispatched event is handed to
+ * the sink with its data as bytes. An instance frames one response and it is not thread-safe.
+ */
+public final class EventStreamFramer {
+
+    private static final int INITIAL_LINE_CAPACITY = 256;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final EventStreamParser parser;
+    private final Consumer<ServerSentEvent> sink;
+
+    private byte[] partialLine = new byte[INITIAL_LINE_CAPACITY];
+    private int partialLength;
+    private boolean afterCarriageReturn;
+    private byte[] chunk;
+
+    public EventStreamFramer(EventStreamParser parser, Consumer<ServerSentEvent> sink) {
+        this.parser = parser;
+        this.sink = sink;
+    }
+
+    /**
+     * Frames the remaining bytes of the buffer.
+     *
+     * @param buffer The chunk of the response. Its position is moved to its limit.
+     */
+    public void feed(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        if (chunk == null) {
+            chunk = new byte[CHUNK_SIZE];
+        }
+        while (buffer.hasRemaining()) {
+            var length = Math.min(buffer.remaining(), chunk.length);
+            buffer.get(chunk, 0, length);
+            feed(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Frames a range of bytes. The bytes are only read during the call, so the caller can reuse the
+     * array.
+     *
+     * @param bytes  The chunk of the response.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        var end = offset + length;
+        var position = offset;
+        if (afterCarriageReturn && position < end) {
+            afterCarriageReturn = false;
+            if (bytes[position] == '\n') {
+                position++;
+            }
+        }
+        var lineStart = position;
+        for (; position < end; position++) {
+            var b = bytes[position];
+            if (b != '\n' && b != '\r') {
+                continue;
+            }
+            completeLine(bytes, lineStart, position);
+            if (b == '\r') {
+                if (position + 1 == end) {
+                    afterCarriageReturn = true;
+                } else if (bytes[position + 1] == '\n') {
+                    position++;
+                }
+            }
+            lineStart = position + 1;
+        }
+        if (lineStart < end) {
+            appendPartial(bytes, lineStart, end);
+        }
+    }
+
+    /**
+     * Discards the last line if it has no line terminator and the last event if the response did not
+     * end with a blank line, as the spec says for the end of the stream.
+     */
+    public void finish() {
+        partialLength = 0;
+        afterCarriageReturn = false;
+        parser.finish();
+    }
+
+    private void completeLine(byte[] bytes, int start, int end) {
+        if (partialLength == 0) {
+            emitIf(parser.feed(bytes, start, end));
+        } else {
+            appendPartial(bytes, start, end);
+            emitIf(parser.feed(partialLine, 0, partialLength));
+            partialLength = 0;
+        }
+    }
+
+    private void appendPartial(byte[] bytes, int start, int end) {
+        var required = partialLength + end - start;
+        if (required > partialLine.length) {
+            partialLine = Arrays.copyOf(partialLine, Math.max(required, partialLine.length * 2));
+        }
+        System.arraycopy(bytes, start, partialLine, partialLength, end - start);
+        partialLength = required;
+    }
+
+    private void emitIf(boolean dispatched) {
+        if (dispatched) {
+            sink.accept(new ServerSentEvent(parser.getName(), parser.getType(), parser.getLastEventId(),
+                    parser.getDataBytes(), parser.getRetry()));
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.EventStreamParser;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Publisher of the events of a server sent events response, for the Flow.Publisher return types.
+ * It subscribes to the chunks of the response (the body of the Java HttpClient, or the reads of the
+ * OkHttp source) and pushes the converted events to its single subscriber on the thread that
+ * delivers the chunks. Backpressure is mapped onto the chunks: the next one is requested only when
+ * the subscriber has demand and every event of the previous one was delivered, so at most the
+ * events of one chunk are held.
+ */
+public class EventStreamPublisher implements BodySubscriber<Object>, Flow.Publisher<Object>, Flow.Subscription {
+
+    private final EventStreamFramer framer;
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final CompletableFuture<Object> body = new CompletableFuture<>();
+
+    private Predicate<ServerSentEvent> filter = event -> true;
+    private Function<ServerSentEvent, Object> converter = event -> event;
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super Object> downstream;
+    private volatile boolean chunkRequested;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    public EventStreamPublisher(EventStreamParser parser) {
+        this.framer = new EventStreamFramer(parser, this::accept);
+    }
+
+    /**
+     * Sets how the events are delivered. It must be called before subscribing.
+     *
+     * @param filter    Which events are delivered.
+     * @param converter Converts a delivered event to the object pushed to the subscriber. Null values
+     *                  are skipped.
+     * @return This publisher.
+     */
+    public EventStreamPublisher converting(Predicate<ServerSentEvent> filter,
+            Function<ServerSentEvent, Object> converter) {
+        this.filter = filter;
+        this.converter = converter;
+        return this;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new EmptySubscription());
+            subscriber.onError(new IllegalStateException("The events of a response can have only one subscriber."));
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(this);
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("The demand must be positive, but it was " + n + "."));
+        } else {
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        var subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        pending.clear();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        upstream = subscription;
+        body.complete(this);
+        if (cancelled) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        try {
+            for (var item : items) {
+                framer.feed(item);
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+        chunkRequested = false;
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        try {
+            framer.finish();
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        done = true;
+        drain();
+    }
+
+    @Override
+    public CompletionStage<Object> getBody() {
+        return body;
+    }
+
+    private void accept(ServerSentEvent event) {
+        if (filter.test(event)) {
+            var value = converter.apply(event);
+            if (value != null) {
+                pending.add(value);
+            }
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        error = throwable;
+        done = true;
+        var subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Delivers the pending events up to the demand and requests the next chunk when they run out. It
+     * is run by one thread at a time; a call made while it runs makes it loop once more.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        var missed = 1;
+        do {
+            var subscriber = downstream;
+            if (subscriber != null && upstream != null && !cancelled && !terminated) {
+                deliver(subscriber);
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliver(Flow.Subscriber<? super Object> subscriber) {
+        var requested = demand.get();
+        var emitted = 0L;
+        while (emitted != requested && !cancelled) {
+            var value = pending.poll();
+            if (value == null) {
+                break;
+            }
+            subscriber.onNext(value);
+            emitted++;
+        }
+        if (emitted > 0 && requested != Long.MAX_VALUE) {
+            demand.addAndGet(-emitted);
+        }
+        if (cancelled || !pending.isEmpty()) {
+            return;
+        }
+        if (done) {
+            terminated = true;
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        } else if (demand.get() > 0 && !chunkRequested) {
+            chunkRequested = true;
+            upstream.request(1);
+        }
+    }
+
+    private static class EmptySubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            // Nothing to deliver
+        }
+
+        @Override
+        public void cancel() {
+            // Nothing to cancel
+        }
+
+    }
+
+}
@@ -1,29 +1,48 @@
 package io.github.sashirestela.cleverclient.client;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
 import io.github.sashirestela.cleverclient.Event;
 import io.github.sashirestela.cleverclient.ResponseInfo;
 import io.github.sashirestela.cleverclient.ResponseInfo.RequestInfo;
+import io.github.sashirestela.cleverclient.annotation.BatchedStream;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat.Format;
 import io.github.sashirestela.cleverclient.http.HttpRequestData;
 import io.github.sashirestela.cleverclient.http.HttpResponseData;
+import io.github.sashirestela.cleverclient.retry.RetryConfig;
 import io.github.sashirestela.cleverclient.retry.RetryableRequest;
 import io.github.sashirestela.cleverclient.support.CleverClientException;
-import io.github.sashirestela.cleverclient.support.CleverClientSSE;
+import io.github.sashirestela.cleverclient.support.Codec;
+import io.github.sashirestela.cleverclient.support.EventStreamParser;
+import io.github.sashirestela.cleverclient.support.EventTypeTable;
+import io.github.sashirestela.cleverclient.support.JsonBody;
 import io.github.sashirestela.cleverclient.support.ReturnType;
+import io.github.sashirestela.cleverclient.support.ReturnType.Category;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
 import io.github.sashirestela.cleverclient.util.CommonUtil;
 import io.github.sashirestela.cleverclient.util.Constant;
-import io.github.sashirestela.cleverclient.util.JsonUtil;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Setter
 public abstract class HttpClientAdapter {
@@ -32,16 +51,41 @@ public abstract class HttpClientAdapter {
     protected static final String REQUEST_BODY_FORMAT = "Request Body : {}";
     protected static final String RESPONSE_CODE_FORMAT = "Response Code : {}";
     protected static final String RESPONSE_FORMAT = "Response : {}";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final byte[] WARM_UP_EVENT = "{}".getBytes(StandardCharsets.UTF_8);
 
     protected UnaryOperator<HttpRequestData> requestInterceptor;
     protected UnaryOperator<HttpResponseData> responseInterceptor;
     protected RetryableRequest retryableRequest;
 
+    /**
+     * How many server sent events are decoded ahead of the consumer of a Stream, on a pipeline thread.
+     * Zero or less decodes each event on the consumer thread when it is pulled.
+     */
+    protected int pipelineDepth;
+
+    /**
+     * Texts that mark the end of a server sent events stream: the events whose data contains one of
+     * them are not delivered. They are set by each client.
+     */
+    protected List<String> endsOfStream = List.of();
+
+    /**
+     * Backoff of the resumable streams when the client has no RetryConfig, built once per adapter.
+     */
+    private final RetryableRequest defaultRetryableRequest = new RetryableRequest(RetryConfig.defaultValues());
+
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics();
+
     public Object sendRequest(RequestData originalRequest) {
         var actualRequest = interceptRequest(originalRequest);
         logger.debug("Http Call : {} {}", actualRequest.getHttpMethod(), actualRequest.getUrl());
         var formattedHeaders = formattedHeaders(actualRequest.getHeaders());
         logger.debug("Request Headers : {}", formattedHeaders);
+        if (actualRequest.getReturnType().isPublisher()) {
+            return new DeferredPublisher(() -> retryableRequest == null ? sendAsync(actualRequest)
+                    : retryableRequest.executeAsync(() -> sendAsync(actualRequest)));
+        }
         if (retryableRequest == null) {
             if (actualRequest.getReturnType().isAsync()) {
                 return sendAsync(actualRequest);
@@ -57,30 +101,103 @@ public abstract class HttpClientAdapter {
         }
     }
 
+    /**
+     * Counters of the pipelined streams, to tune the pipelineDepth.
+     *
+     * @return The metrics of this adapter.
+     */
+    public PipelineMetrics getPipelineMetrics() {
+        return pipelineMetrics;
+    }
+
     protected abstract Object sendAsync(RequestData request);
 
     protected abstract Object send(RequestData request);
 
+    /**
+     * Sends a request of a server sent events method synchronously, to resume its events.
+     *
+     * @param request The request, with the Last-Event-ID header.
+     * @return The response, with a Stream of ServerSentEvent as body.
+     */
+    protected abstract ResponseData sendForEvents(RequestData request);
+
     public abstract void shutdown();
 
+    /**
+     * Opens a connection to the url ahead of the first request, so it is ready in the connection pool
+     * of the http client. Failures are only logged. By default it does nothing.
+     * 
+     * @param url The url to connect to, usually the base url.
+     */
+    public void preconnect(String url) {
+        logger.debug("Preconnect is not supported by {}.", getClass().getSimpleName());
+    }
+
+    /**
+     * Converts a synthetic in-memory response for the return type (each item for streams), so the Json
+     * readers and the conversion code are ready before the first actual response. Conversion errors are ignored
+     * because the synthetic content may not fit the type.
+     * 
+     * @param returnType The return type of a method.
+     * @param codec      The codec of the method.
+     */
+    public void warmUp(ReturnType returnType, Codec codec) {
+        var category = returnType.category();
+        if (category == null) {
+            return;
+        }
+        try {
+            if (category == Category.ASYNC_STREAM_EVENT || category == Category.SYNC_STREAM_EVENT
+                    || category == Category.PUBLISHER_EVENT) {
+                var eventTypes = returnType.getEventTypes();
+                for (var i = 0; i < eventTypes.size(); i++) {
+                    codec.decoderFor(eventTypes.getJavaType(i)).apply(WARM_UP_EVENT);
+                }
+            } else if (returnType.getJavaType() != null) {
+                // Only the bytes of the codec are decoded: binary formats cannot read a String
+                var synthetic = syntheticValue(returnType.getJavaType());
+                convertToObject(new JsonBody(codec.encode(synthetic), codec.getMediaType()), returnType, codec);
+            }
+        } catch (CleverClientException e) {
+            logger.trace("Synthetic response does not fit {}.", returnType.getFullClassName());
+        }
+    }
+
+    private static Object syntheticValue(JavaType javaType) {
+        return javaType.isCollectionLikeType() || javaType.isArrayType() ? List.of() : Map.of();
+    }
+
     private RequestData interceptRequest(RequestData originalRequest) {
         if (requestInterceptor != null) {
             var httpRequestData = originalRequest.getHttpRequestData();
             httpRequestData = this.requestInterceptor.apply(httpRequestData);
             return originalRequest
                     .withUrl(httpRequestData.getUrl())
-                    .withBody(httpRequestData.getBody())
+                    .withBody(interceptedBody(originalRequest.getBody(), httpRequestData.getContent()))
                     .withHeaders(CommonUtil.mapToListOfString(httpRequestData.getHeaders()));
         } else {
             return originalRequest;
         }
     }
 
+    /**
+     * Keeps the bytes of a Json body when the interceptor did not replace it: either it was not read,
+     * or its String view was set back unchanged.
+     */
+    private Object interceptedBody(Object originalBody, Object interceptedBody) {
+        if (originalBody instanceof JsonBody && ((JsonBody) originalBody).isViewOf(interceptedBody)) {
+            return originalBody;
+        }
+        return interceptedBody;
+    }
+
     protected ResponseData interceptResponse(ResponseData originalResponse) {
-        if (responseInterceptor != null && originalResponse.getBody() instanceof String) {
+        var originalBody = originalResponse.getBody();
+        if (responseInterceptor != null && (originalBody instanceof String || originalBody instanceof JsonBody)) {
             var httpResponseData = originalResponse.getHttpResponseData();
             httpResponseData = this.responseInterceptor.apply(httpResponseData);
-            return originalResponse.withBody(httpResponseData.getBody());
+            return originalResponse.withBody(interceptedBody(originalBody, httpResponseData.getBody()));
         } else {
             return originalResponse;
         }
@@ -99,6 +216,8 @@ public abstract class HttpClientAdapter {
                 } catch (IOException e) {
                     throw new CleverClientException(e);
                 }
+            } else if (response.getBody() instanceof JsonBody) {
+                data = response.getBody().toString();
             } else {
                 data = (String) response.getBody();
             }
@@ -138,36 +257,289 @@ public abstract class HttpClientAdapter {
         return print.toString();
     }
 
+    /**
+     * Converts a Json response to the Jackson type of the return type. The response is decoded by the
+     * codec from its bytes, or from a String if a response interceptor replaced it, unless it was
+     * already parsed on arrival. A top-level Optional wraps the value, and a blank or null response
+     * becomes an empty Optional.
+     *
+     * @param json       The Json response, as ParsedJson, JsonBody or String.
+     * @param returnType The return type of the method.
+     * @param codec      The codec of the method.
+     * @return The converted object.
+     */
+    protected Object convertToObject(Object json, ReturnType returnType, Codec codec) {
+        if (json instanceof JsonBodyHandler.ParsedJson) {
+            var value = ((JsonBodyHandler.ParsedJson) json).getValue();
+            return returnType.isOptional() ? Optional.ofNullable(value) : value;
+        }
+        if (!returnType.isOptional()) {
+            return readJson(json, returnType, codec);
+        }
+        if (json == null || (json instanceof JsonBody ? ((JsonBody) json).isBlank() : ((String) json).isBlank())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(readJson(json, returnType, codec));
+    }
+
+    private Object readJson(Object json, ReturnType returnType, Codec codec) {
+        if (json instanceof JsonBody) {
+            return codec.decode(((JsonBody) json).getBytes(), returnType.getJavaType());
+        }
+        return codec.decode((String) json, returnType.getJavaType());
+    }
+
+    /**
+     * Converts the server sent events without an event name (or named "message", the default type) to
+     * objects of the return type.
+     *
+     * @param responseData The response, with a Stream of ServerSentEvent as body.
+     * @param request      The request, with the return type and the codec of the method.
+     * @return A lazy stream of the objects.
+     */
+    protected Stream<Object> convertToStreamOfObjects(ResponseData responseData, RequestData request) {
+        final var eventTypes = request.getReturnType().getEventTypes();
+        final var codec = request.getCodec();
+        final var decoders = eventDecoders(eventTypes, codec);
+        return decodeAhead(serverSentEvents(responseData, request).filter(event -> event.getType() >= 0),
+                request.getReturnType().getBatched(),
+                event -> decodeEvent(responseData, event, eventTypes, decoders, codec));
+    }
+
+    /**
+     * Decodes the events on the consumer thread, or ahead of it on a pipeline thread when a
+     * pipelineDepth is set, so the next events are parsed while the consumer handles the current one.
+     * Batched events are always decoded ahead, with room in the pipeline for a whole batch, and each
+     * item of the stream is a List of the decoded events.
+     */
     @SuppressWarnings("unchecked")
-    protected Stream<Object> convertToStreamOfObjects(ResponseData responseData, ReturnType returnType) {
-        final var lineRecord = new CleverClientSSE.LineRecord();
-        return ((Stream<String>) responseData.getBody())
-                .map(line -> {
-                    logger.debug(RESPONSE_FORMAT, line);
-                    lineRecord.updateWith(line);
-                    return new CleverClientSSE(lineRecord);
-                })
-                .filter(CleverClientSSE::isActualData)
-                .map(item -> JsonUtil.jsonToObject(interceptStreamItem(responseData, item.getActualData()),
-                        returnType.getBaseClass()));
+    private Stream<Object> decodeAhead(Stream<ServerSentEvent> events, BatchedStream batched,
+            Function<ServerSentEvent, Object> decoder) {
+        if (batched != null) {
+            var maxSize = Math.max(1, batched.maxSize());
+            return (Stream<Object>) (Stream<?>) PipelinedStream.batched(events, decoder,
+                    Math.max(pipelineDepth, maxSize), maxSize, Math.max(0, batched.maxDelayMs()), pipelineMetrics);
+        }
+        if (pipelineDepth <= 0) {
+            return events.map(decoder);
+        }
+        return PipelinedStream.of(events, decoder, pipelineDepth, pipelineMetrics);
+    }
+
+    /**
+     * Reads and frames the events of a response ahead of their decoding, on a pipeline thread, when a
+     * pipelineDepth is set. It is meant for adapters whose events are read by the consumer of the
+     * Stream.
+     *
+     * @param events The events, read when they are pulled.
+     * @return The events, read ahead or as they are.
+     */
+    protected Stream<ServerSentEvent> readAhead(Stream<ServerSentEvent> events) {
+        if (pipelineDepth <= 0) {
+            return events;
+        }
+        return PipelinedStream.of(events, Function.identity(), pipelineDepth, pipelineMetrics);
+    }
+
+    /**
+     * Creates the parser of a server sent events response, with the ends of stream of the client and
+     * the event names of the return type.
+     *
+     * @param returnType The return type of the method.
+     * @return A parser for one response.
+     */
+    protected EventStreamParser createEventStreamParser(ReturnType returnType) {
+        return new EventStreamParser(endsOfStream, returnType.getEventTypes());
     }
 
+    /**
+     * The events of the response, resumed through new requests when the method is annotated with
+     * ResumableStream.
+     */
     @SuppressWarnings("unchecked")
-    protected Stream<Object> convertToStreamOfEvents(ResponseData responseData, ReturnType returnType) {
-        final var lineRecord = new CleverClientSSE.LineRecord();
-        final var events = returnType.getClassByEvent().keySet();
-        return ((Stream<String>) responseData.getBody())
-                .map(line -> {
-                    logger.debug(RESPONSE_FORMAT, line);
-                    lineRecord.updateWith(line);
-                    return new CleverClientSSE(lineRecord, events);
-                })
-                .filter(CleverClientSSE::isActualData)
-                .map(item -> Event.builder()
-                        .name(item.getMatchedEvent())
-                        .data(JsonUtil.jsonToObject(interceptStreamItem(responseData, item.getActualData()),
-                                returnType.getClassByEvent().get(item.getMatchedEvent())))
-                        .build());
+    private Stream<ServerSentEvent> serverSentEvents(ResponseData responseData, RequestData request) {
+        var events = (Stream<ServerSentEvent>) responseData.getBody();
+        var resumable = request.getReturnType().getResumable();
+        if (resumable != null) {
+            var retry = retryableRequest != null ? retryableRequest : defaultRetryableRequest;
+            var maxAttempts = resumable.maxAttempts() > 0 ? resumable.maxAttempts()
+                    : retry.getConfig().getMaxAttempts();
+            events = ResumableEvents.of(events, lastEventId -> resumeEvents(request, lastEventId), retry,
+                    maxAttempts);
+        }
+        return events.peek(event -> logger.debug(RESPONSE_FORMAT, event));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<ServerSentEvent> resumeEvents(RequestData request, String lastEventId) {
+        List<String> headers = new ArrayList<>();
+        var originalHeaders = request.getHeaders();
+        for (var i = 0; i + 1 < originalHeaders.size(); i += 2) {
+            if (!LAST_EVENT_ID.equalsIgnoreCase(originalHeaders.get(i))) {
+                headers.add(originalHeaders.get(i));
+                headers.add(originalHeaders.get(i + 1));
+            }
+        }
+        if (!lastEventId.isEmpty()) {
+            headers.add(LAST_EVENT_ID);
+            headers.add(lastEventId);
+        }
+        logger.debug("Http Call : {} {} (resuming after id '{}')", request.getHttpMethod(), request.getUrl(),
+                lastEventId);
+        return (Stream<ServerSentEvent>) sendForEvents(request.withHeaders(headers)).getBody();
+    }
+
+    /**
+     * Binds a decoder to the type of every event of the table, once per response, so each event is
+     * routed to its decoder by the index resolved by the parser.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<byte[], Object>[] eventDecoders(EventTypeTable eventTypes, Codec codec) {
+        var decoders = (Function<byte[], Object>[]) new Function[eventTypes.size()];
+        for (var i = 0; i < decoders.length; i++) {
+            decoders[i] = codec.decoderFor(eventTypes.getJavaType(i));
+        }
+        return decoders;
+    }
+
+    /**
+     * The data bytes go straight to the decoder of the event, unless a response interceptor needs them
+     * as text.
+     */
+    private Object decodeEvent(ResponseData responseData, ServerSentEvent event, EventTypeTable eventTypes,
+            Function<byte[], Object>[] decoders, Codec codec) {
+        if (this.responseInterceptor == null) {
+            return decoders[event.getType()].apply(event.getData());
+        }
+        return codec.decode(interceptStreamItem(responseData, event.getText()),
+                eventTypes.getJavaType(event.getType()));
+    }
+
+    /**
+     * Parses the Json values of the response incrementally, reading the bytes with no SSE framing, so
+     * only the current value is kept in memory. The values are either the elements of a top-level Json
+     * array (JSON_ARRAY) or one value per line (NDJSON). The response is closed when the values end or
+     * when the stream is closed.
+     *
+     * @param responseData The response, with an InputStream as body.
+     * @param returnType   The return type of the method.
+     * @param codec        The codec of the method.
+     * @return A lazy stream of the values.
+     */
+    protected Stream<Object> convertToStreamOfJsonValues(ResponseData responseData, ReturnType returnType,
+            Codec codec) {
+        var inputStream = (InputStream) responseData.getBody();
+        MappingIterator<Object> iterator;
+        try {
+            iterator = codec.decodeValues(inputStream, returnType.getJavaType(),
+                    returnType.getStreamFormat() == Format.JSON_ARRAY);
+        } catch (IOException e) {
+            closeQuietly(inputStream);
+            throw new CleverClientException("Cannot read the Json values of {0}.", returnType.getJavaType(), e);
+        }
+        var values = new Iterator<Object>() {
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    var hasNext = iterator.hasNextValue();
+                    if (!hasNext) {
+                        closeQuietly(iterator);
+                    }
+                    return hasNext;
+                } catch (IOException e) {
+                    closeQuietly(iterator);
+                    throw new CleverClientException("Cannot read the Json values of {0}.", returnType.getJavaType(),
+                            e);
+                }
+            }
+
+            @Override
+            public Object next() {
+                try {
+                    return iterator.nextValue();
+                } catch (IOException e) {
+                    closeQuietly(iterator);
+                    throw new CleverClientException("Cannot read the Json values of {0}.", returnType.getJavaType(),
+                            e);
+                }
+            }
+
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(values, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    closeQuietly(iterator);
+                    closeQuietly(inputStream);
+                });
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Cannot close the response : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Converts the server sent events whose name is one of the StreamType annotations of the method to
+     * Event objects, with the data converted to the class of that event.
+     *
+     * @param responseData The response, with a Stream of ServerSentEvent as body.
+     * @param request      The request, with the return type and the codec of the method.
+     * @return A lazy stream of the events.
+     */
+    protected Stream<Object> convertToStreamOfEvents(ResponseData responseData, RequestData request) {
+        final var eventTypes = request.getReturnType().getEventTypes();
+        final var codec = request.getCodec();
+        final var decoders = eventDecoders(eventTypes, codec);
+        return decodeAhead(serverSentEvents(responseData, request).filter(event -> event.getType() >= 0),
+                request.getReturnType().getBatched(),
+                event -> toEvent(responseData, event, eventTypes, decoders, codec));
+    }
+
+    /**
+     * Sets how the publisher of a server sent events response converts the events without an event name
+     * (or named "message") to objects of the return type.
+     *
+     * @param responseData The response, with an EventStreamPublisher as body.
+     * @param returnType   The return type of the method.
+     * @param codec        The codec of the method.
+     * @return The publisher of the objects.
+     */
+    protected Flow.Publisher<Object> convertToPublisherOfObjects(ResponseData responseData, ReturnType returnType,
+            Codec codec) {
+        final var eventTypes = returnType.getEventTypes();
+        final var decoders = eventDecoders(eventTypes, codec);
+        return ((EventStreamPublisher) responseData.getBody()).converting(
+                event -> event.getType() >= 0,
+                event -> decodeEvent(responseData, event, eventTypes, decoders, codec));
+    }
+
+    /**
+     * Sets how the publisher of a server sent events response converts the events whose name is one of
+     * the StreamType annotations of the method to Event objects.
+     *
+     * @param responseData The response, with an EventStreamPublisher as body.
+     * @param returnType   The return type of the method.
+     * @param codec        The codec of the method.
+     * @return The publisher of the events.
+     */
+    protected Flow.Publisher<Object> convertToPublisherOfEvents(ResponseData responseData, ReturnType returnType,
+            Codec codec) {
+        final var eventTypes = returnType.getEventTypes();
+        final var decoders = eventDecoders(eventTypes, codec);
+        return ((EventStreamPublisher) responseData.getBody()).converting(
+                event -> event.getType() >= 0,
+                event -> toEvent(responseData, event, eventTypes, decoders, codec));
+    }
+
+    private Event toEvent(ResponseData responseData, ServerSentEvent event, EventTypeTable eventTypes,
+            Function<byte[], Object>[] decoders, Codec codec) {
+        return Event.builder()
+                .name(eventTypes.getName(event.getType()))
+                .data(decodeEvent(responseData, event, eventTypes, decoders, codec))
+                .build();
     }
 
     private String interceptStreamItem(ResponseData responseData, String text) {
@@ -3,9 +3,10 @@ package io.github.sashirestela.cleverclient.client;
 import io.github.sashirestela.cleverclient.support.CleverClientException;
 import io.github.sashirestela.cleverclient.support.ContentType;
 import io.github.sashirestela.cleverclient.support.HttpMultipart;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
+import io.github.sashirestela.cleverclient.support.JsonBody;
 import io.github.sashirestela.cleverclient.support.ReturnType;
 import io.github.sashirestela.cleverclient.support.ReturnType.Category;
-import io.github.sashirestela.cleverclient.util.JsonUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,7 +23,7 @@ import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiFunction;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 public class JavaHttpClientAdapter extends HttpClientAdapter {
 
@@ -50,16 +51,16 @@ public class JavaHttpClientAdapter extends HttpClientAdapter {
         var functions = getFunctions(returnType);
         var httpRequest = convertToHttpRequest(request);
         try {
-            var httpResponse = httpClient.send(httpRequest, functions.bodyHandler.get());
+            var httpResponse = httpClient.send(httpRequest, functions.bodyHandler.apply(request));
             logger.debug(RESPONSE_CODE_FORMAT, httpResponse.statusCode());
-            var originalResponseData = convertToResponseData(httpResponse);
+            var originalResponseData = convertToResponseData(httpResponse, request);
             throwExceptionIfErrorIsPresent(originalResponseData);
             var responseData = interceptResponse(originalResponseData);
             if (!returnType.isStream()) {
                 logger.debug(RESPONSE_FORMAT, responseData.getBody());
-                return functions.responseConverter.apply(responseData.getBody(), returnType);
+                return functions.responseConverter.apply(responseData.getBody(), request);
             } else {
-                return functions.responseConverter.apply(responseData, returnType);
+                return functions.responseConverter.apply(responseData, request);
             }
         } catch (IOException | InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -67,26 +68,72 @@ public class JavaHttpClientAdapter extends HttpClientAdapter {
         }
     }
 
+    @Override
+    protected ResponseData sendForEvents(RequestData request) {
+        var functions = getFunctions(request.getReturnType());
+        try {
+            var httpResponse = httpClient.send(convertToHttpRequest(request), functions.bodyHandler.apply(request));
+            logger.debug(RESPONSE_CODE_FORMAT, httpResponse.statusCode());
+            var responseData = convertToResponseData(httpResponse, request);
+            throwExceptionIfErrorIsPresent(responseData);
+            return responseData;
+        } catch (IOException e) {
+            throw new CleverClientException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CleverClientException(e);
+        }
+    }
+
     @Override
     protected Object sendAsync(RequestData request) {
         var returnType = request.getReturnType();
         var functions = getFunctions(returnType);
         var httpRequest = convertToHttpRequest(request);
-        var httpResponseFuture = httpClient.sendAsync(httpRequest, functions.bodyHandler.get());
+        var httpResponseFuture = httpClient.sendAsync(httpRequest, getAsyncBodyHandler(functions, request));
         return httpResponseFuture.thenApply(httpResponse -> {
             logger.debug(RESPONSE_CODE_FORMAT, httpResponse.statusCode());
-            var originalResponseData = convertToResponseData(httpResponse);
+            var originalResponseData = convertToResponseData(httpResponse, request);
             throwExceptionIfErrorIsPresent(originalResponseData);
             var responseData = interceptResponse(originalResponseData);
             if (!returnType.isStream()) {
                 logger.debug(RESPONSE_FORMAT, responseData.getBody());
-                return functions.responseConverter.apply(responseData.getBody(), returnType);
+                return functions.responseConverter.apply(responseData.getBody(), request);
             } else {
-                return functions.responseConverter.apply(responseData, returnType);
+                return functions.responseConverter.apply(responseData, request);
             }
         });
     }
 
+    /**
+     * Json responses are parsed while they arrive, except when a response interceptor or the debug log
+     * need the text of the response, or when the codec is not backed by Jackson.
+     */
+    private BodyHandler<?> getAsyncBodyHandler(FunctionsByCategory functions, RequestData request) {
+        var returnType = request.getReturnType();
+        if (returnType.isJson() && responseInterceptor == null && !logger.isDebugEnabled()
+                && request.getCodec() instanceof JacksonCodec) {
+            return new JsonBodyHandler((JacksonCodec) request.getCodec(), returnType.getJavaType());
+        }
+        return functions.bodyHandler.apply(request);
+    }
+
+    @Override
+    public void preconnect(String url) {
+        var httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .method("HEAD", BodyPublishers.noBody())
+                .build();
+        try {
+            var httpResponse = httpClient.send(httpRequest, BodyHandlers.discarding());
+            logger.debug("Preconnect Code : {}", httpResponse.statusCode());
+        } catch (IOException e) {
+            logger.debug("Preconnect failed : {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     public void shutdown() {
         httpClient.executor().ifPresent(executor -> {
@@ -128,16 +175,21 @@ public class JavaHttpClientAdapter extends HttpClientAdapter {
             bodyPublisher = BodyPublishers.ofByteArrays(bodyBytes);
         } else if (contentType == ContentType.APPLICATION_JSON) {
             logger.debug(REQUEST_BODY_FORMAT, bodyObject);
-            bodyPublisher = BodyPublishers.ofString((String) bodyObject);
+            bodyPublisher = bodyObject instanceof JsonBody
+                    ? BodyPublishers.ofByteArray(((JsonBody) bodyObject).getBytes())
+                    : BodyPublishers.ofString((String) bodyObject);
         }
         return bodyPublisher;
     }
 
-    private ResponseData convertToResponseData(HttpResponse<?> httpResponse) {
+    private ResponseData convertToResponseData(HttpResponse<?> httpResponse, RequestData request) {
         var httpRequest = httpResponse.request();
+        var body = httpResponse.body() instanceof byte[]
+                ? new JsonBody((byte[]) httpResponse.body(), request.getCodec().getMediaType())
+                : httpResponse.body();
         return ResponseData.builder()
                 .statusCode(httpResponse.statusCode())
-                .body(httpResponse.body())
+                .body(body)
                 .headers(httpResponse.headers().map())
                 .request(httpRequest != null ? ResponseData.Request.builder()
                         .httpMethod(httpRequest.method())
@@ -149,11 +201,11 @@ public class JavaHttpClientAdapter extends HttpClientAdapter {
 
     private class FunctionsByCategory {
 
-        Supplier<BodyHandler<?>> bodyHandler;
-        BiFunction<Object, ReturnType, Object> responseConverter;
+        Function<RequestData, BodyHandler<?>> bodyHandler;
+        BiFunction<Object, RequestData, Object> responseConverter;
 
-        public FunctionsByCategory(Supplier<BodyHandler<?>> bodyHandler,
-                BiFunction<Object, ReturnType, Object> responseConverter) {
+        public FunctionsByCategory(Function<RequestData, BodyHandler<?>> bodyHandler,
+                BiFunction<Object, RequestData, Object> responseConverter) {
             this.bodyHandler = bodyHandler;
             this.responseConverter = responseConverter;
         }
@@ -163,47 +215,65 @@ public class JavaHttpClientAdapter extends HttpClientAdapter {
     private void fillFunctionsByCategory() {
         this.functionsByCategoryMap = new EnumMap<>(Category.class);
         functionsByCategoryMap.put(Category.SYNC_BINARY, new FunctionsByCategory(
-                () -> BodyHandlers.ofInputStream(),
-                (r, t) -> r));
+                q -> BodyHandlers.ofInputStream(),
+                (r, q) -> r));
         functionsByCategoryMap.put(Category.SYNC_PLAIN_TEXT, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> r));
+                q -> BodyHandlers.ofString(),
+                (r, q) -> r));
         functionsByCategoryMap.put(Category.SYNC_CUSTOM, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> JsonUtil.jsonToObject((String) r, t.getBaseClass())));
+                q -> BodyHandlers.ofByteArray(),
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_GENERIC, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> JsonUtil.jsonToParametricObject((String) r, t.getGenericClassIfExists(), t.getBaseClass())));
+                q -> BodyHandlers.ofByteArray(),
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_LIST, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> JsonUtil.jsonToList((String) r, t.getBaseClass())));
+                q -> BodyHandlers.ofByteArray(),
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_STREAM, new FunctionsByCategory(
-                () -> BodyHandlers.ofLines(),
-                (r, t) -> convertToStreamOfObjects((ResponseData) r, t)));
+                q -> new EventStreamBodyHandler(() -> createEventStreamParser(q.getReturnType())),
+                (r, q) -> convertToStreamOfObjects((ResponseData) r, q)));
+        functionsByCategoryMap.put(Category.SYNC_STREAM_JSON_ARRAY, new FunctionsByCategory(
+                q -> BodyHandlers.ofInputStream(),
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
+        functionsByCategoryMap.put(Category.SYNC_STREAM_NDJSON, new FunctionsByCategory(
+                q -> BodyHandlers.ofInputStream(),
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_STREAM_EVENT, new FunctionsByCategory(
-                () -> BodyHandlers.ofLines(),
-                (r, t) -> convertToStreamOfEvents((ResponseData) r, t)));
+                q -> new EventStreamBodyHandler(() -> createEventStreamParser(q.getReturnType())),
+                (r, q) -> convertToStreamOfEvents((ResponseData) r, q)));
         functionsByCategoryMap.put(Category.ASYNC_BINARY, new FunctionsByCategory(
-                () -> BodyHandlers.ofInputStream(),
-                (r, t) -> r));
+                q -> BodyHandlers.ofInputStream(),
+                (r, q) -> r));
         functionsByCategoryMap.put(Category.ASYNC_PLAIN_TEXT, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> r));
+                q -> BodyHandlers.ofString(),
+                (r, q) -> r));
         functionsByCategoryMap.put(Category.ASYNC_CUSTOM, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> JsonUtil.jsonToObject((String) r, t.getBaseClass())));
+                q -> BodyHandlers.ofByteArray(),
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_GENERIC, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> JsonUtil.jsonToParametricObject((String) r, t.getGenericClassIfExists(), t.getBaseClass())));
+                q -> BodyHandlers.ofByteArray(),
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_LIST, new FunctionsByCategory(
-                () -> BodyHandlers.ofString(),
-                (r, t) -> JsonUtil.jsonToList((String) r, t.getBaseClass())));
+                q -> BodyHandlers.ofByteArray(),
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_STREAM, new FunctionsByCategory(
-                () -> BodyHandlers.ofLines(),
-                (r, t) -> convertToStreamOfObjects((ResponseData) r, t)));
+                q -> new EventStreamBodyHandler(() -> createEventStreamParser(q.getReturnType())),
+                (r, q) -> convertToStreamOfObjects((ResponseData) r, q)));
+        functionsByCategoryMap.put(Category.ASYNC_STREAM_JSON_ARRAY, new FunctionsByCategory(
+                q -> BodyHandlers.ofInputStream(),
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
+        functionsByCategoryMap.put(Category.ASYNC_STREAM_NDJSON, new FunctionsByCategory(
+                q -> BodyHandlers.ofInputStream(),
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_STREAM_EVENT, new FunctionsByCategory(
-                () -> BodyHandlers.ofLines(),
-                (r, t) -> convertToStreamOfEvents((ResponseData) r, t)));
+                q -> new EventStreamBodyHandler(() -> createEventStreamParser(q.getReturnType())),
+                (r, q) -> convertToStreamOfEvents((ResponseData) r, q)));
+        functionsByCategoryMap.put(Category.PUBLISHER, new FunctionsByCategory(
+                q -> new EventStreamBodyHandler(() -> createEventStreamParser(q.getReturnType()), true),
+                (r, q) -> convertToPublisherOfObjects((ResponseData) r, q.getReturnType(), q.getCodec())));
+        functionsByCategoryMap.put(Category.PUBLISHER_EVENT, new FunctionsByCategory(
+                q -> new EventStreamBodyHandler(() -> createEventStreamParser(q.getReturnType()), true),
+                (r, q) -> convertToPublisherOfEvents((ResponseData) r, q.getReturnType(), q.getCodec())));
     }
 
 }
@@ -0,0 +1,163 @@
+package io.github.sashirestela.cleverclient.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
+import io.github.sashirestela.cleverclient.support.JsonBody;
+import io.github.sashirestela.cleverclient.util.CommonUtil;
+import io.github.sashirestela.cleverclient.util.Constant;
+
+import java.io.IOException;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Body handler of the Json categories for the Java HttpClient. Successful responses are tokenized by
+ * the Jackson non-blocking parser as each chunk arrives, so only the binding from the buffered
+ * tokens is left when the last chunk comes. The parser and the reader come from the codec, so binary
+ * formats like Smile are parsed the same way. Error responses, and object mappers without a
+ * non-blocking parser, are read as a JsonBody.
+ */
+public class JsonBodyHandler implements BodyHandler<Object> {
+
+    private final JacksonCodec codec;
+    private final JavaType javaType;
+
+    public JsonBodyHandler(JacksonCodec codec, JavaType javaType) {
+        this.codec = codec;
+        this.javaType = javaType;
+    }
+
+    public JsonBodyHandler(JavaType javaType) {
+        this(JacksonCodec.json(), javaType);
+    }
+
+    @Override
+    public BodySubscriber<Object> apply(ResponseInfo responseInfo) {
+        if (CommonUtil.isInHundredsOf(responseInfo.statusCode(), Constant.HTTP_SUCCESSFUL)) {
+            var parser = codec.createNonBlockingParser();
+            if (parser != null) {
+                return new JsonBodySubscriber(parser, codec.readerFor(javaType), codec.getMediaType());
+            }
+        }
+        return BodySubscribers.mapping(BodySubscribers.ofByteArray(),
+                bytes -> new JsonBody(bytes, codec.getMediaType()));
+    }
+
+    /**
+     * Value already bound by the subscriber.
+     */
+    public static final class ParsedJson {
+
+        private final Object value;
+
+        ParsedJson(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "(Parsed on arrival)";
+        }
+
+    }
+
+    static class JsonBodySubscriber implements BodySubscriber<Object> {
+
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final TokenBuffer tokens;
+        private final ObjectReader reader;
+        private final String mediaType;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private boolean empty = true;
+
+        JsonBodySubscriber(JsonParser parser, ObjectReader reader, String mediaType) {
+            this.parser = parser;
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            this.tokens = new TokenBuffer(parser);
+            this.reader = reader;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public CompletionStage<Object> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                for (var buffer : buffers) {
+                    feeder.feedInput(buffer);
+                    copyAvailableTokens();
+                }
+            } catch (IOException | RuntimeException e) {
+                subscription.cancel();
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                feeder.endOfInput();
+                copyAvailableTokens();
+                if (empty) {
+                    result.complete(new JsonBody(new byte[0], mediaType));
+                } else {
+                    result.complete(new ParsedJson(reader.readValue(tokens.asParser())));
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void copyAvailableTokens() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                tokens.copyCurrentEvent(parser);
+                empty = false;
+            }
+        }
+
+        private void fail(Exception e) {
+            result.completeExceptionally(
+                    new CleverClientException("Cannot convert the Json response to type {0}.", reader.getValueType(),
+                            e));
+        }
+
+    }
+
+}
@@ -0,0 +1,301 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Shares one stream (for instance the server sent events of one response) with many subscribers, so
+ * each of them gets all the items while the upstream is read only once. The items are kept in a
+ * bounded buffer: a subscriber can replay the ones still held there and then goes on with the new
+ * ones. Each subscriber has its own cursor; the upstream is read on the thread of the subscriber that
+ * is ahead, and it waits up to a max wait while reading more would overwrite an item that another
+ * subscriber has not reached yet. Then the subscribers that fell more than the capacity behind are
+ * dropped: their streams throw a CleverClientException, and the others go on. So a subscriber that
+ * is abandoned without being closed (e.g. after anyMatch or findFirst) stalls the others once, for the
+ * max wait at most. A subscriber is also unsubscribed when its stream ends. An error of the upstream is
+ * thrown to every subscriber when it reaches it. The upstream is closed when it ends, or when the
+ * MulticastStream is closed.
+ *
+ * @param <T> Type of the items.
+ */
+public final class MulticastStream<T> implements AutoCloseable {
+
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(1);
+
+    private final Stream<T> upstream;
+    private final Iterator<T> iterator;
+    private final Object[] items;
+    private final long maxWaitNanos;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private long count;
+    private boolean pulling;
+    private boolean ended;
+    private Throwable failure;
+    private boolean closed;
+
+    private MulticastStream(Stream<T> upstream, int capacity, Duration maxWait) {
+        this.upstream = upstream;
+        this.iterator = upstream.iterator();
+        this.items = new Object[capacity];
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Shares a stream, waiting up to one second for the slower subscribers before dropping them.
+     * Nothing is read until a subscriber pulls an item.
+     *
+     * @param <T>      Type of the items.
+     * @param upstream The stream to share, like the one returned by a method of a service.
+     * @param capacity How many of the last items are kept for replay and for the slower subscribers.
+     * @return The shared stream.
+     */
+    public static <T> MulticastStream<T> of(Stream<T> upstream, int capacity) {
+        return of(upstream, capacity, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * Shares a stream. Nothing is read until a subscriber pulls an item.
+     *
+     * @param <T>      Type of the items.
+     * @param upstream The stream to share, like the one returned by a method of a service.
+     * @param capacity How many of the last items are kept for replay and for the slower subscribers.
+     * @param maxWait  How long the subscriber that is ahead waits for the ones that are a whole
+     *                 capacity behind, before dropping them. With zero they are dropped at once.
+     * @return The shared stream.
+     */
+    public static <T> MulticastStream<T> of(Stream<T> upstream, int capacity, Duration maxWait) {
+        if (capacity < 1) {
+            throw new CleverClientException("The capacity must be positive, but it was {0}.", capacity, null);
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new CleverClientException("The max wait cannot be null or negative, but it was {0}.", maxWait,
+                    null);
+        }
+        return new MulticastStream<>(upstream, capacity, maxWait);
+    }
+
+    /**
+     * Subscribes from the start: the items still kept in the buffer are replayed first.
+     *
+     * @return A lazy stream of the items; closing it leaves the others untouched.
+     */
+    public Stream<T> subscribe() {
+        return subscribe(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Subscribes from the tail: up to replayItems of the last items kept in the buffer are replayed
+     * first, and with 0 only the items read after this call are delivered.
+     *
+     * @param replayItems Most items to replay.
+     * @return A lazy stream of the items; closing it leaves the others untouched.
+     */
+    public Stream<T> subscribe(int replayItems) {
+        lock.lock();
+        try {
+            var start = Math.max(Math.max(0, count - items.length), count - Math.max(0, replayItems));
+            var subscriber = new Subscriber(start);
+            subscribers.add(subscriber);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(subscriber, Spliterator.ORDERED), false)
+                    .onClose(subscriber::close);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the streams of all the subscribers and closes the upstream.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        upstream.close();
+    }
+
+    /**
+     * Whether reading the next item would overwrite one that an open subscriber has not reached yet.
+     */
+    private boolean isFull() {
+        var overwritten = count - items.length;
+        return overwritten >= 0 && subscribers.stream().anyMatch(subscriber -> subscriber.cursor <= overwritten);
+    }
+
+    /**
+     * Drops the subscribers that have not reached the item that the next one overwrites.
+     */
+    private void dropLaggingSubscribers() {
+        var overwritten = count - items.length;
+        subscribers.removeIf(subscriber -> {
+            if (subscriber.cursor > overwritten) {
+                return false;
+            }
+            subscriber.dropped = new CleverClientException(
+                    "The subscriber fell more than {0} items behind the shared stream.", items.length, null);
+            return true;
+        });
+        changed.signalAll();
+    }
+
+    /**
+     * Reads the next item of the upstream without holding the lock, so the other subscribers can go on
+     * with the items already buffered.
+     */
+    private void pull() {
+        pulling = true;
+        Object item = null;
+        var hasItem = false;
+        Throwable error = null;
+        lock.unlock();
+        try {
+            hasItem = iterator.hasNext();
+            if (hasItem) {
+                item = iterator.next();
+            }
+        } catch (RuntimeException | Error e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        pulling = false;
+        if (error != null) {
+            failure = error;
+        } else if (hasItem) {
+            items[(int) (count % items.length)] = item;
+            count++;
+        } else {
+            ended = true;
+        }
+        if (failure != null || ended) {
+            upstream.close();
+        }
+        changed.signalAll();
+    }
+
+    private class Subscriber implements Iterator<T> {
+
+        private long cursor;
+        private boolean unsubscribed;
+        private CleverClientException dropped;
+
+        Subscriber(long cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            lock.lock();
+            try {
+                var waitDeadline = 0L;
+                while (true) {
+                    if (dropped != null) {
+                        throw dropped;
+                    }
+                    if (unsubscribed || closed) {
+                        return false;
+                    }
+                    if (cursor < count) {
+                        return true;
+                    }
+                    if (failure != null || ended) {
+                        unsubscribe();
+                        throwFailure();
+                        return false;
+                    }
+                    if (pulling) {
+                        awaitChange(0L);
+                    } else if (!isFull()) {
+                        waitDeadline = 0L;
+                        pull();
+                    } else if (waitDeadline == 0L) {
+                        waitDeadline = System.nanoTime() + maxWaitNanos;
+                    } else if (!awaitChange(waitDeadline)) {
+                        dropLaggingSubscribers();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void throwFailure() {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            lock.lock();
+            try {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                var item = (T) items[(int) (cursor % items.length)];
+                cursor++;
+                changed.signalAll();
+                return item;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits for another subscriber or for the upstream, until the deadline if it is not 0.
+         *
+         * @return False if the deadline passed.
+         */
+        private boolean awaitChange(long deadline) {
+            try {
+                if (deadline == 0L) {
+                    changed.await();
+                    return true;
+                }
+                var remaining = deadline - System.nanoTime();
+                return remaining > 0 && changed.awaitNanos(remaining) > 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CleverClientException("Interrupted while waiting for the next shared item.", e);
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                unsubscribe();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void unsubscribe() {
+            unsubscribed = true;
+            subscribers.remove(this);
+            changed.signalAll();
+        }
+
+    }
+
+}
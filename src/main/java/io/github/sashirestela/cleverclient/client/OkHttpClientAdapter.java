@@ -1,11 +1,16 @@
 package io.github.sashirestela.cleverclient.client;
 
+import io.github.sashirestela.cleverclient.annotation.StreamFormat.Format;
 import io.github.sashirestela.cleverclient.support.CleverClientException;
 import io.github.sashirestela.cleverclient.support.ContentType;
+import io.github.sashirestela.cleverclient.support.EventStreamParser;
 import io.github.sashirestela.cleverclient.support.HttpMultipart;
+import io.github.sashirestela.cleverclient.support.JsonBody;
 import io.github.sashirestela.cleverclient.support.ReturnType;
 import io.github.sashirestela.cleverclient.support.ReturnType.Category;
-import io.github.sashirestela.cleverclient.util.JsonUtil;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+import io.github.sashirestela.cleverclient.util.CommonUtil;
+import io.github.sashirestela.cleverclient.util.Constant;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.Headers;
@@ -19,21 +24,28 @@ import okio.ByteString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiFunction;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class OkHttpClientAdapter extends HttpClientAdapter {
 
     private static Logger logger = LoggerFactory.getLogger(OkHttpClientAdapter.class);
+    private static final String UTF8_CHARSET = "; charset=utf-8";
+    private static final int CHUNK_SIZE = 8192;
 
     private OkHttpClient okHttpClient;
     private EnumMap<Category, FunctionsByCategory> functionsByCategoryMap;
@@ -60,19 +72,19 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
             var response = okHttpClient.newCall(okHttpRequest).execute();
             logger.debug(RESPONSE_CODE_FORMAT, response.code());
             if (returnType.isStream() || returnType.isInputStream()) {
-                var responseContent = getResponseContent(response.body(), returnType);
+                var responseContent = getResponseContent(response, request);
                 var originalResponseData = convertToResponseData(response, responseContent);
                 throwExceptionIfErrorIsPresent(originalResponseData);
                 var responseData = interceptResponse(originalResponseData);
-                return functions.responseConverter.apply(responseData, returnType);
+                return functions.responseConverter.apply(responseData, request);
             } else {
                 try (response) {
-                    var responseContent = getResponseContent(response.body(), returnType);
+                    var responseContent = getResponseContent(response, request);
                     var originalResponseData = convertToResponseData(response, responseContent);
                     throwExceptionIfErrorIsPresent(originalResponseData);
                     var responseData = interceptResponse(originalResponseData);
                     logger.debug(RESPONSE_FORMAT, responseData.getBody());
-                    return functions.responseConverter.apply(responseData.getBody(), returnType);
+                    return functions.responseConverter.apply(responseData.getBody(), request);
                 }
             }
         } catch (IOException e) {
@@ -80,6 +92,19 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
         }
     }
 
+    @Override
+    protected ResponseData sendForEvents(RequestData request) {
+        try {
+            var response = okHttpClient.newCall(convertToOkHttpRequest(request)).execute();
+            logger.debug(RESPONSE_CODE_FORMAT, response.code());
+            var responseData = convertToResponseData(response, getResponseContent(response, request));
+            throwExceptionIfErrorIsPresent(responseData);
+            return responseData;
+        } catch (IOException e) {
+            throw new CleverClientException(e);
+        }
+    }
+
     @Override
     protected Object sendAsync(RequestData request) {
         var returnType = request.getReturnType();
@@ -98,23 +123,23 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
                 logger.debug(RESPONSE_CODE_FORMAT, response.code());
                 if (returnType.isStream() || returnType.isInputStream()) {
                     try {
-                        var responseContent = getResponseContent(response.body(), returnType);
+                        var responseContent = getResponseContent(response, request);
                         var originalResponseData = convertToResponseData(response, responseContent);
                         throwExceptionIfErrorIsPresent(originalResponseData);
                         var responseData = interceptResponse(originalResponseData);
-                        responseFuture.complete(functions.responseConverter.apply(responseData, returnType));
+                        responseFuture.complete(functions.responseConverter.apply(responseData, request));
                     } catch (CleverClientException e) {
                         response.close();
                         responseFuture.completeExceptionally(e);
                     }
                 } else {
                     try (response) {
-                        var responseContent = getResponseContent(response.body(), returnType);
+                        var responseContent = getResponseContent(response, request);
                         var originalResponseData = convertToResponseData(response, responseContent);
                         throwExceptionIfErrorIsPresent(originalResponseData);
                         var responseData = interceptResponse(originalResponseData);
                         logger.debug(RESPONSE_FORMAT, responseData.getBody());
-                        responseFuture.complete(functions.responseConverter.apply(responseData.getBody(), returnType));
+                        responseFuture.complete(functions.responseConverter.apply(responseData.getBody(), request));
                     } catch (CleverClientException e) {
                         responseFuture.completeExceptionally(e);
                     }
@@ -125,6 +150,19 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
         return responseFuture;
     }
 
+    @Override
+    public void preconnect(String url) {
+        var okHttpRequest = new Request.Builder()
+                .url(url)
+                .head()
+                .build();
+        try (var response = okHttpClient.newCall(okHttpRequest).execute()) {
+            logger.debug("Preconnect Code : {}", response.code());
+        } catch (IOException e) {
+            logger.debug("Preconnect failed : {}", e.getMessage());
+        }
+    }
+
     @Override
     public void shutdown() {
         okHttpClient.dispatcher().executorService().shutdown();
@@ -140,7 +178,8 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
     }
 
     private Request convertToOkHttpRequest(RequestData request) {
-        var requestBody = createRequestBody(request.getBody(), request.getContentType(), request.getHttpMethod());
+        var requestBody = createRequestBody(request.getBody(), request.getContentType(), request.getHttpMethod(),
+                request.getCodec().getMediaType());
         var headersArray = request.getHeaders().toArray(new String[0]);
         var requestBuilder = new Request.Builder()
                 .url(request.getUrl())
@@ -152,7 +191,8 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
     }
 
     @SuppressWarnings("unchecked")
-    private RequestBody createRequestBody(Object bodyObject, ContentType contentType, String httpMethod) {
+    private RequestBody createRequestBody(Object bodyObject, ContentType contentType, String httpMethod,
+            String mediaType) {
         RequestBody requestBody = null;
         if (contentType == null) {
             logger.debug(REQUEST_BODY_FORMAT, "(Empty)");
@@ -166,7 +206,14 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
                     MediaType.parse(contentType.getMimeType() + contentType.getDetails()));
         } else if (contentType == ContentType.APPLICATION_JSON) {
             logger.debug(REQUEST_BODY_FORMAT, bodyObject);
-            requestBody = RequestBody.create((String) bodyObject, MediaType.parse(contentType.getMimeType()));
+            if (bodyObject instanceof JsonBody) {
+                // The String variant appends the UTF-8 charset to the Json media type, so the bytes do as well
+                var charset = mediaType.equals(contentType.getMimeType()) ? UTF8_CHARSET : "";
+                requestBody = RequestBody.create(((JsonBody) bodyObject).getBytes(),
+                        MediaType.parse(mediaType + charset));
+            } else {
+                requestBody = RequestBody.create((String) bodyObject, MediaType.parse(contentType.getMimeType()));
+            }
         }
         return requestBody;
     }
@@ -196,51 +243,23 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
                 .build();
     }
 
-    private Object getResponseContent(ResponseBody responseBody, ReturnType returnType) {
+    private Object getResponseContent(Response response, RequestData request) {
+        var returnType = request.getReturnType();
+        var responseBody = response.body();
         try {
-            if (returnType.isStream()) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(responseBody.byteStream()));
-                return StreamSupport.stream(new Spliterator<String>() {
-
-                    private final Iterator<String> iterator = reader.lines().iterator();
-                    private boolean closed = false;
-
-                    @Override
-                    public boolean tryAdvance(java.util.function.Consumer<? super String> action) {
-                        if (iterator.hasNext()) {
-                            action.accept(iterator.next());
-                            return true;
-                        }
-                        if (!closed) {
-                            try {
-                                reader.close();
-                                responseBody.close();
-                                closed = true;
-                            } catch (Exception e) {
-                                throw new CleverClientException(e);
-                            }
-                        }
-                        return false;
-                    }
-
-                    @Override
-                    public Spliterator<String> trySplit() {
-                        return null;
-                    }
-
-                    @Override
-                    public long estimateSize() {
-                        return Long.MAX_VALUE;
-                    }
-
-                    @Override
-                    public int characteristics() {
-                        return Spliterator.ORDERED;
-                    }
-
-                }, false);
+            if (returnType.isStream() && returnType.getStreamFormat() != Format.SSE) {
+                return responseBody.byteStream();
+            } else if (returnType.isStream()) {
+                if (!CommonUtil.isInHundredsOf(response.code(), Constant.HTTP_SUCCESSFUL)) {
+                    return responseBody.string();
+                }
+                var parser = createEventStreamParser(returnType);
+                return returnType.isPublisher() ? eventPublisher(responseBody, parser)
+                        : readAhead(serverSentEvents(responseBody, parser));
             } else if (returnType.isInputStream()) {
                 return responseBody.byteStream();
+            } else if (returnType.isJson()) {
+                return new JsonBody(responseBody.bytes(), request.getCodec().getMediaType());
             } else {
                 return responseBody.string();
             }
@@ -249,11 +268,110 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
         }
     }
 
+    /**
+     * Frames the events from chunks read from the source of the response, scanning the raw bytes for
+     * line terminators instead of decoding lines. The response is closed when the events end or when
+     * the stream is closed.
+     */
+    private Stream<ServerSentEvent> serverSentEvents(ResponseBody responseBody, EventStreamParser parser) {
+        var source = responseBody.source();
+        var events = new ArrayDeque<ServerSentEvent>();
+        var framer = new EventStreamFramer(parser, events::add);
+        var iterator = new Iterator<ServerSentEvent>() {
+
+            private final byte[] chunk = new byte[CHUNK_SIZE];
+            private boolean finished = false;
+
+            @Override
+            public boolean hasNext() {
+                while (events.isEmpty() && !finished) {
+                    readChunk();
+                }
+                return !events.isEmpty();
+            }
+
+            @Override
+            public ServerSentEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return events.poll();
+            }
+
+            private void readChunk() {
+                try {
+                    var length = source.read(chunk);
+                    if (length < 0) {
+                        finished = true;
+                        responseBody.close();
+                        framer.finish();
+                    } else {
+                        framer.feed(chunk, 0, length);
+                    }
+                } catch (IOException e) {
+                    finished = true;
+                    responseBody.close();
+                    throw new CleverClientException(e);
+                }
+            }
+
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(responseBody::close);
+    }
+
+    /**
+     * Publishes the events of the response. Each chunk request of the publisher becomes one read of the
+     * source, run on the executor of the dispatcher, so no thread waits for the demand of the
+     * subscriber.
+     */
+    private EventStreamPublisher eventPublisher(ResponseBody responseBody, EventStreamParser parser) {
+        var source = responseBody.source();
+        var executor = okHttpClient.dispatcher().executorService();
+        var publisher = new EventStreamPublisher(parser);
+        publisher.onSubscribe(new Flow.Subscription() {
+
+            private final byte[] chunk = new byte[CHUNK_SIZE];
+
+            @Override
+            public void request(long n) {
+                try {
+                    executor.execute(this::readChunk);
+                } catch (RejectedExecutionException e) {
+                    responseBody.close();
+                    publisher.onError(e);
+                }
+            }
+
+            @Override
+            public void cancel() {
+                responseBody.close();
+            }
+
+            private void readChunk() {
+                try {
+                    var length = source.read(chunk);
+                    if (length < 0) {
+                        responseBody.close();
+                        publisher.onComplete();
+                    } else {
+                        publisher.onNext(List.of(ByteBuffer.wrap(chunk, 0, length)));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    responseBody.close();
+                    publisher.onError(e);
+                }
+            }
+
+        });
+        return publisher;
+    }
+
     private class FunctionsByCategory {
 
-        BiFunction<Object, ReturnType, Object> responseConverter;
+        BiFunction<Object, RequestData, Object> responseConverter;
 
-        public FunctionsByCategory(BiFunction<Object, ReturnType, Object> responseConverter) {
+        public FunctionsByCategory(BiFunction<Object, RequestData, Object> responseConverter) {
             this.responseConverter = responseConverter;
         }
 
@@ -262,33 +380,45 @@ public class OkHttpClientAdapter extends HttpClientAdapter {
     private void fillFunctionsByCategory() {
         this.functionsByCategoryMap = new EnumMap<>(Category.class);
         functionsByCategoryMap.put(Category.SYNC_BINARY, new FunctionsByCategory(
-                (r, t) -> ((ResponseData) r).getBody()));
+                (r, q) -> ((ResponseData) r).getBody()));
         functionsByCategoryMap.put(Category.SYNC_PLAIN_TEXT, new FunctionsByCategory(
-                (r, t) -> r));
+                (r, q) -> r));
         functionsByCategoryMap.put(Category.SYNC_CUSTOM, new FunctionsByCategory(
-                (r, t) -> JsonUtil.jsonToObject((String) r, t.getBaseClass())));
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_GENERIC, new FunctionsByCategory(
-                (r, t) -> JsonUtil.jsonToParametricObject((String) r, t.getGenericClassIfExists(), t.getBaseClass())));
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_LIST, new FunctionsByCategory(
-                (r, t) -> JsonUtil.jsonToList((String) r, t.getBaseClass())));
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_STREAM, new FunctionsByCategory(
-                (r, t) -> convertToStreamOfObjects((ResponseData) r, t)));
+                (r, q) -> convertToStreamOfObjects((ResponseData) r, q)));
+        functionsByCategoryMap.put(Category.SYNC_STREAM_JSON_ARRAY, new FunctionsByCategory(
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
+        functionsByCategoryMap.put(Category.SYNC_STREAM_NDJSON, new FunctionsByCategory(
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.SYNC_STREAM_EVENT, new FunctionsByCategory(
-                (r, t) -> convertToStreamOfEvents((ResponseData) r, t)));
+                (r, q) -> convertToStreamOfEvents((ResponseData) r, q)));
         functionsByCategoryMap.put(Category.ASYNC_BINARY, new FunctionsByCategory(
-                (r, t) -> ((ResponseData) r).getBody()));
+                (r, q) -> ((ResponseData) r).getBody()));
         functionsByCategoryMap.put(Category.ASYNC_PLAIN_TEXT, new FunctionsByCategory(
-                (r, t) -> r));
+                (r, q) -> r));
         functionsByCategoryMap.put(Category.ASYNC_CUSTOM, new FunctionsByCategory(
-                (r, t) -> JsonUtil.jsonToObject((String) r, t.getBaseClass())));
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_GENERIC, new FunctionsByCategory(
-                (r, t) -> JsonUtil.jsonToParametricObject((String) r, t.getGenericClassIfExists(), t.getBaseClass())));
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_LIST, new FunctionsByCategory(
-                (r, t) -> JsonUtil.jsonToList((String) r, t.getBaseClass())));
+                (r, q) -> convertToObject(r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_STREAM, new FunctionsByCategory(
-                (r, t) -> convertToStreamOfObjects((ResponseData) r, t)));
+                (r, q) -> convertToStreamOfObjects((ResponseData) r, q)));
+        functionsByCategoryMap.put(Category.ASYNC_STREAM_JSON_ARRAY, new FunctionsByCategory(
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
+        functionsByCategoryMap.put(Category.ASYNC_STREAM_NDJSON, new FunctionsByCategory(
+                (r, q) -> convertToStreamOfJsonValues((ResponseData) r, q.getReturnType(), q.getCodec())));
         functionsByCategoryMap.put(Category.ASYNC_STREAM_EVENT, new FunctionsByCategory(
-                (r, t) -> convertToStreamOfEvents((ResponseData) r, t)));
+                (r, q) -> convertToStreamOfEvents((ResponseData) r, q)));
+        functionsByCategoryMap.put(Category.PUBLISHER, new FunctionsByCategory(
+                (r, q) -> convertToPublisherOfObjects((ResponseData) r, q.getReturnType(), q.getCodec())));
+        functionsByCategoryMap.put(Category.PUBLISHER_EVENT, new FunctionsByCategory(
+                (r, q) -> convertToPublisherOfEvents((ResponseData) r, q.getReturnType(), q.getCodec())));
 
     }
 
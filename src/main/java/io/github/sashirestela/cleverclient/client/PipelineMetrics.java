@@ -0,0 +1,74 @@
+package io.github.sashirestela.cleverclient.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the pipelined streams of a client adapter, to size their depth: how many items wait in
+ * the ring buffers, and how often a stage waited for the next one. Consumer stalls mean the stages
+ * ahead do not keep up (network or parsing); producer stalls mean the consumer is the slowest stage.
+ */
+public class PipelineMetrics {
+
+    private final AtomicInteger queuedItems = new AtomicInteger();
+    private final AtomicInteger peakQueuedItems = new AtomicInteger();
+    private final LongAdder consumerStalls = new LongAdder();
+    private final LongAdder producerStalls = new LongAdder();
+
+    /**
+     * Items produced and not consumed yet, in all the open pipelined streams.
+     *
+     * @return The current depth of the buffers.
+     */
+    public int getQueuedItems() {
+        return queuedItems.get();
+    }
+
+    /**
+     * Highest number of items that waited at the same time in the buffer of one pipelined stream.
+     *
+     * @return The peak depth of a buffer.
+     */
+    public int getPeakQueuedItems() {
+        return peakQueuedItems.get();
+    }
+
+    /**
+     * Times the consumer of a pipelined stream found its buffer empty and had to wait.
+     *
+     * @return The number of waits.
+     */
+    public long getConsumerStalls() {
+        return consumerStalls.sum();
+    }
+
+    /**
+     * Times a stage of a pipelined stream found its buffer full and had to wait.
+     *
+     * @return The number of waits.
+     */
+    public long getProducerStalls() {
+        return producerStalls.sum();
+    }
+
+    void produced() {
+        queuedItems.incrementAndGet();
+    }
+
+    void buffered(int bufferSize) {
+        peakQueuedItems.accumulateAndGet(bufferSize, Math::max);
+    }
+
+    void consumed(int count) {
+        queuedItems.addAndGet(-count);
+    }
+
+    void consumerStalled() {
+        consumerStalls.increment();
+    }
+
+    void producerStalled() {
+        producerStalls.increment();
+    }
+
+}
@@ -0,0 +1,330 @@
+package io.github.sashirestela.cleverclient.client;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a stage of a stream (reading and framing the events of a response, or decoding them) on a
+ * thread of its own, ahead of the consumer of the stream. The results are handed over a bounded
+ * SpscRingBuffer in the order of the source, and the stage waits while the buffer is full, so at most
+ * depth results are held. An error of the stage is thrown to the consumer when it reaches it. Closing
+ * the stream stops the stage and closes the source, so the streams must be closed (e.g. with
+ * try-with-resources) when they are not read to the end. A stream that is dropped without being closed
+ * is closed once it is garbage collected, which releases the pipeline thread and the source.
+ */
+final class PipelinedStream {
+
+    private static final Object NULL_VALUE = new Object();
+    private static final Object END = new Object();
+
+    private PipelinedStream() {
+    }
+
+    /**
+     * Applies the stage to every item of the source on a pipeline thread.
+     *
+     * @param <T>     Type of the items of the source.
+     * @param <R>     Type of the results of the stage.
+     * @param source  The stream whose items are pulled by the pipeline thread.
+     * @param stage   Converts an item; null results are delivered as null.
+     * @param depth   How many results can wait for the consumer.
+     * @param metrics The counters of the client adapter.
+     * @return A lazy stream of the results.
+     */
+    static <T, R> Stream<R> of(Stream<T> source, Function<? super T, ? extends R> stage, int depth,
+            PipelineMetrics metrics) {
+        var pipeline = new Pipeline<T, R>(source, depth, metrics);
+        ExecutorHolder.EXECUTOR.execute(() -> pipeline.produce(stage));
+        return consume(pipeline, pipeline);
+    }
+
+    /**
+     * Applies the stage to every item of the source on a pipeline thread, and delivers the results in
+     * batches: the next result with the ones already waiting behind it in the buffer, or arriving
+     * within the delay, up to the max size. An error of the stage ends the batch that reaches it, and
+     * is thrown when the next batch is pulled.
+     *
+     * @param <T>        Type of the items of the source.
+     * @param <R>        Type of the results of the stage.
+     * @param source     The stream whose items are pulled by the pipeline thread.
+     * @param stage      Converts an item; null results are delivered as null.
+     * @param depth      How many results can wait for the consumer.
+     * @param maxSize    Most results in a batch.
+     * @param maxDelayMs How long a batch waits for more results once it has the first one.
+     * @param metrics    The counters of the client adapter.
+     * @return A lazy stream of the batches, none of them empty.
+     */
+    static <T, R> Stream<List<R>> batched(Stream<T> source, Function<? super T, ? extends R> stage, int depth,
+            int maxSize, long maxDelayMs, PipelineMetrics metrics) {
+        var pipeline = new Pipeline<T, R>(source, depth, metrics);
+        ExecutorHolder.EXECUTOR.execute(() -> pipeline.produce(stage));
+        var batches = new Batches<>(pipeline, maxSize, TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+        return consume(pipeline, batches);
+    }
+
+    /**
+     * Creates the stream of the consumer, which closes the pipeline when it is closed or when it is no
+     * longer reachable. The pipeline thread only knows the pipeline, never the consumer side.
+     */
+    private static <E> Stream<E> consume(Pipeline<?, ?> pipeline, Iterator<E> iterator) {
+        var consumer = new Consumer<>(iterator);
+        var cleanable = ExecutorHolder.CLEANER.register(consumer, pipeline::close);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(consumer, Spliterator.ORDERED), false)
+                .onClose(cleanable::clean);
+    }
+
+    private static class Pipeline<T, R> implements Iterator<R> {
+
+        private final Stream<T> source;
+        private final SpscRingBuffer<Object> buffer;
+        private final PipelineMetrics metrics;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicInteger queued = new AtomicInteger();
+        private volatile boolean closed;
+        private volatile boolean produced;
+        private Object next;
+        private boolean ended;
+
+        Pipeline(Stream<T> source, int depth, PipelineMetrics metrics) {
+            this.source = source;
+            this.buffer = new SpscRingBuffer<>(depth);
+            this.metrics = metrics;
+        }
+
+        void produce(Function<? super T, ? extends R> stage) {
+            try (source) {
+                var iterator = source.iterator();
+                while (!closed && iterator.hasNext()) {
+                    var value = stage.apply(iterator.next());
+                    if (!offer(value != null ? value : NULL_VALUE)) {
+                        return;
+                    }
+                }
+                offer(END);
+            } catch (RuntimeException | Error e) {
+                // An interrupted stage still hands its failure over, since the consumer waits for it
+                var interrupted = Thread.interrupted();
+                offer(new Failure(e));
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                produced = true;
+                releaseIfDone();
+            }
+        }
+
+        /**
+         * Hands an item over to the consumer. Only the results are counted in the metrics, not the end
+         * and the failure markers.
+         */
+        private boolean offer(Object item) {
+            if (buffer.size() == buffer.capacity()) {
+                metrics.producerStalled();
+            }
+            var result = isResult(item);
+            if (result) {
+                queued.incrementAndGet();
+                metrics.produced();
+            }
+            var added = false;
+            try {
+                added = buffer.put(item, () -> closed);
+            } finally {
+                if (result && !added) {
+                    release(1);
+                }
+            }
+            if (result) {
+                metrics.buffered(buffer.size());
+            }
+            return added;
+        }
+
+        private void taken(Object item) {
+            if (isResult(item)) {
+                release(1);
+            }
+        }
+
+        /**
+         * Takes results out of the metrics, never more than were counted, because the consumer can take
+         * a result while the ones left behind by a closed pipeline are released.
+         */
+        private void release(int count) {
+            var previous = queued.getAndUpdate(current -> Math.max(0, current - count));
+            metrics.consumed(Math.min(previous, count));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !ended) {
+                if (buffer.isEmpty()) {
+                    metrics.consumerStalled();
+                }
+                next = buffer.take(() -> closed);
+                taken(next);
+            }
+            if (next == null || next == END) {
+                ended = true;
+                next = null;
+                return false;
+            }
+            if (next instanceof Failure) {
+                ended = true;
+                var error = ((Failure) next).error;
+                next = null;
+                if (error instanceof Error) {
+                    throw (Error) error;
+                }
+                throw (RuntimeException) error;
+            }
+            return true;
+        }
+
+        /**
+         * Whether a result is ready within the timeout. An end or an error that comes first is kept for
+         * hasNext().
+         */
+        boolean poll(long timeoutNanos) {
+            if (next == null && !ended) {
+                next = buffer.poll(() -> closed, timeoutNanos);
+                taken(next);
+            }
+            return isResult(next);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var value = next;
+            next = null;
+            return value == NULL_VALUE ? null : (R) value;
+        }
+
+        void close() {
+            closed = true;
+            buffer.wakeUp();
+            source.close();
+            releaseIfDone();
+        }
+
+        /**
+         * Takes the results that were never consumed out of the metrics, once both sides stopped.
+         */
+        private void releaseIfDone() {
+            if (closed && produced && released.compareAndSet(false, true)) {
+                metrics.consumed(queued.getAndSet(0));
+            }
+        }
+
+        private static boolean isResult(Object item) {
+            return item != null && item != END && !(item instanceof Failure);
+        }
+
+    }
+
+    /**
+     * The side of the consumer, watched by the Cleaner. It is kept reachable while it is used, so the
+     * pipeline is not closed in the middle of a call.
+     */
+    private static class Consumer<E> implements Iterator<E> {
+
+        private final Iterator<E> iterator;
+
+        Consumer(Iterator<E> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return iterator.hasNext();
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+
+        @Override
+        public E next() {
+            try {
+                return iterator.next();
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+
+    }
+
+    private static class Batches<R> implements Iterator<List<R>> {
+
+        private final Pipeline<?, R> pipeline;
+        private final int maxSize;
+        private final long maxDelayNanos;
+
+        Batches(Pipeline<?, R> pipeline, int maxSize, long maxDelayNanos) {
+            this.pipeline = pipeline;
+            this.maxSize = maxSize;
+            this.maxDelayNanos = maxDelayNanos;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pipeline.hasNext();
+        }
+
+        @Override
+        public List<R> next() {
+            var batch = new ArrayList<R>(Math.min(maxSize, 16));
+            batch.add(pipeline.next());
+            var deadline = System.nanoTime() + maxDelayNanos;
+            while (batch.size() < maxSize && pipeline.poll(Math.max(0, deadline - System.nanoTime()))) {
+                batch.add(pipeline.next());
+            }
+            return batch;
+        }
+
+    }
+
+    private static class Failure {
+
+        private final Throwable error;
+
+        Failure(Throwable error) {
+            this.error = error;
+        }
+
+    }
+
+    private static class ExecutorHolder {
+
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(task -> {
+            var thread = new Thread(task, "cleverclient-pipeline-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private static final Cleaner CLEANER = Cleaner.create();
+
+    }
+
+}
@@ -1,7 +1,9 @@
 package io.github.sashirestela.cleverclient.client;
 
 import io.github.sashirestela.cleverclient.http.HttpRequestData;
+import io.github.sashirestela.cleverclient.support.Codec;
 import io.github.sashirestela.cleverclient.support.ContentType;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
 import io.github.sashirestela.cleverclient.support.ReturnType;
 import io.github.sashirestela.cleverclient.util.CommonUtil;
 import lombok.AllArgsConstructor;
@@ -25,6 +27,11 @@ public class RequestData {
     private final String httpMethod;
     private final ContentType contentType;
     private final ReturnType returnType;
+    private final Codec codec;
+
+    public Codec getCodec() {
+        return codec != null ? codec : JacksonCodec.json();
+    }
 
     public HttpRequestData getHttpRequestData() {
         return HttpRequestData.builder()
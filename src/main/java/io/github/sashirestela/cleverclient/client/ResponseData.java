@@ -33,7 +33,7 @@ public class ResponseData {
 
     public HttpResponseData getHttpResponseData() {
         return HttpResponseData.builder()
-                .body((String) body)
+                .body(body != null ? body.toString() : null)
                 .url(request.url)
                 .httpMethod(request.httpMethod)
                 .build();
@@ -0,0 +1,175 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.retry.RetryableRequest;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Server sent events that go on through a new request when the response fails while they are read.
+ * It keeps the last event id and the reconnection time of the events, and on a retryable failure it
+ * waits (the reconnection time, or the initial delay of the RetryConfig, grown by its backoff) and
+ * reconnects with that id, so the server can send the events that follow it. The events of a
+ * response that ends normally are not resumed. The events are read on one thread, but the stream can
+ * be closed from another one: the current response is handed off under a lock, so close() always
+ * closes the response being read, and a response that arrives after close() is closed at once.
+ */
+final class ResumableEvents implements Iterator<ServerSentEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableEvents.class);
+
+    private final Function<String, Stream<ServerSentEvent>> reconnect;
+    private final RetryableRequest retryableRequest;
+    private final int maxAttempts;
+
+    private final Object lock = new Object();
+    private Stream<ServerSentEvent> events;
+    private Iterator<ServerSentEvent> iterator;
+    private String lastEventId = "";
+    private long retry = -1;
+    private int failedAttempts;
+    private volatile boolean closed;
+
+    private ResumableEvents(Stream<ServerSentEvent> events, Function<String, Stream<ServerSentEvent>> reconnect,
+            RetryableRequest retryableRequest, int maxAttempts) {
+        synchronized (lock) {
+            this.events = events;
+            this.iterator = events.iterator();
+        }
+        this.reconnect = reconnect;
+        this.retryableRequest = retryableRequest;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Resumes the events of a response.
+     *
+     * @param events           The events of the first response.
+     * @param reconnect        Sends the request again with the last event id (empty if none was
+     *                         received) and returns the events of the new response.
+     * @param retryableRequest The backoff and the retryable failures.
+     * @param maxAttempts      Consecutive reconnections that can fail.
+     * @return A lazy stream of the events of all the responses.
+     */
+    static Stream<ServerSentEvent> of(Stream<ServerSentEvent> events,
+            Function<String, Stream<ServerSentEvent>> reconnect, RetryableRequest retryableRequest,
+            int maxAttempts) {
+        var resumable = new ResumableEvents(events, reconnect, retryableRequest, maxAttempts);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resumable, Spliterator.ORDERED), false)
+                .onClose(resumable::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            try {
+                var current = currentIterator();
+                return current != null && current.hasNext();
+            } catch (CleverClientException e) {
+                closeEvents();
+                if (closed || failedAttempts >= maxAttempts || !retryableRequest.isRetryable(e)) {
+                    throw e;
+                }
+                failedAttempts++;
+                waitBeforeReconnecting(e);
+            }
+        }
+    }
+
+    @Override
+    public ServerSentEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        var current = currentIterator();
+        if (current == null) {
+            throw new NoSuchElementException();
+        }
+        var event = current.next();
+        if (!event.getId().isEmpty()) {
+            lastEventId = event.getId();
+        }
+        if (event.getRetry() >= 0) {
+            retry = event.getRetry();
+        }
+        failedAttempts = 0;
+        return event;
+    }
+
+    /**
+     * The iterator of the current response, reconnecting if the last one failed. The reconnection runs
+     * without the lock, so close() does not wait for it.
+     *
+     * @return The iterator, or null if the events were closed.
+     */
+    private Iterator<ServerSentEvent> currentIterator() {
+        synchronized (lock) {
+            if (closed) {
+                return null;
+            }
+            if (iterator != null) {
+                return iterator;
+            }
+        }
+        var resumed = reconnect.apply(lastEventId);
+        synchronized (lock) {
+            if (!closed) {
+                events = resumed;
+                iterator = resumed.iterator();
+                return iterator;
+            }
+        }
+        closeQuietly(resumed);
+        return null;
+    }
+
+    private void waitBeforeReconnecting(CleverClientException failure) {
+        var initialDelayMs = retry >= 0 ? retry : retryableRequest.getConfig().getInitialDelayMs();
+        var delayMs = retryableRequest.calculateDelayWithJitter(failedAttempts, initialDelayMs);
+        logger.debug("Resuming the events after id '{}' (attempt {}/{}) in {} ms : {}", lastEventId,
+                failedAttempts, maxAttempts, delayMs, failure.getMessage());
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private void closeEvents() {
+        Stream<ServerSentEvent> current;
+        synchronized (lock) {
+            current = events;
+            events = null;
+            iterator = null;
+        }
+        if (current != null) {
+            closeQuietly(current);
+        }
+    }
+
+    private static void closeQuietly(Stream<ServerSentEvent> current) {
+        try {
+            current.close();
+        } catch (RuntimeException e) {
+            logger.debug("Cannot close the response : {}", e.getMessage());
+        }
+    }
+
+    private void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        closeEvents();
+    }
+
+}
@@ -0,0 +1,153 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounded queue between exactly one producer thread and one consumer thread, over an array whose
+ * length is a power of two. Each side only writes its own index, so no lock is taken; a side that
+ * finds the buffer full (or empty) parks until the other side moves its index. A side that is
+ * interrupted while waiting stops with a CleverClientException, and keeps its interrupt status.
+ */
+final class SpscRingBuffer<T> {
+
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Object[] items;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile Thread parkedProducer;
+    private volatile Thread parkedConsumer;
+
+    SpscRingBuffer(int capacity) {
+        var length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.items = new Object[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Adds an item, waiting while the buffer is full. Only the producer thread calls it.
+     *
+     * @param item    The item, not null.
+     * @param stopped Whether the producer must give up waiting.
+     * @return True if the item was added, false if it stopped while waiting.
+     * @throws CleverClientException If the thread is interrupted while waiting.
+     */
+    boolean put(T item, BooleanSupplier stopped) {
+        var position = tail.get();
+        while (position - head.get() == items.length) {
+            if (stopped.getAsBoolean()) {
+                return false;
+            }
+            checkInterrupted();
+            parkedProducer = Thread.currentThread();
+            if (position - head.get() == items.length) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            parkedProducer = null;
+        }
+        items[(int) position & mask] = item;
+        tail.set(position + 1);
+        LockSupport.unpark(parkedConsumer);
+        return true;
+    }
+
+    /**
+     * Removes the oldest item, waiting while the buffer is empty. Only the consumer thread calls it.
+     *
+     * @param stopped Whether the consumer must give up waiting.
+     * @return The item, or null if it stopped while waiting.
+     * @throws CleverClientException If the thread is interrupted while waiting.
+     */
+    T take(BooleanSupplier stopped) {
+        var position = head.get();
+        while (position == tail.get()) {
+            if (stopped.getAsBoolean()) {
+                return null;
+            }
+            checkInterrupted();
+            parkedConsumer = Thread.currentThread();
+            if (position == tail.get()) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            parkedConsumer = null;
+        }
+        return remove(position);
+    }
+
+    /**
+     * Removes the oldest item, waiting at most the timeout while the buffer is empty. Only the consumer
+     * thread calls it.
+     *
+     * @param stopped      Whether the consumer must give up waiting.
+     * @param timeoutNanos How long it can wait; with 0 it only takes an item that is ready.
+     * @return The item, or null if none came in time or it stopped while waiting.
+     * @throws CleverClientException If the thread is interrupted while waiting.
+     */
+    T poll(BooleanSupplier stopped, long timeoutNanos) {
+        var position = head.get();
+        var deadline = System.nanoTime() + timeoutNanos;
+        while (position == tail.get()) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || stopped.getAsBoolean()) {
+                return null;
+            }
+            checkInterrupted();
+            parkedConsumer = Thread.currentThread();
+            if (position == tail.get()) {
+                LockSupport.parkNanos(this, Math.min(remaining, PARK_NANOS));
+            }
+            parkedConsumer = null;
+        }
+        return remove(position);
+    }
+
+    /**
+     * Stops a wait of an interrupted thread, which would spin otherwise because parkNanos returns at
+     * once while the interrupt status is set. The status is left set for the caller.
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CleverClientException("Interrupted while waiting for the pipeline.",
+                    new InterruptedException());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T remove(long position) {
+        var index = (int) position & mask;
+        var item = (T) items[index];
+        items[index] = null;
+        head.set(position + 1);
+        LockSupport.unpark(parkedProducer);
+        return item;
+    }
+
+    /**
+     * Whether take() would return without waiting.
+     *
+     * @return True if an item is ready.
+     */
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    void wakeUp() {
+        LockSupport.unpark(parkedProducer);
+        LockSupport.unpark(parkedConsumer);
+    }
+
+}
@@ -0,0 +1,12 @@
+package io.github.sashirestela.cleverclient.http;
+
+/**
+ * Call stub of an interface method, pre-bound to its invocation plan. It is called from the classes
+ * defined at runtime by StubFactory.
+ */
+@FunctionalInterface
+public interface EndpointStub {
+
+    Object call(Object[] arguments);
+
+}
@@ -1,22 +1,32 @@
 package io.github.sashirestela.cleverclient.http;
 
+import io.github.sashirestela.cleverclient.annotation.StreamFormat.Format;
 import io.github.sashirestela.cleverclient.client.HttpClientAdapter;
 import io.github.sashirestela.cleverclient.client.RequestData;
-import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.MethodMetadata;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadataStore;
+import io.github.sashirestela.cleverclient.metadata.InvocationPlan;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.Codec;
 import io.github.sashirestela.cleverclient.support.ContentType;
-import io.github.sashirestela.cleverclient.util.JsonUtil;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
+import io.github.sashirestela.cleverclient.support.JsonBody;
+import io.github.sashirestela.cleverclient.support.ReturnType;
 import io.github.sashirestela.cleverclient.util.ReflectUtil;
 import lombok.Builder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -26,31 +36,177 @@ import java.util.function.Consumer;
 public class HttpProcessor implements InvocationHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpProcessor.class);
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+    private static final String HEADER_ACCEPT = "Accept";
+    /**
+     * Method handles of the default methods, kept per declaring interface so they are released with
+     * the class loader of the interface.
+     */
+    private static final ClassValue<Map<Method, MethodHandle>> defaultMethodHandles = new ClassValue<>() {
+
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> interfaceClass) {
+            return new ConcurrentHashMap<>();
+        }
+
+    };
 
     private final String baseUrl;
     private final List<String> headers;
     private final HttpClientAdapter clientAdapter;
     private final Consumer<Object> bodyInspector;
+    private final boolean runtimeStubs;
+    private final boolean lazyMetadata;
+    @Builder.Default
+    private final JacksonCodec jsonCodec = JacksonCodec.json();
+    @Builder.Default
+    private final Codec codec = JacksonCodec.json();
+    @Builder.Default
+    private final Map<String, Codec> codecsByMediaType = Map.of();
 
     /**
-     * Creates a generic dynamic proxy with this HttpProcessor object acting as an InvocationHandler to
-     * resolve the requests arriving to the proxy. Previously, the interface metadata is collected and
-     * stored in memory to be used later and avoid to use Reflection calls.
+     * Creates an instance of the interface. If a class was generated at build time for the interface
+     * (see ResourceProcessor), it is instanced with this HttpProcessor to resolve the requests: it holds
+     * the invocation plans of its methods as constants, so the interface is not scanned. Otherwise, the
+     * interface metadata is collected and stored in memory to be used later and avoid to use Reflection
+     * calls (with lazyMetadata, the metadata of each method is collected on its first call instead), and
+     * a generic dynamic proxy is created with this HttpProcessor object acting as an InvocationHandler,
+     * unless runtimeStubs is enabled: in that case a class is defined at runtime with one method per
+     * endpoint, each one calling a stub pre-bound to its invocation plan (see StubFactory).
      * 
      * @param <T>            Type of the interface.
      * @param interfaceClass The interface to be instanced.
-     * @return A proxy instance of the interface.
+     * @return A generated or proxy instance of the interface.
      */
     public <T> T createProxy(Class<T> interfaceClass) {
-        InterfaceMetadataStore.one().save(interfaceClass);
-        var proxy = ReflectUtil.createProxy(interfaceClass, this);
-        logger.debug("Created Instance : {}", interfaceClass.getSimpleName());
-        return proxy;
+        var generatedClass = ReflectUtil.findGeneratedClass(interfaceClass);
+        if (generatedClass.isPresent()) {
+            T instance = ReflectUtil.newInstance(generatedClass.get(), HttpProcessor.class, this);
+            logger.debug("Created Generated Instance : {}", interfaceClass.getSimpleName());
+            return instance;
+        }
+        saveMetadata(interfaceClass);
+        T instance;
+        if (runtimeStubs) {
+            instance = StubFactory.create(interfaceClass, this::createEndpointStub)
+                    .orElseGet(() -> ReflectUtil.createProxy(interfaceClass, this));
+            logger.debug("Created Stub Instance : {}", interfaceClass.getSimpleName());
+        } else {
+            instance = ReflectUtil.createProxy(interfaceClass, this);
+            logger.debug("Created Instance : {}", interfaceClass.getSimpleName());
+        }
+        return instance;
+    }
+
+    private void saveMetadata(Class<?> interfaceClass) {
+        if (lazyMetadata) {
+            InterfaceMetadataStore.one().saveLazily(interfaceClass);
+        } else {
+            InterfaceMetadataStore.one().save(interfaceClass);
+        }
+    }
+
+    /**
+     * Runs the request and response pipeline of every endpoint of the interface without sending
+     * anything: the invocation plan is bound to synthetic arguments to build the url and the request,
+     * and the client adapter converts a synthetic in-memory response for the return type. Request
+     * bodies and interceptors are not exercised because they may run user code.
+     * 
+     * @param interfaceClass The interface to be warmed up.
+     * @param iterations     How many times each endpoint pipeline is run.
+     */
+    public void warmUp(Class<?> interfaceClass, int iterations) {
+        createProxy(interfaceClass);
+        // The plans of a generated class are not in the store, but they are built the same way
+        saveMetadata(interfaceClass);
+        var store = InterfaceMetadataStore.one();
+        for (var method : interfaceClass.getDeclaredMethods()) {
+            if (method.isDefault() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            var plan = store.getPlan(method);
+            var planCodec = codecFor(plan);
+            var arguments = syntheticArguments(method);
+            var buildsRequest = true;
+            for (var i = 0; i < iterations; i++) {
+                if (buildsRequest) {
+                    buildsRequest = warmUpRequest(plan, planCodec, arguments);
+                }
+                clientAdapter.warmUp(plan.getReturnType(), planCodec);
+            }
+        }
+        logger.debug("Warmed Up Instance : {}", interfaceClass.getSimpleName());
+    }
+
+    private boolean warmUpRequest(InvocationPlan plan, Codec planCodec, Object[] arguments) {
+        try {
+            var url = URLBuilder.one()
+                    .build(baseUrl, plan.getUrlTemplate(), plan.getQueryParameters(), arguments,
+                            jsonCodec::convertToMap);
+            RequestData.builder()
+                    .url(url)
+                    .httpMethod(plan.getHttpMethod())
+                    .returnType(plan.getReturnType())
+                    .contentType(plan.getContentType())
+                    .headers(fullHeaders(plan, planCodec))
+                    .codec(planCodec)
+                    .build();
+            return true;
+        } catch (CleverClientException e) {
+            // A synthetic argument does not fit the url (e.g. a null path param).
+            return false;
+        }
+    }
+
+    private static Object[] syntheticArguments(Method method) {
+        var parameterTypes = method.getParameterTypes();
+        var arguments = new Object[parameterTypes.length];
+        for (var i = 0; i < parameterTypes.length; i++) {
+            var type = MethodType.methodType(parameterTypes[i]).unwrap().returnType();
+            if (type.isPrimitive() && type != void.class) {
+                arguments[i] = Array.get(Array.newInstance(type, 1), 0);
+            } else if (type == String.class) {
+                arguments[i] = "0";
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Entry point for the classes generated at build time. It resolves the request of a non-default
+     * method directly with the invocation plan held by the generated class, without going through the
+     * proxy nor the metadata store.
+     * 
+     * @param plan      The invocation plan of the interface method that was called.
+     * @param arguments The arguments passed in the method invocation.
+     * @return The response coming from the client adapter.
+     */
+    public Object dispatch(InvocationPlan plan, Object[] arguments) {
+        logger.debug("Invoked Endpoint : {} {}", plan.getHttpMethod(), plan.getUrl());
+        return resolve(plan, arguments);
+    }
+
+    /**
+     * Creates the stub of an abstract interface method, bound to its invocation plan. With lazyMetadata
+     * the plan is not built yet, so the stub builds it on its first call and keeps it for the next ones.
+     * Methods whose plan cannot be built fail only when they are called, as it happens with the proxy.
+     * 
+     * @param method The abstract interface method.
+     * @return The stub that resolves the requests of the method.
+     */
+    private EndpointStub createEndpointStub(Method method) {
+        var store = InterfaceMetadataStore.one();
+        if (!store.hasPlan(method)) {
+            return new LazyEndpointStub(method);
+        }
+        var plan = store.getPlan(method);
+        return arguments -> resolve(plan, arguments);
     }
 
     /**
      * Method automatically called whenever an interface's method is called. It handles default methods
-     * directly. Non-default methods are solved by calling HttpConnector.
+     * directly through a cached method handle. Non-default methods are solved by calling HttpConnector.
      * 
      * @param proxy     The proxy instance that the method was invoked on.
      * @param method    The Method instance corresponding to the interface method invoked on the proxy
@@ -64,6 +220,24 @@ public class HttpProcessor implements InvocationHandler {
     public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
         logger.debug("Invoked Method : {}.{}()", method.getDeclaringClass().getSimpleName(), method.getName());
         if (method.isDefault()) {
+            var methodHandle = defaultMethodHandles.get(method.getDeclaringClass())
+                    .computeIfAbsent(method, HttpProcessor::findDefaultMethodHandle);
+            Object[] actualArguments = arguments != null ? arguments : NO_ARGUMENTS;
+            return (Object) methodHandle.invokeExact(proxy, actualArguments);
+        } else {
+            return resolve(method, arguments);
+        }
+    }
+
+    /**
+     * Resolves the special method handle of an interface default method and adapts it to the fixed
+     * type (Object, Object[])Object, so it can be cached once and called with invokeExact.
+     * 
+     * @param method The default method of the interface.
+     * @return A method handle that receives the proxy and the array of arguments.
+     */
+    private static MethodHandle findDefaultMethodHandle(Method method) {
+        try {
             return MethodHandles.lookup()
                     .findSpecial(
                             method.getDeclaringClass(),
@@ -72,17 +246,17 @@ public class HttpProcessor implements InvocationHandler {
                                     method.getReturnType(),
                                     method.getParameterTypes()),
                             method.getDeclaringClass())
-                    .bindTo(proxy)
-                    .invokeWithArguments(arguments);
-        } else {
-            return resolve(method, arguments);
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new CleverClientException("Cannot resolve the default method {0}.", method.getName(), e);
         }
     }
 
     /**
-     * Reads the interface method metadata from memory and uses them to prepare an HttpConnector object
-     * that will resend the request to the Java's HttpClient and will receive the response. This method
-     * is called from the invoke method.
+     * Reads the precompiled invocation plan of the method from memory and binds the arguments to it to
+     * prepare the request that will be sent by the client adapter. This method is called from the
+     * invoke method.
      * 
      * @param method    The Method instance corresponding to the interface method invoked on the proxy
      *                  instance.
@@ -92,31 +266,76 @@ public class HttpProcessor implements InvocationHandler {
      * @return The response coming from the HttpConnector's sendRequest method.
      */
     private Object resolve(Method method, Object[] arguments) {
-        var interfaceMetadata = InterfaceMetadataStore.one().get(method.getDeclaringClass());
-        var methodMetadata = interfaceMetadata.getMethodBySignature().get(method.toString());
-        var urlMethod = interfaceMetadata.getFullUrlByMethod(methodMetadata);
-        var url = baseUrl + URLBuilder.one().build(urlMethod, methodMetadata, arguments);
-        var httpMethod = methodMetadata.getHttpAnnotationName();
-        var returnType = methodMetadata.getReturnType();
-        var contentType = methodMetadata.getContentType();
-        var body = getAndInspectBody(methodMetadata, arguments);
-        var bodyObject = getBodyObject(body, contentType);
-        var fullHeaders = new ArrayList<>(this.headers);
-        fullHeaders.addAll(calculateHeaderContentType(contentType));
-        fullHeaders.addAll(interfaceMetadata.getFullHeadersByMethod(methodMetadata));
+        return resolve(InterfaceMetadataStore.one().getPlan(method), arguments);
+    }
+
+    private Object resolve(InvocationPlan plan, Object[] arguments) {
+        var url = URLBuilder.one()
+                .build(baseUrl, plan.getUrlTemplate(), plan.getQueryParameters(), arguments,
+                        jsonCodec::convertToMap);
+        var planCodec = codecFor(plan);
+        var body = getAndInspectBody(plan.getBodyIndex(), arguments);
+        var bodyObject = getBodyObject(body, plan.getContentType(), planCodec);
         var request = RequestData.builder()
                 .url(url)
-                .httpMethod(httpMethod)
-                .returnType(returnType)
+                .httpMethod(plan.getHttpMethod())
+                .returnType(plan.getReturnType())
                 .body(bodyObject)
-                .contentType(contentType)
-                .headers(fullHeaders)
+                .contentType(plan.getContentType())
+                .headers(fullHeaders(plan, planCodec))
+                .codec(planCodec)
                 .build();
         return clientAdapter.sendRequest(request);
     }
 
-    private Object getAndInspectBody(MethodMetadata methodMetadata, Object[] arguments) {
-        var bodyIndex = methodMetadata.getBodyIndex();
+    /**
+     * Chooses the codec of the media type of the method (see MediaType), or the default codec of the
+     * client if the method does not have one. Server sent events always use the Json codec of the
+     * client.
+     */
+    private Codec codecFor(InvocationPlan plan) {
+        var returnType = plan.getReturnType();
+        if (returnType.isStream() && returnType.getStreamFormat() == Format.SSE) {
+            return jsonCodec;
+        }
+        var mediaType = plan.getMediaType();
+        if (mediaType == null || mediaType.equals(codec.getMediaType())) {
+            return codec;
+        }
+        if (mediaType.equals(JacksonCodec.JSON)) {
+            return jsonCodec;
+        }
+        var planCodec = codecsByMediaType.get(mediaType);
+        if (planCodec == null) {
+            throw new CleverClientException("There is no codec for the media type {0}.", mediaType, null);
+        }
+        return planCodec;
+    }
+
+    /**
+     * Client headers, then the Content-Type of a Json body and, for the responses decoded by a non-Json
+     * codec, the Accept, both taken from the codec, then the headers of the method.
+     */
+    private List<String> fullHeaders(InvocationPlan plan, Codec planCodec) {
+        var fullHeaders = new ArrayList<String>(this.headers.size() + plan.getHeaders().size() + 4);
+        fullHeaders.addAll(this.headers);
+        if (plan.getContentType() == ContentType.APPLICATION_JSON) {
+            fullHeaders.add(HEADER_CONTENT_TYPE);
+            fullHeaders.add(planCodec.getMediaType());
+        }
+        if (!planCodec.getMediaType().equals(JacksonCodec.JSON) && isDecodedByCodec(plan.getReturnType())) {
+            fullHeaders.add(HEADER_ACCEPT);
+            fullHeaders.add(planCodec.getMediaType());
+        }
+        fullHeaders.addAll(plan.getHeaders());
+        return fullHeaders;
+    }
+
+    private static boolean isDecodedByCodec(ReturnType returnType) {
+        return returnType.isJson() || (returnType.isStream() && returnType.getStreamFormat() != Format.SSE);
+    }
+
+    private Object getAndInspectBody(int bodyIndex, Object[] arguments) {
         var body = bodyIndex >= 0 ? arguments[bodyIndex] : null;
 
         if (body != null && bodyInspector != null) {
@@ -126,26 +345,41 @@ public class HttpProcessor implements InvocationHandler {
         return body;
     }
 
-    private Object getBodyObject(Object body, ContentType contentType) {
+    private Object getBodyObject(Object body, ContentType contentType, Codec planCodec) {
         Object bodyObject = null;
         if (body != null) {
             if (contentType == ContentType.MULTIPART_FORMDATA) {
-                bodyObject = JsonUtil.objectToMap(body);
+                bodyObject = jsonCodec.convertToMap(body);
             } else if (contentType == ContentType.APPLICATION_JSON) {
-                bodyObject = JsonUtil.objectToJson(body);
+                bodyObject = new JsonBody(planCodec.encode(body), planCodec.getMediaType());
             }
         }
         return bodyObject;
     }
 
-    private List<String> calculateHeaderContentType(ContentType contentType) {
-        final String HEADER_CONTENT_TYPE = "Content-Type";
-        List<String> headerContentType = new ArrayList<>();
-        if (contentType != null) {
-            headerContentType.add(HEADER_CONTENT_TYPE);
-            headerContentType.add(contentType.getMimeType() + contentType.getDetails());
+    /**
+     * Stub of a method whose invocation plan is built on its first call. A plan is immutable, so two
+     * threads that build it at the same time just keep one of them.
+     */
+    private class LazyEndpointStub implements EndpointStub {
+
+        private final Method method;
+        private volatile InvocationPlan plan;
+
+        LazyEndpointStub(Method method) {
+            this.method = method;
         }
-        return headerContentType;
+
+        @Override
+        public Object call(Object[] arguments) {
+            var current = plan;
+            if (current == null) {
+                current = InterfaceMetadataStore.one().getPlan(method);
+                plan = current;
+            }
+            return resolve(current, arguments);
+        }
+
     }
 
 }
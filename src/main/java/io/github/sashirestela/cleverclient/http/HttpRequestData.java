@@ -1,6 +1,8 @@
 package io.github.sashirestela.cleverclient.http;
 
 import io.github.sashirestela.cleverclient.support.ContentType;
+import io.github.sashirestela.cleverclient.support.JsonBody;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,6 +15,7 @@ public class HttpRequestData {
 
     @Setter
     private String url;
+    @Getter(AccessLevel.NONE)
     @Setter
     private Object body;
     @Setter
@@ -20,4 +23,24 @@ public class HttpRequestData {
     private String httpMethod;
     private ContentType contentType;
 
+    /**
+     * Returns the body of the request. A Json body is kept as UTF-8 bytes and it is decoded to a String
+     * only when it is read here. The body of a binary codec like Smile is not text, so it is read as a
+     * String with its length; it is kept if that String is set back unchanged.
+     *
+     * @return The body, with an encoded body as its String view.
+     */
+    public Object getBody() {
+        return body instanceof JsonBody ? body.toString() : body;
+    }
+
+    /**
+     * Returns the body as it will be sent, without decoding a Json body.
+     *
+     * @return The body, with a Json body as JsonBody.
+     */
+    public Object getContent() {
+        return body;
+    }
+
 }
@@ -0,0 +1,435 @@
+package io.github.sashirestela.cleverclient.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Defines at runtime, once per interface, a class that implements the interface with one method per
+ * endpoint. Each method just boxes its arguments and calls its own pre-bound EndpointStub, so the
+ * call sites are monomorphic instead of going through the proxy InvocationHandler. The class is
+ * defined with Lookup.defineClass in the package of the interface, because hidden classes are not
+ * available in Java 11. The classes are cached in a ClassValue of the interface, so they do not keep
+ * the interface nor its class loader from being unloaded.
+ */
+class StubFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubFactory.class);
+
+    private static final String STUB_SUFFIX = "$$CleverClientStub";
+    private static final String STUB_FIELD = "stubs";
+    private static final String STUB_TYPE = EndpointStub.class.getName().replace('.', '/');
+    private static final String STUB_ARRAY_DESC = "[L" + STUB_TYPE + ";";
+    private static final String OBJECT_TYPE = "java/lang/Object";
+
+    private static final ClassValue<Optional<StubClass>> stubClasses = new ClassValue<>() {
+
+        @Override
+        protected Optional<StubClass> computeValue(Class<?> interfaceClass) {
+            return defineStubClass(interfaceClass);
+        }
+
+    };
+
+    private StubFactory() {
+    }
+
+    /**
+     * Creates an instance of the interface whose methods call the passed stubs.
+     *
+     * @param <T>            Type of the interface.
+     * @param interfaceClass The interface to be instanced.
+     * @param stubCreator    Creates the pre-bound stub of each abstract method of the interface.
+     * @return The instance or empty if the class could not be defined for the interface.
+     * @throws LinkageError If the class written for the interface is not valid.
+     */
+    static <T> Optional<T> create(Class<T> interfaceClass, Function<Method, EndpointStub> stubCreator) {
+        return stubClasses.get(interfaceClass)
+                .map(stubClass -> {
+                    var stubs = stubClass.methods.stream().map(stubCreator).toArray(EndpointStub[]::new);
+                    try {
+                        return interfaceClass.cast(stubClass.clazz.getConstructor(EndpointStub[].class)
+                                .newInstance((Object) stubs));
+                    } catch (ReflectiveOperationException e) {
+                        logger.warn("Cannot instance the stub class of {}: {}", interfaceClass.getSimpleName(),
+                                e.getMessage());
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * Defines the stub class of the interface. A ClassValue may compute it in several threads at the
+     * same time, so it is defined under a lock and the class defined by another thread is reused. The
+     * interfaces that cannot be accessed from here fall back to the proxy, but a class that the JVM
+     * rejects (e.g. a VerifyError) is a bug in the StubClassWriter, so that error is thrown.
+     */
+    private static Optional<StubClass> defineStubClass(Class<?> interfaceClass) {
+        var methods = stubMethods(interfaceClass);
+        var className = interfaceClass.getName() + STUB_SUFFIX;
+        try {
+            var lookup = MethodHandles.privateLookupIn(interfaceClass, MethodHandles.lookup());
+            Class<?> clazz;
+            synchronized (StubFactory.class) {
+                try {
+                    clazz = lookup.findClass(className);
+                } catch (ClassNotFoundException e) {
+                    clazz = lookup.defineClass(new StubClassWriter(className, interfaceClass, methods).toBytes());
+                    logger.debug("Defined Stub Class : {}", clazz.getName());
+                }
+            }
+            return Optional.of(new StubClass(clazz, Arrays.asList(methods)));
+        } catch (IllegalAccessException | IllegalArgumentException | IOException e) {
+            logger.debug("Cannot define the stub class of {}: {}", interfaceClass.getSimpleName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The abstract methods of the interface, sorted by name and descriptor. The index of each stub is
+     * fixed in the bytecode, and the order of getMethods() is not specified, so a class defined by
+     * another thread is paired with the methods in the same order.
+     */
+    private static Method[] stubMethods(Class<?> interfaceClass) {
+        return Arrays.stream(interfaceClass.getMethods())
+                .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .sorted(Comparator.comparing(Method::getName).thenComparing(StubFactory::descriptor))
+                .toArray(Method[]::new);
+    }
+
+    private static String descriptor(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+    }
+
+    private static class StubClass {
+
+        final Class<?> clazz;
+        final List<Method> methods;
+
+        StubClass(Class<?> clazz, List<Method> methods) {
+            this.clazz = clazz;
+            this.methods = methods;
+        }
+
+    }
+
+    /**
+     * Minimal class file writer for the stub classes. The generated code has no branches, so no stack
+     * map frames are needed.
+     */
+    private static class StubClassWriter {
+
+        private static final int MAGIC = 0xCAFEBABE;
+        private static final int JAVA_11 = 55;
+        private static final int ACC_PUBLIC = 0x0001;
+        private static final int ACC_PRIVATE = 0x0002;
+        private static final int ACC_FINAL = 0x0010;
+        private static final int ACC_SUPER = 0x0020;
+
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_FIELDREF = 9;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_INTERFACE_METHODREF = 11;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private static final int ICONST_0 = 0x03;
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int ILOAD = 0x15;
+        private static final int LLOAD = 0x16;
+        private static final int FLOAD = 0x17;
+        private static final int DLOAD = 0x18;
+        private static final int ALOAD = 0x19;
+        private static final int ALOAD_0 = 0x2a;
+        private static final int ALOAD_1 = 0x2b;
+        private static final int AALOAD = 0x32;
+        private static final int AASTORE = 0x53;
+        private static final int POP = 0x57;
+        private static final int DUP = 0x59;
+        private static final int IRETURN = 0xac;
+        private static final int LRETURN = 0xad;
+        private static final int FRETURN = 0xae;
+        private static final int DRETURN = 0xaf;
+        private static final int ARETURN = 0xb0;
+        private static final int RETURN = 0xb1;
+        private static final int GETFIELD = 0xb4;
+        private static final int PUTFIELD = 0xb5;
+        private static final int INVOKEVIRTUAL = 0xb6;
+        private static final int INVOKESPECIAL = 0xb7;
+        private static final int INVOKESTATIC = 0xb8;
+        private static final int INVOKEINTERFACE = 0xb9;
+        private static final int ANEWARRAY = 0xbd;
+        private static final int CHECKCAST = 0xc0;
+
+        private final String className;
+        private final Class<?> interfaceClass;
+        private final Method[] methods;
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<String, Integer> poolIndexes = new HashMap<>();
+        private int poolCount = 1;
+
+        StubClassWriter(String className, Class<?> interfaceClass, Method[] methods) {
+            this.className = className.replace('.', '/');
+            this.interfaceClass = interfaceClass;
+            this.methods = methods;
+        }
+
+        byte[] toBytes() throws IOException {
+            var thisClass = classRef(className);
+            var superClass = classRef(OBJECT_TYPE);
+            var interfaceRef = classRef(internalName(interfaceClass));
+            var fieldName = utf8(STUB_FIELD);
+            var fieldDesc = utf8(STUB_ARRAY_DESC);
+            var codeName = utf8("Code");
+            List<byte[]> methodInfos = new ArrayList<>();
+            methodInfos.add(constructor(codeName));
+            for (var i = 0; i < methods.length; i++) {
+                methodInfos.add(stubMethod(codeName, methods[i], i));
+            }
+
+            var classBytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(classBytes);
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(JAVA_11);
+            out.writeShort(poolCount);
+            pool.flush();
+            out.write(poolBytes.toByteArray());
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceRef);
+            out.writeShort(1);
+            out.writeShort(ACC_PRIVATE | ACC_FINAL);
+            out.writeShort(fieldName);
+            out.writeShort(fieldDesc);
+            out.writeShort(0);
+            out.writeShort(methodInfos.size());
+            for (var methodInfo : methodInfos) {
+                out.write(methodInfo);
+            }
+            out.writeShort(0);
+            out.flush();
+            return classBytes.toByteArray();
+        }
+
+        private byte[] constructor(int codeName) throws IOException {
+            var buffer = new ByteArrayOutputStream();
+            var code = new DataOutputStream(buffer);
+            code.writeByte(ALOAD_0);
+            code.writeByte(INVOKESPECIAL);
+            code.writeShort(memberRef(CONSTANT_METHODREF, OBJECT_TYPE, "<init>", "()V"));
+            code.writeByte(ALOAD_0);
+            code.writeByte(ALOAD_1);
+            code.writeByte(PUTFIELD);
+            code.writeShort(memberRef(CONSTANT_FIELDREF, className, STUB_FIELD, STUB_ARRAY_DESC));
+            code.writeByte(RETURN);
+            code.flush();
+            return methodInfo(codeName, "<init>", "(" + STUB_ARRAY_DESC + ")V", 2, 2, buffer.toByteArray());
+        }
+
+        private byte[] stubMethod(int codeName, Method method, int index) throws IOException {
+            var parameterTypes = method.getParameterTypes();
+            var returnType = method.getReturnType();
+            var buffer = new ByteArrayOutputStream();
+            var code = new DataOutputStream(buffer);
+            code.writeByte(ALOAD_0);
+            code.writeByte(GETFIELD);
+            code.writeShort(memberRef(CONSTANT_FIELDREF, className, STUB_FIELD, STUB_ARRAY_DESC));
+            pushInt(code, index);
+            code.writeByte(AALOAD);
+            pushInt(code, parameterTypes.length);
+            code.writeByte(ANEWARRAY);
+            code.writeShort(classRef(OBJECT_TYPE));
+            var slot = 1;
+            for (var i = 0; i < parameterTypes.length; i++) {
+                var parameterType = parameterTypes[i];
+                code.writeByte(DUP);
+                pushInt(code, i);
+                loadLocal(code, parameterType, slot);
+                if (parameterType.isPrimitive()) {
+                    var wrapper = MethodType.methodType(parameterType).wrap().returnType();
+                    code.writeByte(INVOKESTATIC);
+                    code.writeShort(memberRef(CONSTANT_METHODREF, internalName(wrapper), "valueOf",
+                            MethodType.methodType(wrapper, parameterType).toMethodDescriptorString()));
+                }
+                code.writeByte(AASTORE);
+                slot += isWide(parameterType) ? 2 : 1;
+            }
+            code.writeByte(INVOKEINTERFACE);
+            code.writeShort(memberRef(CONSTANT_INTERFACE_METHODREF, STUB_TYPE, "call",
+                    "([Ljava/lang/Object;)Ljava/lang/Object;"));
+            code.writeByte(2);
+            code.writeByte(0);
+            writeReturn(code, returnType);
+            code.flush();
+            return methodInfo(codeName, method.getName(), descriptor(method), 8, slot, buffer.toByteArray());
+        }
+
+        private void loadLocal(DataOutputStream code, Class<?> type, int slot) throws IOException {
+            int opcode;
+            if (!type.isPrimitive()) {
+                opcode = ALOAD;
+            } else if (type == long.class) {
+                opcode = LLOAD;
+            } else if (type == float.class) {
+                opcode = FLOAD;
+            } else if (type == double.class) {
+                opcode = DLOAD;
+            } else {
+                opcode = ILOAD;
+            }
+            if (slot > 255) {
+                throw new IllegalArgumentException("Too many parameters for a stub method.");
+            }
+            code.writeByte(opcode);
+            code.writeByte(slot);
+        }
+
+        private void writeReturn(DataOutputStream code, Class<?> returnType) throws IOException {
+            if (returnType == void.class) {
+                code.writeByte(POP);
+                code.writeByte(RETURN);
+            } else if (!returnType.isPrimitive()) {
+                code.writeByte(CHECKCAST);
+                code.writeShort(classRef(internalName(returnType)));
+                code.writeByte(ARETURN);
+            } else {
+                var wrapper = MethodType.methodType(returnType).wrap().returnType();
+                code.writeByte(CHECKCAST);
+                code.writeShort(classRef(internalName(wrapper)));
+                code.writeByte(INVOKEVIRTUAL);
+                code.writeShort(memberRef(CONSTANT_METHODREF, internalName(wrapper), returnType.getName() + "Value",
+                        MethodType.methodType(returnType).toMethodDescriptorString()));
+                if (returnType == long.class) {
+                    code.writeByte(LRETURN);
+                } else if (returnType == float.class) {
+                    code.writeByte(FRETURN);
+                } else if (returnType == double.class) {
+                    code.writeByte(DRETURN);
+                } else {
+                    code.writeByte(IRETURN);
+                }
+            }
+        }
+
+        private void pushInt(DataOutputStream code, int value) throws IOException {
+            if (value <= 5) {
+                code.writeByte(ICONST_0 + value);
+            } else if (value <= Byte.MAX_VALUE) {
+                code.writeByte(BIPUSH);
+                code.writeByte(value);
+            } else {
+                code.writeByte(SIPUSH);
+                code.writeShort(value);
+            }
+        }
+
+        private byte[] methodInfo(int codeName, String name, String descriptor, int maxStack, int maxLocals,
+                byte[] code) throws IOException {
+            var nameIndex = utf8(name);
+            var descriptorIndex = utf8(descriptor);
+            var buffer = new ByteArrayOutputStream();
+            var out = new DataOutputStream(buffer);
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.flush();
+            return buffer.toByteArray();
+        }
+
+        private int utf8(String value) throws IOException {
+            var key = "U" + value;
+            var index = poolIndexes.get(key);
+            if (index == null) {
+                pool.writeByte(CONSTANT_UTF8);
+                pool.writeUTF(value);
+                index = register(key);
+            }
+            return index;
+        }
+
+        private int classRef(String internalName) throws IOException {
+            var key = "C" + internalName;
+            var index = poolIndexes.get(key);
+            if (index == null) {
+                var nameIndex = utf8(internalName);
+                pool.writeByte(CONSTANT_CLASS);
+                pool.writeShort(nameIndex);
+                index = register(key);
+            }
+            return index;
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+            var key = "M" + tag + owner + "." + name + ":" + descriptor;
+            var index = poolIndexes.get(key);
+            if (index == null) {
+                var ownerIndex = classRef(owner);
+                var nameAndTypeIndex = nameAndType(name, descriptor);
+                pool.writeByte(tag);
+                pool.writeShort(ownerIndex);
+                pool.writeShort(nameAndTypeIndex);
+                index = register(key);
+            }
+            return index;
+        }
+
+        private int nameAndType(String name, String descriptor) throws IOException {
+            var key = "N" + name + ":" + descriptor;
+            var index = poolIndexes.get(key);
+            if (index == null) {
+                var nameIndex = utf8(name);
+                var descriptorIndex = utf8(descriptor);
+                pool.writeByte(CONSTANT_NAME_AND_TYPE);
+                pool.writeShort(nameIndex);
+                pool.writeShort(descriptorIndex);
+                index = register(key);
+            }
+            return index;
+        }
+
+        private int register(String key) {
+            var index = poolCount++;
+            poolIndexes.put(key, index);
+            return index;
+        }
+
+        private static boolean isWide(Class<?> type) {
+            return type == long.class || type == double.class;
+        }
+
+        private static String internalName(Class<?> clazz) {
+            return clazz.getName().replace('.', '/');
+        }
+
+    }
+
+}
@@ -4,8 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.MethodMetadata;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
 import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
 import io.github.sashirestela.cleverclient.util.CommonUtil;
-import io.github.sashirestela.cleverclient.util.JsonUtil;
 
 import java.lang.reflect.Field;
 import java.net.URLEncoder;
@@ -13,44 +13,95 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class URLBuilder {
 
-    private static URLBuilder urlBuilder = null;
+    private static final URLBuilder urlBuilder = new URLBuilder();
+    private static final int QUERY_PARAM_EXPECTED_LENGTH = 24;
 
     private URLBuilder() {
     }
 
     public static URLBuilder one() {
-        if (urlBuilder == null) {
-            urlBuilder = new URLBuilder();
-        }
         return urlBuilder;
     }
 
+    /**
+     * Builds the url of a method from its metadata.
+     *
+     * @param urlMethod      The url of the method.
+     * @param methodMetadata The metadata of the method.
+     * @param arguments      The arguments of the method invocation.
+     * @return The url.
+     * @deprecated Use the overload with the URLTemplate of the InvocationPlan, which is compiled once.
+     */
+    @Deprecated
     public String build(String urlMethod, MethodMetadata methodMetadata, Object[] arguments) {
-        var url = urlMethod;
-        var pathParameters = methodMetadata.getPathParameters();
-        var queryParameters = methodMetadata.getQueryParameters();
+        return build(urlMethod, methodMetadata.getPathParameters(), methodMetadata.getQueryParameters(), arguments);
+    }
+
+    /**
+     * Builds the url of a method from its parameters. The template is compiled on each call.
+     *
+     * @param urlMethod       The url of the method.
+     * @param pathParameters  The Path parameters of the method.
+     * @param queryParameters The Query parameters of the method.
+     * @param arguments       The arguments of the method invocation.
+     * @return The url.
+     * @deprecated Use the overload with the URLTemplate of the InvocationPlan, which is compiled once.
+     */
+    @Deprecated
+    public String build(String urlMethod, List<ParameterMetadata> pathParameters,
+            List<ParameterMetadata> queryParameters, Object[] arguments) {
         if (pathParameters.isEmpty() && queryParameters.isEmpty()) {
-            return url;
+            return urlMethod;
         }
-        url = replacePathParams(url, pathParameters, arguments);
-        url = includeQueryParams(url, queryParameters, arguments);
-        return url;
+        return build("", URLTemplate.compile(urlMethod, pathParameters), queryParameters, arguments);
     }
 
-    private String replacePathParams(String url, List<ParameterMetadata> pathParameters, Object[] arguments) {
-        for (var parameter : pathParameters) {
-            var index = parameter.getIndex();
-            var pathParam = "{" + parameter.getAnnotation().getValue() + "}";
-            url = url.replace(pathParam, arguments[index].toString());
+    /**
+     * Builds the full url in a single pass: base url, expanded template and query params are appended
+     * to one pre-sized builder.
+     *
+     * @param baseUrl         The base url of the client.
+     * @param urlTemplate     The compiled url of the method.
+     * @param queryParameters The Query parameters of the method.
+     * @param arguments       The arguments of the method invocation.
+     * @return The full url.
+     */
+    public String build(String baseUrl, URLTemplate urlTemplate, List<ParameterMetadata> queryParameters,
+            Object[] arguments) {
+        return build(baseUrl, urlTemplate, queryParameters, arguments, JacksonCodec.json()::convertToMap);
+    }
+
+    /**
+     * Builds the full url, converting the Query objects to their properties with the given function
+     * (usually the object mapper of the client).
+     *
+     * @param baseUrl         The base url of the client.
+     * @param urlTemplate     The compiled url of the method.
+     * @param queryParameters The Query parameters of the method.
+     * @param arguments       The arguments of the method invocation.
+     * @param objectToMap     Converts a Query object to a Map of its properties.
+     * @return The full url.
+     */
+    public String build(String baseUrl, URLTemplate urlTemplate, List<ParameterMetadata> queryParameters,
+            Object[] arguments, Function<Object, Map<String, Object>> objectToMap) {
+        if (!urlTemplate.hasPlaceholders() && queryParameters.isEmpty()) {
+            return baseUrl + urlTemplate.getTemplate();
         }
-        return url;
+        var url = new StringBuilder(baseUrl.length() + urlTemplate.expectedLength()
+                + queryParameters.size() * QUERY_PARAM_EXPECTED_LENGTH);
+        url.append(baseUrl);
+        urlTemplate.expandTo(url, arguments);
+        includeQueryParams(url, queryParameters, arguments, objectToMap);
+        return url.toString();
     }
 
-    private String includeQueryParams(String url, List<ParameterMetadata> queryParameters, Object[] arguments) {
-        var queryParamBuilder = new StringBuilder();
+    private void includeQueryParams(StringBuilder url, List<ParameterMetadata> queryParameters,
+            Object[] arguments, Function<Object, Map<String, Object>> objectToMap) {
+        var queryStart = url.length();
         for (var parameter : queryParameters) {
             var index = parameter.getIndex();
             var value = arguments[index];
@@ -62,11 +113,10 @@ public class URLBuilder {
             }
             var queryParam = parameter.getAnnotation().getValue();
             if (CommonUtil.isNullOrEmpty(queryParam))
-                appendQueryParams(JsonUtil.objectToMap(value), queryParamBuilder);
+                appendQueryParams(objectToMap.apply(value), url, queryStart);
             else
-                appendQueryParam(queryParam, value, queryParamBuilder);
+                appendQueryParam(queryParam, value, url, queryStart);
         }
-        return url + queryParamBuilder;
     }
 
     private String getEnumValue(Object value) {
@@ -86,11 +136,11 @@ public class URLBuilder {
         }
     }
 
-    private void appendQueryParams(Map<String, ?> queryParams, StringBuilder queryParamBuilder) {
-        queryParams.forEach((k, v) -> appendQueryParam(k, v, queryParamBuilder));
+    private void appendQueryParams(Map<String, ?> queryParams, StringBuilder url, int queryStart) {
+        queryParams.forEach((k, v) -> appendQueryParam(k, v, url, queryStart));
     }
 
-    private void appendQueryParam(String name, Object value, StringBuilder queryParamBuilder) {
+    private void appendQueryParam(String name, Object value, StringBuilder url, int queryStart) {
         if (value == null) {
             return;
         }
@@ -98,23 +148,23 @@ public class URLBuilder {
             Object[] array = (Object[]) value;
             for (Object item : array) {
                 if (item != null) {
-                    appendSingleParam(name, item, queryParamBuilder);
+                    appendSingleParam(name, item, url, queryStart);
                 }
             }
         } else if (value instanceof Collection) {
             Collection<?> collection = (Collection<?>) value;
             for (Object item : collection) {
                 if (item != null) {
-                    appendSingleParam(name, item, queryParamBuilder);
+                    appendSingleParam(name, item, url, queryStart);
                 }
             }
         } else {
-            appendSingleParam(name, value, queryParamBuilder);
+            appendSingleParam(name, value, url, queryStart);
         }
     }
 
-    private void appendSingleParam(String name, Object value, StringBuilder queryParamBuilder) {
-        queryParamBuilder.append(queryParamBuilder.length() == 0 ? '?' : '&')
+    private void appendSingleParam(String name, Object value, StringBuilder url, int queryStart) {
+        url.append(url.length() == queryStart ? '?' : '&')
                 .append(URLEncoder.encode(name, StandardCharsets.UTF_8))
                 .append('=')
                 .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
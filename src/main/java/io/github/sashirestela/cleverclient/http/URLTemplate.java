@@ -0,0 +1,168 @@
+package io.github.sashirestela.cleverclient.http;
+
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Url of a method (Resource prefix plus http method url) parsed once into literal segments and
+ * placeholders bound to the index of their Path arguments. Expanding it is a single pass that
+ * percent-encodes every path value as an RFC 3986 path segment.
+ */
+public class URLTemplate {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] PATH_SEGMENT_CHARS = new boolean[128];
+    private static final int EXPECTED_VALUE_LENGTH = 16;
+
+    static {
+        for (var c = 'a'; c <= 'z'; c++) {
+            PATH_SEGMENT_CHARS[c] = true;
+        }
+        for (var c = 'A'; c <= 'Z'; c++) {
+            PATH_SEGMENT_CHARS[c] = true;
+        }
+        for (var c = '0'; c <= '9'; c++) {
+            PATH_SEGMENT_CHARS[c] = true;
+        }
+        for (var c : "-._~!$&'()*+,;=:@".toCharArray()) {
+            PATH_SEGMENT_CHARS[c] = true;
+        }
+    }
+
+    private final String template;
+    private final String[] literals;
+    private final int[] argumentIndexes;
+    private final String[] parameterNames;
+    private final int literalsLength;
+
+    private URLTemplate(String template, List<String> literals, List<Integer> argumentIndexes,
+            List<String> parameterNames) {
+        this.template = template;
+        this.literals = literals.toArray(new String[0]);
+        this.argumentIndexes = argumentIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.parameterNames = parameterNames.toArray(new String[0]);
+        this.literalsLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * Parses the url into segments. Placeholders without a matching Path parameter are kept as
+     * literal text.
+     *
+     * @param template       The url with placeholders like {name}.
+     * @param pathParameters The Path parameters of the method.
+     * @return The compiled template.
+     */
+    public static URLTemplate compile(String template, List<ParameterMetadata> pathParameters) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> argumentIndexes = new ArrayList<>();
+        List<String> parameterNames = new ArrayList<>();
+        var literal = new StringBuilder();
+        var position = 0;
+        while (position < template.length()) {
+            var open = template.indexOf('{', position);
+            var close = open < 0 ? -1 : template.indexOf('}', open + 1);
+            if (close < 0) {
+                literal.append(template, position, template.length());
+                break;
+            }
+            literal.append(template, position, open);
+            var name = template.substring(open + 1, close);
+            var argumentIndex = findArgumentIndex(name, pathParameters);
+            if (argumentIndex < 0) {
+                literal.append(template, open, close + 1);
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                argumentIndexes.add(argumentIndex);
+                parameterNames.add(name);
+            }
+            position = close + 1;
+        }
+        literals.add(literal.toString());
+        return new URLTemplate(template, literals, argumentIndexes, parameterNames);
+    }
+
+    private static int findArgumentIndex(String name, List<ParameterMetadata> pathParameters) {
+        for (var parameter : pathParameters) {
+            if (name.equals(parameter.getAnnotation().getValue())) {
+                return parameter.getIndex();
+            }
+        }
+        return -1;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public boolean hasPlaceholders() {
+        return argumentIndexes.length > 0;
+    }
+
+    /**
+     * Estimated length of the expanded url, used to pre-size the builders.
+     *
+     * @return The length of the literals plus an allowance for each value.
+     */
+    public int expectedLength() {
+        return literalsLength + argumentIndexes.length * EXPECTED_VALUE_LENGTH;
+    }
+
+    /**
+     * Appends the url to the builder, replacing every placeholder with its encoded argument.
+     *
+     * @param builder   The builder to append to.
+     * @param arguments The arguments of the method invocation.
+     * @return The same builder.
+     */
+    public StringBuilder expandTo(StringBuilder builder, Object[] arguments) {
+        builder.append(literals[0]);
+        for (var i = 0; i < argumentIndexes.length; i++) {
+            var value = arguments[argumentIndexes[i]];
+            if (value == null) {
+                throw new CleverClientException("The value of the path param {0} cannot be null.", parameterNames[i],
+                        null);
+            }
+            appendEncoded(builder, value.toString());
+            builder.append(literals[i + 1]);
+        }
+        return builder;
+    }
+
+    public String expand(Object[] arguments) {
+        if (!hasPlaceholders()) {
+            return literals[0];
+        }
+        return expandTo(new StringBuilder(expectedLength()), arguments).toString();
+    }
+
+    static void appendEncoded(StringBuilder builder, String value) {
+        var length = value.length();
+        var i = 0;
+        while (i < length && isPathSegmentChar(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            builder.append(value);
+            return;
+        }
+        builder.append(value, 0, i);
+        for (var b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+            var c = (char) (b & 0xFF);
+            if (isPathSegmentChar(c)) {
+                builder.append(c);
+            } else {
+                builder.append('%').append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0x0F]);
+            }
+        }
+    }
+
+    private static boolean isPathSegmentChar(char c) {
+        return c < 128 && PATH_SEGMENT_CHARS[c];
+    }
+
+}
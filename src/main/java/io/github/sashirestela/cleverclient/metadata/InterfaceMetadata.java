@@ -17,6 +17,7 @@ public class InterfaceMetadata {
     private static final String ANNOT_RESOURCE = "Resource";
     private static final String ANNOT_HEADER = "Header";
     private static final String ANNOT_MULTIPART = "Multipart";
+    private static final String ANNOT_MEDIA_TYPE = "MediaType";
     private static final String ANNOT_PARAM_BODY = "Body";
     private static final String ANNOT_PARAM_PATH = "Path";
     private static final String ANNOT_PARAM_QUERY = "Query";
@@ -57,6 +58,17 @@ public class InterfaceMetadata {
         return fullHeaders;
     }
 
+    public String getMediaTypeByMethod(MethodMetadata methodMetadata) {
+        var mediaTypeAnnot = methodMetadata.getAnnotations()
+                .stream()
+                .filter(annot -> annot.getName().equals(ANNOT_MEDIA_TYPE))
+                .findFirst()
+                .or(() -> annotations.stream()
+                        .filter(annot -> annot.getName().equals(ANNOT_MEDIA_TYPE))
+                        .findFirst());
+        return mediaTypeAnnot.isPresent() ? mediaTypeAnnot.get().getValue() : null;
+    }
+
     @Value
     @Builder
     public static class MethodMetadata {
@@ -5,6 +5,7 @@ import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.Annotation
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.MethodMetadata;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
 import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.ContentType;
 import io.github.sashirestela.cleverclient.support.ReturnType;
 import io.github.sashirestela.cleverclient.util.CommonUtil;
 import io.github.sashirestela.cleverclient.util.Constant;
@@ -18,40 +19,70 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class InterfaceMetadataStore {
 
-    private static Logger logger = LoggerFactory.getLogger(InterfaceMetadataStore.class);
+    private static final Logger logger = LoggerFactory.getLogger(InterfaceMetadataStore.class);
 
-    private static InterfaceMetadataStore store = null;
+    private static final InterfaceMetadataStore store = new InterfaceMetadataStore();
 
-    private Map<String, InterfaceMetadata> interfacesByFullName;
+    private final Map<String, InterfaceMetadata> interfacesByFullName;
+    private final Map<Method, InvocationPlan> plansByMethod;
+    private final Map<Class<?>, InterfaceMetadata> lazyInterfaces;
 
     private InterfaceMetadataStore() {
-        interfacesByFullName = new HashMap<>();
+        interfacesByFullName = new ConcurrentHashMap<>();
+        plansByMethod = new ConcurrentHashMap<>();
+        lazyInterfaces = new ConcurrentHashMap<>();
     }
 
     public static InterfaceMetadataStore one() {
-        if (store == null) {
-            store = new InterfaceMetadataStore();
-        }
         return store;
     }
 
+    /**
+     * Collects, validates and stores the metadata of the interface and the invocation plans of its
+     * methods. It is done once per interface even if several threads save it at the same time; the
+     * others wait for the first one to finish. Reads (get, getPlan) never block.
+     *
+     * @param interfaceClass The interface to be saved.
+     */
     public void save(Class<?> interfaceClass) {
         if (interfacesByFullName.containsKey(interfaceClass.getName())) {
             return;
         }
+        interfacesByFullName.computeIfAbsent(interfaceClass.getName(), name -> collect(interfaceClass));
+    }
+
+    /**
+     * Registers the interface without scanning its methods. The metadata and the invocation plan of
+     * each method are built and validated on its first call (see getPlan). If the interface was
+     * already saved eagerly, nothing is done.
+     *
+     * @param interfaceClass The interface to be registered.
+     */
+    public void saveLazily(Class<?> interfaceClass) {
+        if (interfacesByFullName.containsKey(interfaceClass.getName())) {
+            return;
+        }
+        lazyInterfaces.computeIfAbsent(interfaceClass, clazz -> {
+            logger.debug("The interface {} was registered lazily", clazz.getSimpleName());
+            return InterfaceMetadata.builder()
+                    .name(clazz.getSimpleName())
+                    .annotations(getAnnotations(clazz.getDeclaredAnnotations()))
+                    .methodBySignature(Map.of())
+                    .build();
+        });
+    }
+
+    private InterfaceMetadata collect(Class<?> interfaceClass) {
         Map<String, MethodMetadata> methodBySignature = new HashMap<>();
+        Map<Method, MethodMetadata> methodByJavaMethod = new HashMap<>();
         for (var javaMethod : interfaceClass.getMethods()) {
-            var methodMetadata = MethodMetadata.builder()
-                    .name(javaMethod.getName())
-                    .returnType(new ReturnType(javaMethod))
-                    .isDefault(javaMethod.isDefault())
-                    .annotations(getAnnotations(javaMethod.getDeclaredAnnotations()))
-                    .parameters(getParameters(javaMethod.getParameters()))
-                    .build();
+            var methodMetadata = getMethodMetadata(javaMethod);
             methodBySignature.put(javaMethod.toString(), methodMetadata);
+            methodByJavaMethod.put(javaMethod, methodMetadata);
         }
         var interfaceMetadata = InterfaceMetadata.builder()
                 .name(interfaceClass.getSimpleName())
@@ -61,17 +92,64 @@ public class InterfaceMetadataStore {
 
         validate(interfaceMetadata);
 
-        interfacesByFullName.put(interfaceClass.getName(), interfaceMetadata);
+        methodByJavaMethod.forEach((javaMethod, methodMetadata) -> {
+            if (!methodMetadata.isDefault() && javaMethod.getDeclaringClass() == interfaceClass) {
+                plansByMethod.put(javaMethod, compilePlan(interfaceMetadata, methodMetadata));
+            }
+        });
         logger.debug("The interface {} was saved", interfaceClass.getSimpleName());
+        return interfaceMetadata;
+    }
+
+    private MethodMetadata getMethodMetadata(Method javaMethod) {
+        return MethodMetadata.builder()
+                .name(javaMethod.getName())
+                .returnType(new ReturnType(javaMethod))
+                .isDefault(javaMethod.isDefault())
+                .annotations(getAnnotations(javaMethod.getDeclaredAnnotations()))
+                .parameters(getParameters(javaMethod.getParameters()))
+                .build();
     }
 
     public InterfaceMetadata get(Class<?> interfaceClass) {
-        if (interfacesByFullName.containsKey(interfaceClass.getName())) {
-            return interfacesByFullName.get(interfaceClass.getName());
-        } else {
+        var interfaceMetadata = interfacesByFullName.get(interfaceClass.getName());
+        if (interfaceMetadata == null) {
             throw new CleverClientException("The interface {0} has not been saved yet.", interfaceClass.getSimpleName(),
                     null);
         }
+        return interfaceMetadata;
+    }
+
+    public boolean hasPlan(Method method) {
+        return plansByMethod.containsKey(method);
+    }
+
+    public InvocationPlan getPlan(Method method) {
+        var plan = plansByMethod.get(method);
+        if (plan == null) {
+            var interfaceMetadata = lazyInterfaces.get(method.getDeclaringClass());
+            if (interfaceMetadata == null || method.isDefault()) {
+                throw new CleverClientException("The method {0} has not been saved yet.", method.getName(), null);
+            }
+            plan = plansByMethod.computeIfAbsent(method, javaMethod -> {
+                var methodMetadata = getMethodMetadata(javaMethod);
+                validate(interfaceMetadata, methodMetadata);
+                return compilePlan(interfaceMetadata, methodMetadata);
+            });
+        }
+        return plan;
+    }
+
+    private InvocationPlan compilePlan(InterfaceMetadata interfaceMetadata, MethodMetadata methodMetadata) {
+        return InvocationPlans.plan(methodMetadata.getHttpAnnotationName(),
+                interfaceMetadata.getFullUrlByMethod(methodMetadata),
+                interfaceMetadata.getFullHeadersByMethod(methodMetadata),
+                methodMetadata.getContentType() == ContentType.MULTIPART_FORMDATA,
+                interfaceMetadata.getMediaTypeByMethod(methodMetadata),
+                methodMetadata.getBodyIndex(),
+                methodMetadata.getPathParameters(),
+                methodMetadata.getQueryParameters(),
+                methodMetadata.getReturnType());
     }
 
     private List<AnnotationMetadata> getAnnotations(Annotation[] javaAnnotations) {
@@ -118,26 +196,30 @@ public class InterfaceMetadataStore {
     }
 
     private void validate(InterfaceMetadata interfaceMetadata) {
-        interfaceMetadata.getMethodBySignature().forEach((methodSignature, methodMetadata) -> {
-            if (!methodMetadata.isDefault()) {
-                if (!methodMetadata.hasHttpAnnotation()) {
-                    throw new CleverClientException("Missing HTTP annotation for the method {0}.",
-                            methodMetadata.getName(), null);
-                }
-                var url = interfaceMetadata.getFullUrlByMethod(methodMetadata);
-                var listPathParams = CommonUtil.findFullMatches(url, Constant.REGEX_PATH_PARAM_URL);
-                if (!CommonUtil.isNullOrEmpty(listPathParams)) {
-                    listPathParams.forEach(pathParam -> methodMetadata.getPathParameters()
-                            .stream()
-                            .map(parameter -> parameter.getAnnotation().getValue())
-                            .filter(paramAnnotValue -> pathParam.equals(paramAnnotValue))
-                            .findFirst()
-                            .orElseThrow(() -> new CleverClientException(
-                                    "Path param {0} in the url cannot find an annotated argument in the method {1}.",
-                                    pathParam, methodMetadata.getName(), null)));
-                }
-            }
-        });
+        interfaceMetadata.getMethodBySignature()
+                .forEach((methodSignature, methodMetadata) -> validate(interfaceMetadata, methodMetadata));
+    }
+
+    private void validate(InterfaceMetadata interfaceMetadata, MethodMetadata methodMetadata) {
+        if (methodMetadata.isDefault()) {
+            return;
+        }
+        if (!methodMetadata.hasHttpAnnotation()) {
+            throw new CleverClientException("Missing HTTP annotation for the method {0}.",
+                    methodMetadata.getName(), null);
+        }
+        var url = interfaceMetadata.getFullUrlByMethod(methodMetadata);
+        var listPathParams = CommonUtil.findFullMatches(url, Constant.REGEX_PATH_PARAM_URL);
+        if (!CommonUtil.isNullOrEmpty(listPathParams)) {
+            listPathParams.forEach(pathParam -> methodMetadata.getPathParameters()
+                    .stream()
+                    .map(parameter -> parameter.getAnnotation().getValue())
+                    .filter(paramAnnotValue -> pathParam.equals(paramAnnotValue))
+                    .findFirst()
+                    .orElseThrow(() -> new CleverClientException(
+                            "Path param {0} in the url cannot find an annotated argument in the method {1}.",
+                            pathParam, methodMetadata.getName(), null)));
+        }
     }
 
     private Object getAnnotationValue(Annotation javaAnnotation, Method javaAnnotMethod) {
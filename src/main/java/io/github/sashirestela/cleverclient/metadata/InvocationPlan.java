@@ -0,0 +1,31 @@
+package io.github.sashirestela.cleverclient.metadata;
+
+import io.github.sashirestela.cleverclient.http.URLTemplate;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
+import io.github.sashirestela.cleverclient.support.ContentType;
+import io.github.sashirestela.cleverclient.support.ReturnType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Immutable, precompiled view of an http method of an interface. It is built once when the
+ * interface is saved, so every call only has to bind its arguments.
+ */
+@Value
+@Builder
+public class InvocationPlan {
+
+    String url;
+    URLTemplate urlTemplate;
+    String httpMethod;
+    int bodyIndex;
+    ContentType contentType;
+    String mediaType;
+    List<String> headers;
+    ReturnType returnType;
+    List<ParameterMetadata> pathParameters;
+    List<ParameterMetadata> queryParameters;
+
+}
@@ -0,0 +1,141 @@
+package io.github.sashirestela.cleverclient.metadata;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.github.sashirestela.cleverclient.annotation.BatchedStream;
+import io.github.sashirestela.cleverclient.annotation.ResumableStream;
+import io.github.sashirestela.cleverclient.http.URLTemplate;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.AnnotationMetadata;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
+import io.github.sashirestela.cleverclient.support.ContentType;
+import io.github.sashirestela.cleverclient.support.ReturnType;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds invocation plans from plain values. The classes generated at build time (see
+ * ResourceProcessor) hold their plans as constants built with these methods, so neither the methods
+ * nor the annotations of the interface are read by reflection at runtime.
+ */
+public final class InvocationPlans {
+
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+    private static final String ANNOT_PARAM_PATH = "Path";
+    private static final String ANNOT_PARAM_QUERY = "Query";
+    private static final String ANNOT_FIELD_VALUE = "value";
+
+    private InvocationPlans() {
+    }
+
+    /**
+     * Builds the plan of an http method.
+     *
+     * @param httpMethod      Name of the http annotation, like GET.
+     * @param url             Url of the Resource annotation followed by the one of the http annotation.
+     * @param headers         Names and values of the Header annotations of the interface and the method.
+     * @param multipart       Whether the method is annotated with Multipart.
+     * @param mediaType       Value of the MediaType annotation of the method or the interface, or null.
+     * @param bodyIndex       Index of the argument annotated with Body, or -1.
+     * @param pathParameters  The arguments annotated with Path.
+     * @param queryParameters The arguments annotated with Query.
+     * @param returnType      The return type of the method.
+     * @return The plan.
+     */
+    public static InvocationPlan plan(String httpMethod, String url, List<String> headers, boolean multipart,
+            String mediaType, int bodyIndex, List<ParameterMetadata> pathParameters,
+            List<ParameterMetadata> queryParameters, ReturnType returnType) {
+        ContentType contentType = null;
+        if (bodyIndex != -1) {
+            contentType = multipart ? ContentType.MULTIPART_FORMDATA : ContentType.APPLICATION_JSON;
+        }
+        List<String> fullHeaders = new ArrayList<>();
+        // The Content-Type of Json bodies depends on the codec, which is chosen by each client
+        if (contentType == ContentType.MULTIPART_FORMDATA) {
+            fullHeaders.add(HEADER_CONTENT_TYPE);
+            fullHeaders.add(contentType.getMimeType() + contentType.getDetails());
+        }
+        fullHeaders.addAll(headers);
+        return InvocationPlan.builder()
+                .url(url)
+                .urlTemplate(URLTemplate.compile(url, pathParameters))
+                .httpMethod(httpMethod)
+                .bodyIndex(bodyIndex)
+                .contentType(contentType)
+                .mediaType(mediaType)
+                .headers(List.copyOf(fullHeaders))
+                .returnType(returnType)
+                .pathParameters(List.copyOf(pathParameters))
+                .queryParameters(List.copyOf(queryParameters))
+                .build();
+    }
+
+    public static ParameterMetadata path(int index, String name) {
+        return parameter(index, ANNOT_PARAM_PATH, name);
+    }
+
+    public static ParameterMetadata query(int index, String name) {
+        return parameter(index, ANNOT_PARAM_QUERY, name);
+    }
+
+    private static ParameterMetadata parameter(int index, String annotationName, String value) {
+        return ParameterMetadata.builder()
+                .index(index)
+                .annotation(AnnotationMetadata.builder()
+                        .name(annotationName)
+                        .isHttpMethod(false)
+                        .valueByField(Map.of(ANNOT_FIELD_VALUE, value))
+                        .build())
+                .build();
+    }
+
+    public static JavaType type(Class<?> rawClass, JavaType... parameterTypes) {
+        return parameterTypes.length == 0
+                ? TypeFactory.defaultInstance().constructType(rawClass)
+                : TypeFactory.defaultInstance().constructParametricType(rawClass, parameterTypes);
+    }
+
+    public static JavaType arrayOf(JavaType componentType) {
+        return TypeFactory.defaultInstance().constructArrayType(componentType);
+    }
+
+    public static BatchedStream batched(int maxSize, long maxDelayMs) {
+        return new BatchedStream() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return BatchedStream.class;
+            }
+
+            @Override
+            public int maxSize() {
+                return maxSize;
+            }
+
+            @Override
+            public long maxDelayMs() {
+                return maxDelayMs;
+            }
+
+        };
+    }
+
+    public static ResumableStream resumable(int maxAttempts) {
+        return new ResumableStream() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return ResumableStream.class;
+            }
+
+            @Override
+            public int maxAttempts() {
+                return maxAttempts;
+            }
+
+        };
+    }
+
+}
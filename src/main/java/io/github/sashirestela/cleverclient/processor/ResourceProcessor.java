@@ -0,0 +1,498 @@
+package io.github.sashirestela.cleverclient.processor;
+
+import io.github.sashirestela.cleverclient.util.CommonUtil;
+import io.github.sashirestela.cleverclient.util.Constant;
+import io.github.sashirestela.cleverclient.util.ReflectUtil;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic.Kind;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Optional annotation processor that generates, at build time, a concrete implementation class for
+ * each interface annotated with Resource. The invocation plan of every abstract method is computed
+ * from the annotations at build time and held by the generated class as a constant, and the method
+ * calls the HttpProcessor directly with it. So at runtime there is no dynamic proxy dispatch, and
+ * neither the methods nor the annotations of the interface are read by reflection. CleverClient
+ * picks the generated class when it exists and falls back to a dynamic proxy otherwise. No class is
+ * generated for an interface whose metadata is not valid (e.g. a method without an http annotation),
+ * so the dynamic proxy reports the error at runtime as usual.
+ * <p>
+ * It is not registered automatically; enable it in the compiler configuration of your build, for
+ * example with the javac option: -processor
+ * io.github.sashirestela.cleverclient.processor.ResourceProcessor
+ */
+@SupportedAnnotationTypes(ResourceProcessor.RESOURCE_ANNOTATION)
+public class ResourceProcessor extends AbstractProcessor {
+
+    static final String RESOURCE_ANNOTATION = "io.github.sashirestela.cleverclient.annotation.Resource";
+    private static final String ANNOTATION_PACKAGE = "io.github.sashirestela.cleverclient.annotation.";
+    private static final String HTTP_METHOD = ANNOTATION_PACKAGE + "HttpMethod";
+    private static final String STREAM_FORMAT = ANNOTATION_PACKAGE + "StreamFormat";
+    private static final String STREAM_TYPE = ANNOTATION_PACKAGE + "StreamType";
+    private static final String STREAM_TYPE_ARRAY = STREAM_TYPE + ".StreamTypeArray";
+    private static final String BATCHED_STREAM = ANNOTATION_PACKAGE + "BatchedStream";
+    private static final String RESUMABLE_STREAM = ANNOTATION_PACKAGE + "ResumableStream";
+    private static final String HTTP_PROCESSOR = "io.github.sashirestela.cleverclient.http.HttpProcessor";
+    private static final String INVOCATION_PLAN = "io.github.sashirestela.cleverclient.metadata.InvocationPlan";
+    private static final String INVOCATION_PLANS = "io.github.sashirestela.cleverclient.metadata.InvocationPlans";
+    private static final String RETURN_TYPE = "io.github.sashirestela.cleverclient.support.ReturnType";
+    private static final String ANNOT_RESOURCE = "Resource";
+    private static final String ANNOT_HEADER = "Header";
+    private static final String ANNOT_MULTIPART = "Multipart";
+    private static final String ANNOT_MEDIA_TYPE = "MediaType";
+    private static final String ANNOT_PARAM_BODY = "Body";
+    private static final String ANNOT_PARAM_PATH = "Path";
+    private static final String ANNOT_PARAM_QUERY = "Query";
+    private static final String INDENT = "    ";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (var annotation : annotations) {
+            for (var element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (isSupported(element)) {
+                    generate((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isSupported(Element element) {
+        var reason = "";
+        if (element.getKind() != ElementKind.INTERFACE) {
+            reason = "it is not an interface";
+        } else if (element.getModifiers().contains(Modifier.PRIVATE)) {
+            reason = "it is private";
+        } else if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+            reason = "it has type parameters";
+        } else if (((TypeElement) element).getNestingKind() == NestingKind.LOCAL) {
+            reason = "it is local";
+        }
+        if (!reason.isEmpty()) {
+            processingEnv.getMessager()
+                    .printMessage(Kind.NOTE, "No class is generated for " + element + " because " + reason
+                            + ". A dynamic proxy will be used instead.", element);
+            return false;
+        }
+        return true;
+    }
+
+    private void generate(TypeElement interfaceElement) {
+        var declaredType = (DeclaredType) interfaceElement.asType();
+        var methods = abstractMethods(interfaceElement);
+        List<String> plans = new ArrayList<>();
+        for (var method : methods) {
+            try {
+                plans.add(planExpression(interfaceElement, declaredType, method));
+            } catch (IllegalStateException e) {
+                processingEnv.getMessager()
+                        .printMessage(Kind.NOTE, "No class is generated for " + interfaceElement + " because "
+                                + e.getMessage() + ". A dynamic proxy will be used instead.", interfaceElement);
+                return;
+            }
+        }
+        var elements = processingEnv.getElementUtils();
+        var packageName = elements.getPackageOf(interfaceElement).getQualifiedName().toString();
+        var binaryName = elements.getBinaryName(interfaceElement).toString();
+        var simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        var className = simpleName.replace('$', '_') + ReflectUtil.GENERATED_SUFFIX;
+        var interfaceName = interfaceElement.getQualifiedName().toString();
+
+        var source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"")
+                .append(ResourceProcessor.class.getName())
+                .append("\")\n");
+        source.append("@SuppressWarnings(\"unchecked\")\n");
+        source.append("public final class ").append(className).append(" implements ").append(interfaceName)
+                .append(" {\n\n");
+        for (var i = 0; i < plans.size(); i++) {
+            source.append(INDENT).append("private static final ").append(INVOCATION_PLAN).append(" PLAN_").append(i)
+                    .append(" = ").append(plans.get(i)).append(";\n");
+        }
+        source.append("\n").append(INDENT).append("private final ").append(HTTP_PROCESSOR)
+                .append(" httpProcessor;\n\n");
+        source.append(INDENT).append("public ").append(className).append("(").append(HTTP_PROCESSOR)
+                .append(" httpProcessor) {\n");
+        source.append(INDENT).append(INDENT).append("this.httpProcessor = httpProcessor;\n");
+        source.append(INDENT).append("}\n");
+        for (var i = 0; i < methods.size(); i++) {
+            appendMethod(source, declaredType, methods.get(i), i);
+        }
+        source.append("\n}\n");
+
+        var fullClassName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(fullClassName, interfaceElement)
+                .openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager()
+                    .printMessage(Kind.ERROR, "Cannot generate " + fullClassName + ": " + e.getMessage(),
+                            interfaceElement);
+        }
+    }
+
+    private List<ExecutableElement> abstractMethods(TypeElement interfaceElement) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (var member : processingEnv.getElementUtils().getAllMembers(interfaceElement)) {
+            if (member.getKind() == ElementKind.METHOD && member.getModifiers().contains(Modifier.ABSTRACT)) {
+                methods.add((ExecutableElement) member);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Source of the expression that builds the invocation plan of the method, with the same values
+     * that InterfaceMetadataStore collects at runtime.
+     *
+     * @throws IllegalStateException If the metadata of the method is not valid.
+     */
+    private String planExpression(TypeElement interfaceElement, DeclaredType declaredType,
+            ExecutableElement method) {
+        var interfaceAnnotations = expand(interfaceElement.getAnnotationMirrors());
+        var methodAnnotations = expand(method.getAnnotationMirrors());
+        var httpAnnotation = methodAnnotations.stream()
+                .filter(this::isHttpMethod)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "the method " + method.getSimpleName() + " has no HTTP annotation"));
+        var url = findNamed(interfaceAnnotations, ANNOT_RESOURCE).map(annot -> stringValue(annot, "value"))
+                .orElse("") + stringValue(httpAnnotation, "value");
+        List<String> headers = new ArrayList<>();
+        for (var annot : interfaceAnnotations) {
+            addHeader(headers, annot);
+        }
+        for (var annot : methodAnnotations) {
+            addHeader(headers, annot);
+        }
+        var multipart = findNamed(methodAnnotations, ANNOT_MULTIPART).isPresent();
+        var mediaType = findNamed(methodAnnotations, ANNOT_MEDIA_TYPE)
+                .or(() -> findNamed(interfaceAnnotations, ANNOT_MEDIA_TYPE))
+                .map(annot -> literal(stringValue(annot, "value")))
+                .orElse("null");
+        var bodyIndex = -1;
+        List<String> pathParameters = new ArrayList<>();
+        List<String> pathNames = new ArrayList<>();
+        List<String> queryParameters = new ArrayList<>();
+        var parameters = method.getParameters();
+        for (var i = 0; i < parameters.size(); i++) {
+            var annots = parameters.get(i).getAnnotationMirrors();
+            var name = annots.isEmpty() ? "" : simpleName(annots.get(0));
+            if (name.equals(ANNOT_PARAM_BODY) && bodyIndex == -1) {
+                bodyIndex = i;
+            } else if (name.equals(ANNOT_PARAM_PATH)) {
+                pathNames.add(stringValue(annots.get(0), "value"));
+                pathParameters.add(INVOCATION_PLANS + ".path(" + i + ", "
+                        + literal(stringValue(annots.get(0), "value")) + ")");
+            } else if (name.equals(ANNOT_PARAM_QUERY)) {
+                queryParameters.add(INVOCATION_PLANS + ".query(" + i + ", "
+                        + literal(stringValue(annots.get(0), "value")) + ")");
+            }
+        }
+        for (var pathParam : CommonUtil.findFullMatches(url, Constant.REGEX_PATH_PARAM_URL)) {
+            if (!pathNames.contains(pathParam)) {
+                throw new IllegalStateException("the path param " + pathParam
+                        + " in the url cannot find an annotated argument in the method " + method.getSimpleName());
+            }
+        }
+        var separator = ",\n" + INDENT + INDENT + INDENT;
+        return INVOCATION_PLANS + ".plan(" + literal(simpleName(httpAnnotation)) + ", " + literal(url)
+                + separator + listExpression(headers.stream().map(this::literal).collect(Collectors.toList()))
+                + ", " + multipart + ", " + mediaType + ", " + bodyIndex
+                + separator + listExpression(pathParameters)
+                + separator + listExpression(queryParameters)
+                + separator + returnTypeExpression(declaredType, method, methodAnnotations) + ")";
+    }
+
+    private String returnTypeExpression(DeclaredType declaredType, ExecutableElement method,
+            List<AnnotationMirror> methodAnnotations) {
+        var methodType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+        var returnType = methodType.getReturnType();
+        var streamFormat = findQualified(methodAnnotations, STREAM_FORMAT)
+                .map(annot -> value(annot, "value").getValue().toString())
+                .orElse("SSE");
+        var batched = findQualified(methodAnnotations, BATCHED_STREAM)
+                .map(annot -> INVOCATION_PLANS + ".batched(" + value(annot, "maxSize").getValue() + ", "
+                        + value(annot, "maxDelayMs").getValue() + "L)")
+                .orElse("null");
+        var resumable = findQualified(methodAnnotations, RESUMABLE_STREAM)
+                .map(annot -> INVOCATION_PLANS + ".resumable(" + value(annot, "maxAttempts").getValue() + ")")
+                .orElse("null");
+        return "new " + RETURN_TYPE + "(" + literal(returnType.toString()) + ", "
+                + typeExpression(returnType, new HashSet<>()) + ", " + ANNOTATION_PACKAGE
+                + "StreamFormat.Format." + streamFormat + ", " + classByEventExpression(method) + ", " + batched
+                + ", " + resumable + ")";
+    }
+
+    /**
+     * Source of the Jackson type of a type, resolved as Jackson resolves the generic return type of a
+     * method: wildcards and type variables are replaced by their upper bounds.
+     */
+    private String typeExpression(TypeMirror type, Set<String> typeVariables) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return INVOCATION_PLANS + ".arrayOf("
+                        + typeExpression(((ArrayType) type).getComponentType(), typeVariables) + ")";
+            case DECLARED:
+                var expression = new StringBuilder(INVOCATION_PLANS).append(".type(")
+                        .append(processingEnv.getTypeUtils().erasure(type))
+                        .append(".class");
+                for (var argument : ((DeclaredType) type).getTypeArguments()) {
+                    expression.append(", ").append(typeExpression(argument, typeVariables));
+                }
+                return expression.append(")").toString();
+            case WILDCARD:
+                var extendsBound = ((WildcardType) type).getExtendsBound();
+                return extendsBound != null ? typeExpression(extendsBound, typeVariables) : objectType();
+            case TYPEVAR:
+                // A recursive bound, like T extends Comparable<T>, is not unfolded
+                if (typeVariables.contains(type.toString())) {
+                    return objectType();
+                }
+                var upperBound = ((TypeVariable) type).getUpperBound();
+                if (upperBound.getKind() == TypeKind.INTERSECTION) {
+                    upperBound = ((IntersectionType) upperBound).getBounds().get(0);
+                }
+                var enclosing = new HashSet<>(typeVariables);
+                enclosing.add(type.toString());
+                return typeExpression(upperBound, enclosing);
+            default:
+                if (type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID) {
+                    return INVOCATION_PLANS + ".type(" + type + ".class)";
+                }
+                throw new IllegalStateException("the return type " + type + " cannot be resolved");
+        }
+    }
+
+    private String objectType() {
+        return INVOCATION_PLANS + ".type(java.lang.Object.class)";
+    }
+
+    /**
+     * Source of the classes by event name of the StreamType annotations of the method, which can also
+     * be on another annotation of the method, or null if there are none.
+     */
+    private String classByEventExpression(ExecutableElement method) {
+        var streamTypes = streamTypes(method.getAnnotationMirrors());
+        if (streamTypes.isEmpty()) {
+            for (var annot : method.getAnnotationMirrors()) {
+                var annotationType = annot.getAnnotationType().asElement();
+                if (findQualified(annotationType.getAnnotationMirrors(), STREAM_TYPE_ARRAY).isPresent()) {
+                    streamTypes = streamTypes(annotationType.getAnnotationMirrors());
+                    break;
+                }
+            }
+        }
+        if (streamTypes.isEmpty()) {
+            for (var annot : method.getAnnotationMirrors()) {
+                var annotationType = annot.getAnnotationType().asElement();
+                if (findQualified(annotationType.getAnnotationMirrors(), STREAM_TYPE).isPresent()) {
+                    streamTypes = streamTypes(annotationType.getAnnotationMirrors());
+                    break;
+                }
+            }
+        }
+        if (streamTypes.isEmpty()) {
+            return "null";
+        }
+        Map<String, String> classByEvent = new LinkedHashMap<>();
+        for (var streamType : streamTypes) {
+            var type = processingEnv.getTypeUtils().erasure((TypeMirror) value(streamType, "type").getValue());
+            for (var event : annotationValues(streamType, "events")) {
+                classByEvent.put((String) event.getValue(), type + ".class");
+            }
+        }
+        return classByEvent.entrySet()
+                .stream()
+                .map(entry -> "java.util.Map.entry(" + literal(entry.getKey()) + ", " + entry.getValue() + ")")
+                .collect(Collectors.joining(", ", "java.util.Map.ofEntries(", ")"));
+    }
+
+    private List<AnnotationMirror> streamTypes(List<? extends AnnotationMirror> annotations) {
+        var streamTypeArray = findQualified(annotations, STREAM_TYPE_ARRAY);
+        if (streamTypeArray.isPresent()) {
+            return annotationValues(streamTypeArray.get(), "value").stream()
+                    .map(value -> (AnnotationMirror) value.getValue())
+                    .collect(Collectors.toList());
+        }
+        return findQualified(annotations, STREAM_TYPE).map(List::of).orElse(List.of());
+    }
+
+    /**
+     * Annotations of an element, where the ones holding an array of annotations (like Headers) are
+     * replaced by the annotations of the array.
+     */
+    private List<AnnotationMirror> expand(List<? extends AnnotationMirror> annotations) {
+        List<AnnotationMirror> expanded = new ArrayList<>();
+        for (var annot : annotations) {
+            var values = processingEnv.getElementUtils().getElementValuesWithDefaults(annot).values();
+            var inner = values.stream()
+                    .filter(value -> value.getValue() instanceof List)
+                    .flatMap(value -> ((List<?>) value.getValue()).stream())
+                    .map(value -> ((AnnotationValue) value).getValue())
+                    .filter(AnnotationMirror.class::isInstance)
+                    .map(AnnotationMirror.class::cast)
+                    .collect(Collectors.toList());
+            if (inner.isEmpty()) {
+                expanded.add(annot);
+            } else {
+                expanded.addAll(inner);
+            }
+        }
+        return expanded;
+    }
+
+    private void addHeader(List<String> headers, AnnotationMirror annot) {
+        if (simpleName(annot).equals(ANNOT_HEADER)) {
+            headers.add(stringValue(annot, "name"));
+            headers.add(stringValue(annot, "value"));
+        }
+    }
+
+    private boolean isHttpMethod(AnnotationMirror annot) {
+        return findQualified(annot.getAnnotationType().asElement().getAnnotationMirrors(), HTTP_METHOD)
+                .isPresent();
+    }
+
+    private Optional<AnnotationMirror> findNamed(List<AnnotationMirror> annotations, String name) {
+        return annotations.stream().filter(annot -> simpleName(annot).equals(name)).findFirst();
+    }
+
+    private Optional<AnnotationMirror> findQualified(List<? extends AnnotationMirror> annotations,
+            String qualifiedName) {
+        return annotations.stream()
+                .filter(annot -> ((TypeElement) annot.getAnnotationType().asElement()).getQualifiedName()
+                        .contentEquals(qualifiedName))
+                .map(AnnotationMirror.class::cast)
+                .findFirst();
+    }
+
+    private String simpleName(AnnotationMirror annot) {
+        return annot.getAnnotationType().asElement().getSimpleName().toString();
+    }
+
+    private AnnotationValue value(AnnotationMirror annot, String field) {
+        return processingEnv.getElementUtils()
+                .getElementValuesWithDefaults(annot)
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().getSimpleName().contentEquals(field))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("the annotation " + annot + " has no " + field));
+    }
+
+    private String stringValue(AnnotationMirror annot, String field) {
+        return (String) value(annot, field).getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> annotationValues(AnnotationMirror annot, String field) {
+        return (List<? extends AnnotationValue>) value(annot, field).getValue();
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private String listExpression(List<String> expressions) {
+        return "java.util.List.of(" + String.join(", ", expressions) + ")";
+    }
+
+    private void appendMethod(StringBuilder source, DeclaredType declaredType, ExecutableElement method,
+            int index) {
+        var methodType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+        var parameterTypes = methodType.getParameterTypes();
+        var returnType = methodType.getReturnType();
+
+        source.append("\n").append(INDENT).append("@Override\n").append(INDENT).append("public ");
+        if (!method.getTypeParameters().isEmpty()) {
+            source.append(method.getTypeParameters()
+                    .stream()
+                    .map(this::typeParameterDeclaration)
+                    .collect(Collectors.joining(", ", "<", "> ")));
+        }
+        source.append(returnType).append(" ").append(method.getSimpleName()).append("(");
+        for (var i = 0; i < parameterTypes.size(); i++) {
+            var parameterType = parameterTypes.get(i).toString();
+            if (method.isVarArgs() && i == parameterTypes.size() - 1) {
+                parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+            }
+            source.append(i > 0 ? ", " : "").append(parameterType).append(" arg").append(i);
+        }
+        source.append(")");
+        if (!methodType.getThrownTypes().isEmpty()) {
+            source.append(methodType.getThrownTypes()
+                    .stream()
+                    .map(TypeMirror::toString)
+                    .collect(Collectors.joining(", ", " throws ", "")));
+        }
+        source.append(" {\n").append(INDENT).append(INDENT);
+        var invocation = "httpProcessor.dispatch(PLAN_" + index + ", new Object[] { "
+                + String.join(", ", argumentNames(parameterTypes.size())) + " })";
+        if (returnType.getKind() == TypeKind.VOID) {
+            source.append(invocation).append(";\n");
+        } else {
+            source.append("return (").append(returnType).append(") ").append(invocation).append(";\n");
+        }
+        source.append(INDENT).append("}\n");
+    }
+
+    private String typeParameterDeclaration(TypeParameterElement typeParameter) {
+        var bounds = typeParameter.getBounds()
+                .stream()
+                .map(TypeMirror::toString)
+                .filter(bound -> !bound.equals("java.lang.Object"))
+                .collect(Collectors.joining(" & "));
+        return typeParameter.getSimpleName() + (bounds.isEmpty() ? "" : " extends " + bounds);
+    }
+
+    private List<String> argumentNames(int size) {
+        List<String> names = new ArrayList<>();
+        for (var i = 0; i < size; i++) {
+            names.add("arg" + i);
+        }
+        return names;
+    }
+
+}
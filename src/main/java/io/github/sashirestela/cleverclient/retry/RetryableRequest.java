@@ -82,7 +82,18 @@ public class RetryableRequest {
         });
     }
 
-    private boolean isRetryable(Throwable exception) {
+    public RetryConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Whether a failure can be retried: its cause is one of the retryable exceptions, or its response
+     * has one of the retryable status codes.
+     *
+     * @param exception The failure.
+     * @return True if it can be retried.
+     */
+    public boolean isRetryable(Throwable exception) {
         exception = (exception instanceof CompletionException) ? exception.getCause() : exception;
         if (exception == null)
             return false;
@@ -101,8 +112,20 @@ public class RetryableRequest {
     }
 
     private long calculateDelayWithJitter(int attempt) {
+        return calculateDelayWithJitter(attempt, config.getInitialDelayMs());
+    }
+
+    /**
+     * Delay before an attempt, growing from an initial delay with the backoff multiplier and the jitter
+     * of the configuration, up to its maximum delay.
+     *
+     * @param attempt        The number of the failed attempt, starting at 1.
+     * @param initialDelayMs The delay after the first failed attempt.
+     * @return The delay in milliseconds.
+     */
+    public long calculateDelayWithJitter(int attempt, long initialDelayMs) {
         double multiplier = Math.pow(config.getBackoffMultiplier(), attempt - 1.0);
-        long baseDelay = (long) (config.getInitialDelayMs() * multiplier);
+        long baseDelay = (long) (initialDelayMs * multiplier);
         baseDelay = Math.min(baseDelay, config.getMaxDelayMs());
         if (config.getJitterFactor() > 0) {
             long jitterRange = (long) (baseDelay * config.getJitterFactor());
@@ -3,6 +3,12 @@ package io.github.sashirestela.cleverclient.support;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Line-pair matcher of server sent events, superseded by EventStreamParser.
+ *
+ * @deprecated It only reads single-line data fields written as "data: "; use EventStreamParser.
+ */
+@Deprecated
 public class CleverClientSSE {
 
     private static final String EVENT_HEADER = "event: ";
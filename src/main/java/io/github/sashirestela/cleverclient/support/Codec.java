@@ -0,0 +1,77 @@
+package io.github.sashirestela.cleverclient.support;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Encodes the request bodies and decodes the responses of a media type. The client has a default
+ * codec (Json) and an interface or a method can choose another one by its media type with the
+ * MediaType annotation. The media type is sent as Content-Type of the bodies and, for non-Json
+ * codecs, as Accept. Server sent events are always read as Json text.
+ */
+public interface Codec {
+
+    /**
+     * The media type of the encoded content, e.g. application/json.
+     *
+     * @return The media type.
+     */
+    String getMediaType();
+
+    /**
+     * Encodes the object as the body of a request.
+     *
+     * @param object The object to encode.
+     * @return The encoded bytes.
+     */
+    byte[] encode(Object object);
+
+    /**
+     * Decodes the bytes of a response.
+     *
+     * @param <T>      Type of the object.
+     * @param content  The bytes of the response.
+     * @param javaType The Jackson type to decode to.
+     * @return The decoded object.
+     */
+    <T> T decode(byte[] content, JavaType javaType);
+
+    /**
+     * Decodes a response that was replaced as text by a response interceptor.
+     *
+     * @param <T>      Type of the object.
+     * @param content  The text of the response.
+     * @param javaType The Jackson type to decode to.
+     * @return The decoded object.
+     */
+    <T> T decode(String content, JavaType javaType);
+
+    /**
+     * Binds a decoder to a type, so the items of a stream of that type are decoded without looking up
+     * the type again. By default it calls decode(byte[], JavaType).
+     *
+     * @param javaType The Jackson type to decode to.
+     * @return A function decoding the bytes of an item.
+     */
+    default Function<byte[], Object> decoderFor(JavaType javaType) {
+        return content -> decode(content, javaType);
+    }
+
+    /**
+     * Decodes the values of a response one by one, as they are read from the input.
+     *
+     * @param input         The response.
+     * @param javaType      The Jackson type of each value.
+     * @param arrayElements Whether the values are the elements of a top-level array, or a sequence of
+     *                      root values.
+     * @return An iterator of the values.
+     * @throws IOException If the input cannot be read.
+     */
+    MappingIterator<Object> decodeValues(InputStream input, JavaType javaType, boolean arrayElements)
+            throws IOException;
+
+}
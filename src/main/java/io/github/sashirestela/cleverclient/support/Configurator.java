@@ -2,48 +2,47 @@ package io.github.sashirestela.cleverclient.support;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.sashirestela.cleverclient.util.JsonUtil;
-import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Singular;
 
 import java.util.List;
-
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Global settings of JsonUtil and the deprecated CleverClientSSE. Only the first one built is kept,
+ * and it is immutable and safely published, so it can be read from any thread. The clients do not
+ * depend on it: each one uses its own object mapper and ends of stream.
+ */
 @Getter
 public class Configurator {
 
-    private static Configurator configurator = new Configurator();
-
-    private List<String> endsOfStream;
-    private ObjectMapper objectMapper;
+    private static final AtomicReference<Configurator> configurator = new AtomicReference<>();
 
-    @Getter(AccessLevel.NONE)
-    private boolean wasBuilt = false;
-
-    private Configurator() {
-    }
+    private final List<String> endsOfStream;
+    private final ObjectMapper objectMapper;
 
     @Builder
     public Configurator(@Singular("endOfStream") List<String> endsOfStream, ObjectMapper objectMapper) {
-        if (configurator.wasBuilt) {
-            return;
+        this.endsOfStream = List.copyOf(Optional.ofNullable(endsOfStream).orElse(List.of()));
+        this.objectMapper = objectMapper;
+        if (configurator.compareAndSet(null, this)) {
+            JsonUtil.updateObjectMapper(objectMapper);
         }
-        configurator.endsOfStream = endsOfStream;
-        configurator.objectMapper = objectMapper;
-        JsonUtil.updateObjectMapper(objectMapper);
-        configurator.wasBuilt = true;
     }
 
     public static Configurator one() {
-        if (!configurator.wasBuilt) {
+        var current = configurator.get();
+        if (current == null) {
             throw new CleverClientException("You have to call Configurator.builder() first.");
         }
-        return configurator;
+        return current;
     }
 
     // For testing purpouse only
     public static void reset() {
-        configurator.wasBuilt = false;
+        configurator.set(null);
     }
 
 }
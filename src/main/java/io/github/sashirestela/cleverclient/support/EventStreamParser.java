@@ -0,0 +1,264 @@
+package io.github.sashirestela.cleverclient.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * State machine for the text/event-stream format (WHATWG HTML, server-sent events). It is fed one
+ * line at a time and dispatches a complete event (name, id and data) on each blank line: data fields
+ * of several lines are joined with line feeds, the single space after the colon is removed, comments
+ * are skipped and the id and retry fields are kept across events. An event that is not closed by a
+ * blank line when the response ends is discarded. Only the data of an event is allocated; the field
+ * names are matched in place and the event names are resolved to the known instances. Lines are fed
+ * as ranges of UTF-8 bytes and the data is kept as bytes, so nothing is decoded to text. An instance
+ * parses one response and it is not thread-safe.
+ */
+public final class EventStreamParser {
+
+    /**
+     * Name of the events without an event field.
+     */
+    public static final String UNNAMED = "";
+
+    /**
+     * Type of the events without an event field, as the spec says.
+     */
+    public static final String MESSAGE = "message";
+
+    private static final String FIELD_EVENT = "event";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_RETRY = "retry";
+    private static final int INITIAL_DATA_CAPACITY = 256;
+
+    private final byte[][] endsOfStreamBytes;
+    private final EventTypeTable eventTypes;
+    private final int messageType;
+
+    private byte[] dataBytesBuffer;
+    private int dataBytesLength;
+
+    private int dataLines;
+    private String pendingName = UNNAMED;
+    private int pendingType = -1;
+    private String lastEventId = "";
+    private long retry = -1;
+
+    private String name;
+    private int type;
+    private byte[] dataBytes;
+
+    /**
+     * Creates a parser for a response.
+     *
+     * @param endsOfStream Texts that mark the end of the stream: events whose data contains one of
+     *                     them are not dispatched.
+     * @param eventTypes   Event names that are expected, resolved with one lookup and without
+     *                     allocating. Others are still dispatched.
+     */
+    public EventStreamParser(List<String> endsOfStream, EventTypeTable eventTypes) {
+        this.endsOfStreamBytes = endsOfStream.stream()
+                .map(eos -> eos.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        this.eventTypes = eventTypes;
+        this.messageType = eventTypes.indexOf(MESSAGE);
+    }
+
+    /**
+     * Processes a line given as a range of UTF-8 bytes, without its line terminator. The bytes are
+     * only read during the call, so the caller can reuse the array.
+     *
+     * @param bytes The array holding the line.
+     * @param start The index of the first byte of the line.
+     * @param end   The index after the last byte of the line.
+     * @return True if the line completed an event, which is available through getName() and
+     *         getDataBytes() until the next call.
+     */
+    public boolean feed(byte[] bytes, int start, int end) {
+        if (start == end) {
+            return dispatch();
+        }
+        if (bytes[start] == ':') {
+            return false;
+        }
+        var colon = indexOf(bytes, start, end, (byte) ':');
+        var fieldEnd = colon < 0 ? end : colon;
+        var valueStart = colon < 0 ? end : colon + 1;
+        if (valueStart < end && bytes[valueStart] == ' ') {
+            valueStart++;
+        }
+        if (isField(bytes, start, fieldEnd, FIELD_DATA)) {
+            appendData(bytes, valueStart, end);
+        } else if (isField(bytes, start, fieldEnd, FIELD_EVENT)) {
+            resolveEvent(bytes, valueStart, end);
+        } else if (isField(bytes, start, fieldEnd, FIELD_ID)) {
+            if (indexOf(bytes, valueStart, end, (byte) 0) < 0) {
+                lastEventId = new String(bytes, valueStart, end - valueStart, StandardCharsets.UTF_8);
+            }
+        } else if (isField(bytes, start, fieldEnd, FIELD_RETRY)) {
+            updateRetry(bytes, valueStart, end);
+        }
+        return false;
+    }
+
+    /**
+     * Discards the last event if the response ended without a blank line after it, as the spec says
+     * for the end of the stream.
+     */
+    public void finish() {
+        pendingName = UNNAMED;
+        pendingType = -1;
+        dataBytesLength = 0;
+        dataLines = 0;
+    }
+
+    /**
+     * Name of the dispatched event.
+     *
+     * @return The value of its event field, or UNNAMED if it has none.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Type of the dispatched event, resolved when its event field was parsed. Events without an event
+     * field have the type of the MESSAGE name.
+     *
+     * @return The index of its name in the EventTypeTable, or -1 if the name is unknown.
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Data of the dispatched event as UTF-8 bytes.
+     *
+     * @return The data lines joined with line feeds.
+     */
+    public byte[] getDataBytes() {
+        return dataBytes;
+    }
+
+    /**
+     * Last event id received in the response, kept across events as the spec says.
+     *
+     * @return The last id, or an empty String if none was received.
+     */
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Reconnection time sent by the server.
+     *
+     * @return The time in milliseconds, or -1 if none was received.
+     */
+    public long getRetry() {
+        return retry;
+    }
+
+    private static boolean isField(byte[] bytes, int start, int fieldEnd, String field) {
+        if (fieldEnd - start != field.length()) {
+            return false;
+        }
+        for (var i = 0; i < field.length(); i++) {
+            if (bytes[start + i] != field.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int start, int end, byte value) {
+        for (var i = start; i < end; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] bytes, int start, int end, byte[] other) {
+        return end - start == other.length && Arrays.equals(bytes, start, end, other, 0, other.length);
+    }
+
+    private void appendData(byte[] bytes, int valueStart, int end) {
+        var length = end - valueStart;
+        if (dataBytesBuffer == null) {
+            dataBytesBuffer = new byte[Math.max(INITIAL_DATA_CAPACITY, length + 1)];
+        }
+        var required = dataBytesLength + length + 1;
+        if (required > dataBytesBuffer.length) {
+            dataBytesBuffer = Arrays.copyOf(dataBytesBuffer, Math.max(required, dataBytesBuffer.length * 2));
+        }
+        if (dataLines > 0) {
+            dataBytesBuffer[dataBytesLength++] = '\n';
+        }
+        System.arraycopy(bytes, valueStart, dataBytesBuffer, dataBytesLength, length);
+        dataBytesLength += length;
+        dataLines++;
+    }
+
+    private void resolveEvent(byte[] bytes, int valueStart, int end) {
+        pendingType = eventTypes.indexOf(bytes, valueStart, end);
+        if (pendingType >= 0) {
+            pendingName = eventTypes.getName(pendingType);
+        } else if (valueStart == end) {
+            pendingName = UNNAMED;
+        } else {
+            pendingName = new String(bytes, valueStart, end - valueStart, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void updateRetry(byte[] bytes, int valueStart, int end) {
+        if (valueStart == end) {
+            return;
+        }
+        long value = 0;
+        for (var i = valueStart; i < end; i++) {
+            var b = bytes[i];
+            if (b < '0' || b > '9' || value > (Long.MAX_VALUE - (b - '0')) / 10) {
+                return;
+            }
+            value = value * 10 + (b - '0');
+        }
+        retry = value;
+    }
+
+    private boolean dispatch() {
+        if (dataLines == 0) {
+            pendingName = UNNAMED;
+            pendingType = -1;
+            return false;
+        }
+        name = pendingName;
+        type = pendingName.isEmpty() ? messageType : pendingType;
+        pendingName = UNNAMED;
+        pendingType = -1;
+        dataBytes = Arrays.copyOf(dataBytesBuffer, dataBytesLength);
+        dataBytesLength = 0;
+        dataLines = 0;
+        return !isEndOfStream(dataBytes);
+    }
+
+    private boolean isEndOfStream(byte[] eventData) {
+        for (var endOfStream : endsOfStreamBytes) {
+            if (contains(eventData, endOfStream)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(byte[] bytes, byte[] target) {
+        for (var i = 0; i <= bytes.length - target.length; i++) {
+            if (regionMatches(bytes, i, i + target.length, target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,130 @@
+package io.github.sashirestela.cleverclient.support;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Event names of a method compiled into an open-addressing hash table keyed by their UTF-8 bytes, so
+ * the name of an event is resolved straight from the bytes of the response with one hash and
+ * usually one comparison, whatever the number of events. Each name is bound to the index used to
+ * route the event and to the Jackson type of its data. It is built once per return type and it is
+ * immutable.
+ */
+public final class EventTypeTable {
+
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final String[] names;
+    private final byte[][] keys;
+    private final JavaType[] javaTypes;
+    private final int[] slots;
+    private final int mask;
+    private final Map<String, Integer> indexByName;
+
+    private EventTypeTable(Map<String, JavaType> typeByName) {
+        var size = typeByName.size();
+        this.names = typeByName.keySet().toArray(new String[0]);
+        this.javaTypes = typeByName.values().toArray(new JavaType[0]);
+        this.keys = new byte[size][];
+        this.indexByName = new HashMap<>();
+        // Power of two with a load factor of at most one half, so probe sequences stay short
+        var capacity = Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (var i = 0; i < size; i++) {
+            keys[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            indexByName.put(names[i], i);
+            var slot = hash(keys[i], 0, keys[i].length) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Compiles the events of the StreamType annotations of a method.
+     *
+     * @param classByEvent The class of the data of every event name.
+     * @return The table of the events.
+     */
+    public static EventTypeTable of(Map<String, Class<?>> classByEvent) {
+        Map<String, JavaType> typeByName = new LinkedHashMap<>();
+        classByEvent.forEach((name, clazz) -> typeByName.put(name, TypeFactory.defaultInstance().constructType(clazz)));
+        return new EventTypeTable(typeByName);
+    }
+
+    /**
+     * Compiles a single event name.
+     *
+     * @param name     The event name.
+     * @param javaType The Jackson type of its data.
+     * @return The table of the event.
+     */
+    public static EventTypeTable of(String name, JavaType javaType) {
+        Map<String, JavaType> typeByName = new LinkedHashMap<>();
+        typeByName.put(name, javaType);
+        return new EventTypeTable(typeByName);
+    }
+
+    /**
+     * Finds the event whose name is the range of UTF-8 bytes.
+     *
+     * @param bytes The array holding the name.
+     * @param start The index of the first byte of the name.
+     * @param end   The index after the last byte of the name.
+     * @return The index of the event, or -1 if it is unknown.
+     */
+    public int indexOf(byte[] bytes, int start, int end) {
+        var slot = hash(bytes, start, end) & mask;
+        var entry = slots[slot];
+        while (entry != 0) {
+            var key = keys[entry - 1];
+            if (Arrays.equals(bytes, start, end, key, 0, key.length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+            entry = slots[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the event by its name.
+     *
+     * @param name The event name.
+     * @return The index of the event, or -1 if it is unknown.
+     */
+    public int indexOf(String name) {
+        var index = indexByName.get(name);
+        return index != null ? index : -1;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public JavaType getJavaType(int index) {
+        return javaTypes[index];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        var hash = FNV_OFFSET_BASIS;
+        for (var i = start; i < end; i++) {
+            hash = (hash ^ (bytes[i] & 0xFF)) * FNV_PRIME;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+}
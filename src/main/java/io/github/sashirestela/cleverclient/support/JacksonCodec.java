@@ -0,0 +1,183 @@
+package io.github.sashirestela.cleverclient.support;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Codec backed by a Jackson object mapper, so any Jackson data format can be plugged in: Json, Smile,
+ * CBOR or third-party factories like MessagePack. The Smile and CBOR factories are optional
+ * dependencies. Each codec owns its mapper and its readers, so clients with different mappers do not
+ * affect each other.
+ */
+public class JacksonCodec implements Codec {
+
+    public static final String JSON = "application/json";
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+
+    private static final JacksonCodec JSON_CODEC = new JacksonCodec(JSON, new ObjectMapper());
+
+    private final String mediaType;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader objectReader;
+    private final Map<JavaType, ObjectReader> readersByType;
+
+    /**
+     * Creates a codec for the media type with its own object mapper.
+     *
+     * @param mediaType    The media type of the content, e.g. application/cbor.
+     * @param objectMapper The object mapper built with the factory of the data format.
+     */
+    public JacksonCodec(String mediaType, ObjectMapper objectMapper) {
+        if (objectMapper == null) {
+            throw new CleverClientException("The object mapper of the codec {0} cannot be null.", mediaType, null);
+        }
+        this.mediaType = mediaType;
+        this.objectMapper = objectMapper;
+        this.objectReader = objectMapper.reader()
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.readersByType = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A shared Json codec through a default object mapper. CleverClient does not use it: each client
+     * has a Json codec through its own object mapper (see json(ObjectMapper)).
+     *
+     * @return The Json codec.
+     */
+    public static JacksonCodec json() {
+        return JSON_CODEC;
+    }
+
+    /**
+     * A Json codec of its own, through the given object mapper.
+     *
+     * @param objectMapper The object mapper of the codec.
+     * @return The Json codec.
+     */
+    public static JacksonCodec json(ObjectMapper objectMapper) {
+        return new JacksonCodec(JSON, objectMapper);
+    }
+
+    public static JacksonCodec smile() {
+        return new JacksonCodec(SMILE, new ObjectMapper(new SmileFactory()));
+    }
+
+    public static JacksonCodec cbor() {
+        return new JacksonCodec(CBOR, new ObjectMapper(new CBORFactory()));
+    }
+
+    @Override
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public byte[] encode(Object object) {
+        try {
+            return objectMapper.writeValueAsBytes(object);
+        } catch (JsonProcessingException e) {
+            throw new CleverClientException("Cannot encode the object {0} as {1}.", object, mediaType, e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] content, JavaType javaType) {
+        try {
+            return readerFor(javaType).readValue(content);
+        } catch (IOException e) {
+            throw new CleverClientException("Cannot decode the {0} content to type {1}.", mediaType, javaType, e);
+        }
+    }
+
+    @Override
+    public <T> T decode(String content, JavaType javaType) {
+        try {
+            return readerFor(javaType).readValue(content);
+        } catch (IOException e) {
+            throw new CleverClientException("Cannot decode the {0} content to type {1}.", mediaType, javaType, e);
+        }
+    }
+
+    @Override
+    public Function<byte[], Object> decoderFor(JavaType javaType) {
+        final var reader = readerFor(javaType);
+        return content -> {
+            try {
+                return reader.readValue(content);
+            } catch (IOException e) {
+                throw new CleverClientException("Cannot decode the {0} content to type {1}.", mediaType, javaType, e);
+            }
+        };
+    }
+
+    @Override
+    public MappingIterator<Object> decodeValues(InputStream input, JavaType javaType, boolean arrayElements)
+            throws IOException {
+        var reader = readerFor(javaType);
+        // A parser that is not advanced yet keeps a top-level array as one value instead of unwrapping it
+        return arrayElements ? reader.readValues(input) : reader.readValues(reader.createParser(input));
+    }
+
+    /**
+     * Converts the object to a Map of its properties, as it is done for multipart bodies and Query
+     * objects.
+     *
+     * @param object The object to convert.
+     * @return The Map of properties.
+     */
+    public Map<String, Object> convertToMap(Object object) {
+        try {
+            return objectMapper.convertValue(object, new TypeReference<>() {
+            });
+        } catch (IllegalArgumentException e) {
+            throw new CleverClientException("Cannot convert object {0} to Map.", object, e);
+        }
+    }
+
+    /**
+     * Returns the reader bound to the type, created once per type.
+     *
+     * @param javaType The Jackson type to read.
+     * @return The reader for that type.
+     */
+    public ObjectReader readerFor(JavaType javaType) {
+        var reader = readersByType.get(javaType);
+        if (reader == null) {
+            reader = readersByType.computeIfAbsent(javaType, objectReader::forType);
+        }
+        return reader;
+    }
+
+    /**
+     * Creates a non-blocking parser fed with ByteBuffers, to parse the responses while they arrive.
+     *
+     * @return The parser, or null if the factory of the data format does not support it.
+     */
+    public JsonParser createNonBlockingParser() {
+        var factory = objectMapper.getFactory();
+        if (!factory.canParseAsync()) {
+            return null;
+        }
+        try {
+            return factory.createNonBlockingByteBufferParser();
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package io.github.sashirestela.cleverclient.support;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Body encoded by a codec and kept as bytes: requests are serialized straight to bytes that are
+ * handed to the http client without copying, and responses are read as bytes that are handed straight
+ * to the codec. The body keeps the media type of its codec. For textual formats like Json, the String
+ * view is the UTF-8 text, decoded only when someone asks for it (an interceptor, an error or a log)
+ * and cached afterwards. Binary formats like Smile or CBOR are not text, so their String view only
+ * tells their length and media type.
+ */
+public final class JsonBody {
+
+    private final byte[] bytes;
+    private final String mediaType;
+    private volatile String text;
+
+    public JsonBody(byte[] bytes) {
+        this(bytes, JacksonCodec.JSON);
+    }
+
+    public JsonBody(byte[] bytes, String mediaType) {
+        this.bytes = bytes;
+        this.mediaType = mediaType;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * Tells whether the bytes are text, as for Json and the other textual media types.
+     *
+     * @return True for Json, any media type ending in +json and the text ones.
+     */
+    public boolean isTextual() {
+        return mediaType.equals(JacksonCodec.JSON) || mediaType.endsWith("+json") || mediaType.startsWith("text/");
+    }
+
+    /**
+     * Tells whether the body has no content. A textual body made of whitespace has none either, but the
+     * whitespace bytes of a binary body are values.
+     *
+     * @return True if there is no content.
+     */
+    public boolean isBlank() {
+        if (!isTextual()) {
+            return bytes.length == 0;
+        }
+        for (var b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the object is the String view of this body, which means it was read but not
+     * replaced.
+     *
+     * @param object The body read back from an interceptor.
+     * @return True if it is the same String instance that this body returned.
+     */
+    public boolean isViewOf(Object object) {
+        return object != null && object == text;
+    }
+
+    /**
+     * The String view of the body.
+     *
+     * @return The text of a textual body, or the length and the media type of a binary one.
+     */
+    @Override
+    public String toString() {
+        var result = text;
+        if (result == null) {
+            result = isTextual() ? new String(bytes, StandardCharsets.UTF_8)
+                    : "(" + bytes.length + " bytes of " + mediaType + ")";
+            text = result;
+        }
+        return result;
+    }
+
+}
@@ -1,47 +1,169 @@
 package io.github.sashirestela.cleverclient.support;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.github.sashirestela.cleverclient.Event;
+import io.github.sashirestela.cleverclient.annotation.BatchedStream;
+import io.github.sashirestela.cleverclient.annotation.ResumableStream;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat.Format;
 import io.github.sashirestela.cleverclient.annotation.StreamType;
 import io.github.sashirestela.cleverclient.annotation.StreamType.StreamTypeArray;
 
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * Return type of an interface method. It is built from the generic return type of the method as a
+ * Jackson JavaType tree, and it is classified once: whether it is asynchronous, its Category and the
+ * JavaType used to deserialize the Json response. Besides classes, lists and custom generics, any
+ * Json shape is supported, like maps, arrays, nested generics or a top-level Optional. A
+ * Flow.Publisher of server sent events is asynchronous and it is handled as a stream.
+ */
 public class ReturnType {
 
-    private static final String ASYNC = "java.util.concurrent.CompletableFuture";
-    private static final String STREAM = "java.util.stream.Stream";
-    private static final String LIST = "java.util.List";
-    private static final String INPUTSTREAM = "java.io.InputStream";
-    private static final String STRING = "java.lang.String";
-    private static final String EVENT = "io.github.sashirestela.cleverclient.Event";
-
-    private static final String REGEX = "[<>]";
-    private static final String JAVA_PCK = "java";
-
-    private String fullClassName;
-    private String[] returnTypeArray;
-    private int size;
-    private int firstIndex;
-    private int lastIndex;
-    private int prevLastIndex;
+    private final String fullClassName;
+    private final boolean async;
+    private final boolean publisher;
+    private final boolean stream;
+    private final Format streamFormat;
+    private final boolean inputStream;
+    private final boolean optional;
+    private final boolean json;
+    private final Category category;
+    private final JavaType javaType;
+    private final Class<?> baseClass;
+    private final Class<?> genericClass;
     private Map<String, Class<?>> classByEvent;
+    private EventTypeTable eventTypes;
+    private ResumableStream resumable;
+    private final BatchedStream batched;
 
     public ReturnType(String fullClassName) {
-        this.fullClassName = fullClassName;
-        returnTypeArray = fullClassName.split(REGEX, 0);
-        size = returnTypeArray.length;
-        firstIndex = 0;
-        lastIndex = size - 1;
-        prevLastIndex = lastIndex - 1;
+        this(fullClassName, TypeFactory.defaultInstance().constructFromCanonical(fullClassName), Format.SSE, null);
+        compileEventTypes();
     }
 
     public ReturnType(Method method) {
-        this(method.getGenericReturnType().getTypeName());
+        this(method.getGenericReturnType().getTypeName(),
+                TypeFactory.defaultInstance().constructType(method.getGenericReturnType()),
+                method.isAnnotationPresent(StreamFormat.class) ? method.getAnnotation(StreamFormat.class).value()
+                        : Format.SSE,
+                method.getAnnotation(BatchedStream.class));
         setClassByEventIfExists(method);
+        compileEventTypes();
+        setResumableIfStream(method.getAnnotation(ResumableStream.class));
+    }
+
+    /**
+     * Return type of a method given by the values of its annotations, as the classes generated at build
+     * time do (see ResourceProcessor), so the method is not read by reflection.
+     *
+     * @param fullClassName Name of the generic return type.
+     * @param fullType      Jackson type of the generic return type.
+     * @param streamFormat  Value of the StreamFormat annotation.
+     * @param classByEvent  Classes of the StreamType annotations by event name, or null.
+     * @param batched       The BatchedStream annotation, or null.
+     * @param resumable     The ResumableStream annotation, or null.
+     */
+    public ReturnType(String fullClassName, JavaType fullType, Format streamFormat,
+            Map<String, Class<?>> classByEvent, BatchedStream batched, ResumableStream resumable) {
+        this(fullClassName, fullType, streamFormat, batched);
+        this.classByEvent = classByEvent;
+        compileEventTypes();
+        setResumableIfStream(resumable);
+    }
+
+    private ReturnType(String fullClassName, JavaType fullType, Format streamFormat, BatchedStream batched) {
+        this.fullClassName = fullClassName;
+        this.publisher = fullType.hasRawClass(Flow.Publisher.class);
+        this.async = publisher || fullType.hasRawClass(CompletableFuture.class);
+        var type = async && !publisher ? fullType.containedTypeOrUnknown(0) : fullType;
+        this.stream = publisher || type.hasRawClass(Stream.class);
+        this.streamFormat = streamFormat;
+        this.optional = type.hasRawClass(Optional.class);
+        var itemType = stream || optional ? type.containedTypeOrUnknown(0) : type;
+        // The items of a batched stream are Lists of events, so each event is of the type of the elements
+        this.batched = stream && !publisher && streamFormat == Format.SSE && itemType.hasRawClass(List.class)
+                ? batched
+                : null;
+        var valueType = this.batched != null ? itemType.containedTypeOrUnknown(0) : itemType;
+        this.inputStream = valueType.hasRawClass(InputStream.class);
+        var kind = classify(type, valueType);
+        this.category = kind != null ? kind.category(async) : null;
+        this.json = kind == Kind.JSON_CUSTOM || kind == Kind.JSON_LIST || kind == Kind.JSON_GENERIC;
+        this.javaType = json || kind == Kind.STREAM || kind == Kind.STREAM_JSON_ARRAY || kind == Kind.STREAM_NDJSON
+                || kind == Kind.PUBLISHER ? valueType : null;
+        this.baseClass = findBaseClass(valueType);
+        this.genericClass = valueType.containedTypeCount() > 0 ? valueType.getRawClass() : null;
+    }
+
+    private Kind classify(JavaType type, JavaType valueType) {
+        if (isUnsupported(valueType)) {
+            return null;
+        }
+        if (stream) {
+            return classifyStream(valueType);
+        } else if (!optional && valueType.hasRawClass(InputStream.class)) {
+            return Kind.BINARY;
+        } else if (!optional && valueType.hasRawClass(String.class)) {
+            return Kind.PLAIN_TEXT;
+        } else if (valueType.hasRawClass(List.class)) {
+            return Kind.JSON_LIST;
+        } else if (valueType.containedTypeCount() > 0 || valueType.isArrayType()) {
+            return Kind.JSON_GENERIC;
+        } else if (valueType.hasRawClass(Event.class) || type.isPrimitive()) {
+            return null;
+        } else {
+            return Kind.JSON_CUSTOM;
+        }
+    }
+
+    private Kind classifyStream(JavaType valueType) {
+        var isEvent = valueType.hasRawClass(Event.class);
+        if (publisher) {
+            if (streamFormat != Format.SSE) {
+                return null;
+            }
+            return isEvent ? Kind.PUBLISHER_EVENT : Kind.PUBLISHER;
+        }
+        switch (streamFormat) {
+            case JSON_ARRAY:
+                return isEvent ? null : Kind.STREAM_JSON_ARRAY;
+            case NDJSON:
+                return isEvent ? null : Kind.STREAM_NDJSON;
+            default:
+                return isEvent ? Kind.STREAM_EVENT : Kind.STREAM;
+        }
+    }
+
+    private boolean isUnsupported(JavaType valueType) {
+        var isWrapper = valueType.hasRawClass(CompletableFuture.class) || valueType.hasRawClass(Stream.class)
+                || valueType.hasRawClass(Optional.class) || valueType.hasRawClass(Flow.Publisher.class);
+        var isRawInStream = stream && valueType.hasRawClass(InputStream.class);
+        var isRawInOptional = optional
+                && (valueType.hasRawClass(InputStream.class) || valueType.hasRawClass(String.class));
+        return isWrapper || isRawInStream || isRawInOptional;
+    }
+
+    private static Class<?> findBaseClass(JavaType type) {
+        var baseType = type;
+        while (baseType.containedTypeCount() > 0) {
+            baseType = baseType.containedType(baseType.containedTypeCount() - 1);
+        }
+        while (baseType.isArrayType()) {
+            baseType = baseType.getContentType();
+        }
+        return baseType.getRawClass();
     }
 
     private void setClassByEventIfExists(Method method) {
@@ -71,6 +193,23 @@ public class ReturnType {
         }
     }
 
+    private void compileEventTypes() {
+        if (category == Category.SYNC_STREAM_EVENT || category == Category.ASYNC_STREAM_EVENT
+                || category == Category.PUBLISHER_EVENT) {
+            this.eventTypes = EventTypeTable.of(classByEvent != null ? classByEvent : Map.of());
+        } else if (category == Category.SYNC_STREAM || category == Category.ASYNC_STREAM
+                || category == Category.PUBLISHER) {
+            this.eventTypes = EventTypeTable.of(EventStreamParser.MESSAGE, javaType);
+        }
+    }
+
+    private void setResumableIfStream(ResumableStream resumable) {
+        if (category == Category.SYNC_STREAM || category == Category.ASYNC_STREAM
+                || category == Category.SYNC_STREAM_EVENT || category == Category.ASYNC_STREAM_EVENT) {
+            this.resumable = resumable;
+        }
+    }
+
     private Optional<? extends Annotation> getInnerAnnotationIfExists(Method method,
             Class<? extends Annotation> clazz) {
         return Arrays.stream(method.getDeclaredAnnotations())
@@ -98,120 +237,147 @@ public class ReturnType {
         return this.classByEvent;
     }
 
-    public Class<?> getBaseClass() {
-        return getClass(lastIndex);
+    /**
+     * Event names of the server sent events categories compiled with the type of their data: the
+     * StreamType annotations for the Event categories, or the MESSAGE name with the item type
+     * otherwise.
+     *
+     * @return The table of the events, or null for other categories.
+     */
+    public EventTypeTable getEventTypes() {
+        return eventTypes;
     }
 
-    public Class<?> getGenericClassIfExists() {
-        return isGeneric() ? getClass(prevLastIndex) : null;
+    /**
+     * The BatchedStream annotation of a method that returns a Stream of List of server sent events.
+     * Then the JavaType and the Category are the ones of the elements of the List.
+     *
+     * @return The annotation, or null if the events are not batched or the return type is another one.
+     */
+    public BatchedStream getBatched() {
+        return batched;
     }
 
-    private Class<?> getClass(int index) {
-        Class<?> clazz = null;
-        try {
-            clazz = Class.forName(returnTypeArray[index]);
-        } catch (ClassNotFoundException e) {
-            // This shouldn't happen
-        }
-        return clazz;
+    /**
+     * The ResumableStream annotation of a method that returns a Stream of server sent events.
+     *
+     * @return The annotation, or null if the events are not resumed or the return type is another one.
+     */
+    public ResumableStream getResumable() {
+        return resumable;
     }
 
-    public Category category() {
-        if (isAsync()) {
-            return asyncCategory();
-        } else {
-            return syncCategory();
-        }
+    /**
+     * Innermost class of the value type, for example: Foo for List&lt;Foo&gt; or Map&lt;String,
+     * List&lt;Foo&gt;&gt;.
+     *
+     * @return The innermost class.
+     */
+    public Class<?> getBaseClass() {
+        return baseClass;
     }
 
-    private Category asyncCategory() {
-        if (isStream()) {
-            if (isEvent()) {
-                return Category.ASYNC_STREAM_EVENT;
-            } else {
-                return Category.ASYNC_STREAM;
-            }
-        } else if (isList()) {
-            return Category.ASYNC_LIST;
-        } else if (isGeneric()) {
-            return Category.ASYNC_GENERIC;
-        } else if (isCustom()) {
-            return Category.ASYNC_CUSTOM;
-        } else if (isBinary()) {
-            return Category.ASYNC_BINARY;
-        } else if (isPlainText()) {
-            return Category.ASYNC_PLAIN_TEXT;
-        } else {
-            return null;
-        }
+    public Class<?> getGenericClassIfExists() {
+        return genericClass;
     }
 
-    private Category syncCategory() {
-        if (isStream()) {
-            if (isEvent()) {
-                return Category.SYNC_STREAM_EVENT;
-            } else {
-                return Category.SYNC_STREAM;
-            }
-        } else if (isList()) {
-            return Category.SYNC_LIST;
-        } else if (isGeneric()) {
-            return Category.SYNC_GENERIC;
-        } else if (isCustom()) {
-            return Category.SYNC_CUSTOM;
-        } else if (isBinary()) {
-            return Category.SYNC_BINARY;
-        } else if (isPlainText()) {
-            return Category.SYNC_PLAIN_TEXT;
-        } else {
-            return null;
-        }
+    /**
+     * Jackson type of the Json response. For streams it is the type of every item and for Optional it
+     * is the type of the wrapped value.
+     *
+     * @return The Jackson type or null if the response is not deserialized from Json.
+     */
+    public JavaType getJavaType() {
+        return javaType;
+    }
+
+    public Category category() {
+        return category;
     }
 
     public boolean isAsync() {
-        return size > 1 && ASYNC.equals(returnTypeArray[firstIndex]);
+        return async;
     }
 
+    /**
+     * Whether the response is a sequence of items: a Stream or a Flow.Publisher.
+     *
+     * @return True for the stream and publisher categories.
+     */
     public boolean isStream() {
-        return size > 1 && STREAM.equals(returnTypeArray[prevLastIndex]);
+        return stream;
     }
 
-    private boolean isList() {
-        return size > 1 && LIST.equals(returnTypeArray[prevLastIndex]);
+    /**
+     * Whether the method returns a Flow.Publisher, whose server sent events are pushed to the
+     * subscriber according to its demand.
+     *
+     * @return True for the publisher categories.
+     */
+    public boolean isPublisher() {
+        return publisher;
     }
 
-    private boolean isGeneric() {
-        return ((isAsync() && size > 2) || (!isAsync() && size > 1))
-                && !returnTypeArray[prevLastIndex].startsWith(JAVA_PCK);
+    /**
+     * Format of the response when the method returns a Stream.
+     *
+     * @return The format given by the StreamFormat annotation, SSE by default.
+     */
+    public Format getStreamFormat() {
+        return streamFormat;
     }
 
-    private boolean isCustom() {
-        return !isInputStream() && !isString() && !isEvent() && (size == 1 || (size == 2 && isAsync()));
+    public boolean isInputStream() {
+        return inputStream;
     }
 
-    private boolean isBinary() {
-        return isInputStream() && (size == 1 || (size == 2 && isAsync()));
+    public boolean isOptional() {
+        return optional;
     }
 
-    private boolean isPlainText() {
-        return isString() && (size == 1 || (size == 2 && isAsync()));
+    /**
+     * Whether the whole response is a Json document (custom, list or generic categories), so it can be
+     * read as bytes and handed straight to Jackson.
+     *
+     * @return True for the Json categories, false for text, binary and streams.
+     */
+    public boolean isJson() {
+        return json;
     }
 
-    public boolean isInputStream() {
-        return INPUTSTREAM.equals(returnTypeArray[lastIndex]);
-    }
+    private enum Kind {
+
+        STREAM_EVENT(Category.ASYNC_STREAM_EVENT, Category.SYNC_STREAM_EVENT),
+        STREAM(Category.ASYNC_STREAM, Category.SYNC_STREAM),
+        STREAM_JSON_ARRAY(Category.ASYNC_STREAM_JSON_ARRAY, Category.SYNC_STREAM_JSON_ARRAY),
+        STREAM_NDJSON(Category.ASYNC_STREAM_NDJSON, Category.SYNC_STREAM_NDJSON),
+        PUBLISHER_EVENT(Category.PUBLISHER_EVENT, Category.PUBLISHER_EVENT),
+        PUBLISHER(Category.PUBLISHER, Category.PUBLISHER),
+        JSON_LIST(Category.ASYNC_LIST, Category.SYNC_LIST),
+        JSON_GENERIC(Category.ASYNC_GENERIC, Category.SYNC_GENERIC),
+        JSON_CUSTOM(Category.ASYNC_CUSTOM, Category.SYNC_CUSTOM),
+        BINARY(Category.ASYNC_BINARY, Category.SYNC_BINARY),
+        PLAIN_TEXT(Category.ASYNC_PLAIN_TEXT, Category.SYNC_PLAIN_TEXT);
+
+        private final Category asyncCategory;
+        private final Category syncCategory;
+
+        Kind(Category asyncCategory, Category syncCategory) {
+            this.asyncCategory = asyncCategory;
+            this.syncCategory = syncCategory;
+        }
 
-    private boolean isString() {
-        return STRING.equals(returnTypeArray[lastIndex]);
-    }
+        Category category(boolean async) {
+            return async ? asyncCategory : syncCategory;
+        }
 
-    private boolean isEvent() {
-        return EVENT.equals(returnTypeArray[lastIndex]);
     }
 
     public enum Category {
         ASYNC_STREAM_EVENT,
         ASYNC_STREAM,
+        ASYNC_STREAM_JSON_ARRAY,
+        ASYNC_STREAM_NDJSON,
         ASYNC_LIST,
         ASYNC_GENERIC,
         ASYNC_CUSTOM,
@@ -219,11 +385,15 @@ public class ReturnType {
         ASYNC_PLAIN_TEXT,
         SYNC_STREAM_EVENT,
         SYNC_STREAM,
+        SYNC_STREAM_JSON_ARRAY,
+        SYNC_STREAM_NDJSON,
         SYNC_LIST,
         SYNC_GENERIC,
         SYNC_CUSTOM,
         SYNC_BINARY,
-        SYNC_PLAIN_TEXT;
+        SYNC_PLAIN_TEXT,
+        PUBLISHER_EVENT,
+        PUBLISHER;
     }
 
 }
@@ -0,0 +1,48 @@
+package io.github.sashirestela.cleverclient.support;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Event of a server sent events response as it was framed from the bytes, before its data is
+ * decoded to the class of the event.
+ */
+@Value
+public class ServerSentEvent {
+
+    /**
+     * The value of the event field, or EventStreamParser.UNNAMED.
+     */
+    String name;
+
+    /**
+     * The index of the name in the EventTypeTable of the method, or -1 if it is not expected.
+     */
+    int type;
+
+    /**
+     * The last event id received up to this event.
+     */
+    String id;
+
+    /**
+     * The data lines joined with line feeds, as UTF-8 bytes.
+     */
+    byte[] data;
+
+    /**
+     * The reconnection time in milliseconds received up to this event, or -1.
+     */
+    long retry;
+
+    public String getText() {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return (name.isEmpty() ? "" : "event: " + name + ", ") + "data: " + getText();
+    }
+
+}
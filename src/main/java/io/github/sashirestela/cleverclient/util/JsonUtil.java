@@ -14,26 +14,28 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Json conversions through the object mapper of the Configurator. The clients do not use it: each one
+ * converts through the codecs of its own object mapper.
+ */
 public class JsonUtil {
 
-    private static ObjectMapper objectMapper = new ObjectMapper();
-    private static ObjectReader objectReader = objectMapper.reader()
-            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    /**
+     * The object mapper with its reader, swapped as a whole so a thread never sees the reader of one
+     * mapper with another mapper.
+     */
+    private static volatile Mapper mapper = new Mapper(new ObjectMapper());
 
     private JsonUtil() {
     }
 
     public static void updateObjectMapper(ObjectMapper newObjectMapper) {
-        synchronized (JsonUtil.class) {
-            objectMapper = newObjectMapper != null ? newObjectMapper : new ObjectMapper();
-            objectReader = objectMapper.reader()
-                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-        }
+        mapper = new Mapper(newObjectMapper != null ? newObjectMapper : new ObjectMapper());
     }
 
     public static <T> Map<String, Object> objectToMap(T object) {
         try {
-            return objectMapper.convertValue(object, new TypeReference<>() {
+            return mapper.objectMapper.convertValue(object, new TypeReference<>() {
             });
         } catch (IllegalArgumentException e) {
             throw new CleverClientException("Cannot convert object {0} to Map.", object, e);
@@ -42,7 +44,7 @@ public class JsonUtil {
 
     public static <T> String objectToJson(T object) {
         try {
-            return objectMapper.writeValueAsString(object);
+            return mapper.objectMapper.writeValueAsString(object);
         } catch (JsonProcessingException e) {
             throw new CleverClientException("Cannot convert the object {0} to Json.", object, e);
         }
@@ -50,7 +52,7 @@ public class JsonUtil {
 
     public static <T> T jsonToObject(String json, Class<T> clazz) {
         try {
-            return objectReader.readValue(json, clazz);
+            return mapper.objectReader.readValue(json, clazz);
         } catch (IOException e) {
             throw new CleverClientException("Cannot convert the Json {0} to class {1}.", json, clazz.getName(), e);
         }
@@ -58,6 +60,7 @@ public class JsonUtil {
 
     public static <T> List<T> jsonToList(String json, Class<T> clazz) {
         try {
+            var objectReader = mapper.objectReader;
             CollectionType listType = objectReader.getTypeFactory()
                     .constructCollectionType(ArrayList.class, clazz);
             return objectReader.forType(listType).readValue(json);
@@ -68,6 +71,7 @@ public class JsonUtil {
 
     public static <T, U> T jsonToParametricObject(String json, Class<T> clazzT, Class<U> clazzU) {
         try {
+            var objectReader = mapper.objectReader;
             JavaType javaType = objectReader.getTypeFactory()
                     .constructParametricType(clazzT, clazzU);
             return objectReader.forType(javaType).readValue(json);
@@ -76,4 +80,17 @@ public class JsonUtil {
         }
     }
 
+    private static class Mapper {
+
+        final ObjectMapper objectMapper;
+        final ObjectReader objectReader;
+
+        Mapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            this.objectReader = objectMapper.reader()
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+
+    }
+
 }
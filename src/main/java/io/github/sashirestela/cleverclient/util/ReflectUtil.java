@@ -1,10 +1,29 @@
 package io.github.sashirestela.cleverclient.util;
 
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
+import java.util.Optional;
 
 public class ReflectUtil {
 
+    public static final String GENERATED_SUFFIX = "_CleverClient";
+
+    /**
+     * Generated classes by interface, looked up once per interface. A ClassValue does not keep the
+     * interface nor its class loader from being unloaded.
+     */
+    private static final ClassValue<Optional<Class<?>>> generatedClasses = new ClassValue<>() {
+
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> interfaceClass) {
+            return loadGeneratedClass(interfaceClass);
+        }
+
+    };
+
     private ReflectUtil() {
     }
 
@@ -16,4 +35,52 @@ public class ReflectUtil {
                 handler);
     }
 
+    /**
+     * Name of the class generated at build time for an interface: same package, nested names joined
+     * by underscores and the suffix _CleverClient. For example: ChatService_CleverClient.
+     *
+     * @param interfaceClass The interface.
+     * @return The full name of the generated class.
+     */
+    public static String generatedClassName(Class<?> interfaceClass) {
+        var packageName = interfaceClass.getPackageName();
+        var simpleName = packageName.isEmpty()
+                ? interfaceClass.getName()
+                : interfaceClass.getName().substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + GENERATED_SUFFIX;
+    }
+
+    /**
+     * Finds the class generated at build time for an interface. It is loaded and initialized on the
+     * first call for the interface and the result, found or not, is kept for the next calls. Only a
+     * missing class means that there is none: the errors of a class that cannot be linked or
+     * initialized are thrown.
+     *
+     * @param <T>            Type of the interface.
+     * @param interfaceClass The interface.
+     * @return The generated class, or empty if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Optional<Class<? extends T>> findGeneratedClass(Class<T> interfaceClass) {
+        return generatedClasses.get(interfaceClass).map(clazz -> (Class<? extends T>) clazz);
+    }
+
+    private static Optional<Class<?>> loadGeneratedClass(Class<?> interfaceClass) {
+        try {
+            var clazz = Class.forName(generatedClassName(interfaceClass), true, interfaceClass.getClassLoader());
+            return interfaceClass.isAssignableFrom(clazz) ? Optional.of(clazz) : Optional.empty();
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static <T> T newInstance(Class<T> clazz, Class<?> parameterType, Object argument) {
+        try {
+            return clazz.getConstructor(parameterType).newInstance(argument);
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException
+                | InvocationTargetException e) {
+            throw new CleverClientException("Cannot create an instance of {0}.", clazz.getName(), e);
+        }
+    }
+
 }
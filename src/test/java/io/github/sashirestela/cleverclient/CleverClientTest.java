@@ -1,15 +1,26 @@
 package io.github.sashirestela.cleverclient;
 
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import io.github.sashirestela.cleverclient.annotation.Body;
 import io.github.sashirestela.cleverclient.annotation.GET;
+import io.github.sashirestela.cleverclient.annotation.MediaType;
+import io.github.sashirestela.cleverclient.annotation.POST;
+import io.github.sashirestela.cleverclient.annotation.Path;
 import io.github.sashirestela.cleverclient.annotation.Query;
 import io.github.sashirestela.cleverclient.annotation.Resource;
 import io.github.sashirestela.cleverclient.client.HttpClientAdapter;
 import io.github.sashirestela.cleverclient.client.JavaHttpClientAdapter;
+import io.github.sashirestela.cleverclient.client.RequestData;
 import io.github.sashirestela.cleverclient.http.HttpRequestData;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadataStore;
 import io.github.sashirestela.cleverclient.retry.RetryConfig;
 import io.github.sashirestela.cleverclient.retry.RetryableRequest;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
 import io.github.sashirestela.cleverclient.support.ContentType;
+import io.github.sashirestela.cleverclient.support.JacksonCodec;
+import io.github.sashirestela.cleverclient.support.JsonBody;
 import io.github.sashirestela.cleverclient.util.HttpRequestBodyTestUtility;
 import lombok.Builder;
 import lombok.Value;
@@ -17,16 +28,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.lang.reflect.Proxy;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -35,6 +50,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class CleverClientTest {
@@ -182,6 +198,251 @@ class CleverClientTest {
         assertThrows(IllegalArgumentException.class, () -> testService.getText(sample, "math"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldUseRuntimeStubsWhenTheOptionIsEnabled() {
+        var httpClient = mock(HttpClient.class);
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter(httpClient))
+                .runtimeStubs(true)
+                .build();
+        when(httpClient.sendAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(mock(HttpResponse.class)));
+
+        var test = cleverClient.create(TestStubClient.class);
+        test.getNumber(12345678901L, 1.5, true);
+        test.getText(Sample.builder().id("1").build(), "geo");
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), any());
+        var actualUrls = requestCaptor.getAllValues().stream().map(request -> request.uri().toString()).toArray();
+        var expectedUrls = new Object[] {
+                "https://test/v1.2/api/numbers/12345678901?factor=1.5&exact=true",
+                "https://test/v1.2/api/text?prefix=geo" };
+        assertFalse(Proxy.isProxyClass(test.getClass()));
+        assertEquals(TestStubClient.class.getName() + "$$CleverClientStub", test.getClass().getName());
+        assertArrayEquals(expectedUrls, actualUrls);
+        assertEquals(6, test.twice(3));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldBuildThePlanInTheStubOnTheFirstCallWhenMetadataIsLazy() throws Exception {
+        var httpClient = mock(HttpClient.class);
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter(httpClient))
+                .runtimeStubs(true)
+                .lazyMetadata(true)
+                .build();
+        when(httpClient.sendAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(mock(HttpResponse.class)));
+        var method = TestLazyStubClient.class.getMethod("getText", String.class);
+
+        var test = cleverClient.create(TestLazyStubClient.class);
+        assertFalse(InterfaceMetadataStore.one().hasPlan(method));
+        test.getText("geo");
+        assertTrue(InterfaceMetadataStore.one().hasPlan(method));
+        test.getText("math");
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), any());
+        var actualUrls = requestCaptor.getAllValues().stream().map(request -> request.uri().toString()).toArray();
+        var expectedUrls = new Object[] {
+                "https://test/v1.2/api/text?prefix=geo",
+                "https://test/v1.2/api/text?prefix=math" };
+        assertFalse(Proxy.isProxyClass(test.getClass()));
+        assertArrayEquals(expectedUrls, actualUrls);
+    }
+
+    @Test
+    void shouldSaveMetadataOfAllInterfacesWhenTheyArePrepared() {
+        CleverClient.prepare(TestCleverClient.class, TestStubClient.class, TestLazyClient.class);
+        var store = InterfaceMetadataStore.one();
+        assertDoesNotThrow(() -> store.get(TestCleverClient.class));
+        assertDoesNotThrow(() -> store.get(TestStubClient.class));
+        assertDoesNotThrow(() -> store.get(TestLazyClient.class));
+    }
+
+    @Test
+    void shouldThrownExceptionWhenPreparingAnInvalidInterface() {
+        assertThrows(CleverClientException.class,
+                () -> CleverClient.prepare(TestCleverClient.class, TestInvalidClient.class));
+    }
+
+    @Test
+    void shouldDeferValidationToTheFirstCallWhenMetadataIsLazy() {
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter())
+                .lazyMetadata(true)
+                .build();
+        var test = cleverClient.create(TestInvalidClient.class);
+        assertNotNull(test);
+        var exception = assertThrows(CleverClientException.class, test::getUnannotated);
+        assertEquals("Missing HTTP annotation for the method getUnannotated.", exception.getMessage());
+    }
+
+    @Test
+    void shouldRunThePipelineWithoutSendingRequestsWhenWarmingUp() {
+        var httpClient = mock(HttpClient.class);
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter(httpClient))
+                .build();
+
+        var elapsed = cleverClient.warmUp(TestWarmUpClient.class, TestStubClient.class);
+
+        assertFalse(elapsed.isNegative());
+        assertDoesNotThrow(() -> InterfaceMetadataStore.one().get(TestWarmUpClient.class));
+        verifyNoInteractions(httpClient);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldSendHeadRequestToBaseUrlWhenWarmingUpWithPreconnect() throws Exception {
+        var httpClient = mock(HttpClient.class);
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter(httpClient))
+                .build();
+        when(httpClient.send(any(), any())).thenReturn(mock(HttpResponse.class));
+
+        cleverClient.warmUp(true, 1, TestWarmUpClient.class);
+
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(1)).send(requestCaptor.capture(), any());
+        assertEquals("HEAD", requestCaptor.getValue().method());
+        assertEquals("https://test", requestCaptor.getValue().uri().toString());
+    }
+
+    @Test
+    void shouldThrownExceptionWhenWarmingUpAnInvalidLazyInterface() {
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter())
+                .lazyMetadata(true)
+                .build();
+        assertThrows(CleverClientException.class, () -> cleverClient.warmUp(TestInvalidClient.class));
+    }
+
+    @Test
+    void shouldEncodeWithTheCodecOfTheMediaTypeWhenMethodsChooseOne() {
+        var mockClientAdapter = Mockito.mock(HttpClientAdapter.class);
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(mockClientAdapter)
+                .otherCodec(JacksonCodec.smile())
+                .build();
+        var test = cleverClient.create(TestCodecClient.class);
+        var sample = Sample.builder().id("1").build();
+
+        test.createSample(sample);
+        test.createSampleAsJson(sample);
+
+        ArgumentCaptor<RequestData> requestCaptor = ArgumentCaptor.forClass(RequestData.class);
+        verify(mockClientAdapter, times(2)).sendRequest(requestCaptor.capture());
+        var smileRequest = requestCaptor.getAllValues().get(0);
+        assertEquals(JacksonCodec.SMILE, smileRequest.getCodec().getMediaType());
+        assertEquals(List.of("Content-Type", JacksonCodec.SMILE, "Accept", JacksonCodec.SMILE),
+                smileRequest.getHeaders());
+        var smileBody = (JsonBody) smileRequest.getBody();
+        assertEquals(':', smileBody.getBytes()[0]);
+        assertEquals(JacksonCodec.SMILE, smileBody.getMediaType());
+        assertEquals("(" + smileBody.length() + " bytes of " + JacksonCodec.SMILE + ")", smileBody.toString());
+        var jsonRequest = requestCaptor.getAllValues().get(1);
+        assertEquals(JacksonCodec.JSON, jsonRequest.getCodec().getMediaType());
+        assertEquals(List.of("Content-Type", JacksonCodec.JSON), jsonRequest.getHeaders());
+        assertEquals("{\"id\":\"1\",\"model\":null,\"description\":null}", jsonRequest.getBody().toString());
+    }
+
+    @Test
+    void shouldWarmUpMethodsWithABinaryCodecWithoutDecodingText() {
+        var httpClient = mock(HttpClient.class);
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(new JavaHttpClientAdapter(httpClient))
+                .otherCodec(JacksonCodec.smile())
+                .build();
+
+        assertDoesNotThrow(() -> cleverClient.warmUp(false, 1, TestCodecClient.class));
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    void shouldThrownExceptionWhenThereIsNoCodecForTheMediaType() {
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(Mockito.mock(HttpClientAdapter.class))
+                .build();
+        var test = cleverClient.create(TestCodecClient.class);
+        var sample = Sample.builder().id("1").build();
+        var exception = assertThrows(CleverClientException.class, () -> test.createSample(sample));
+        assertEquals("There is no codec for the media type application/x-jackson-smile.", exception.getMessage());
+    }
+
+    @Test
+    void shouldSerializeWithTheObjectMapperOfEachClientWhenClientsHaveDifferentOnes() {
+        var firstAdapter = Mockito.mock(HttpClientAdapter.class);
+        var secondAdapter = Mockito.mock(HttpClientAdapter.class);
+        var firstClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(firstAdapter)
+                .objectMapper(new ObjectMapper().setSerializationInclusion(Include.NON_NULL))
+                .build();
+        var secondClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(secondAdapter)
+                .objectMapper(new ObjectMapper())
+                .build();
+        var sample = Sample.builder().id("1").build();
+
+        firstClient.create(TestCodecClient.class).createSampleAsJson(sample);
+        secondClient.create(TestCodecClient.class).createSampleAsJson(sample);
+
+        ArgumentCaptor<RequestData> requestCaptor = ArgumentCaptor.forClass(RequestData.class);
+        verify(firstAdapter).sendRequest(requestCaptor.capture());
+        assertEquals("{\"id\":\"1\"}", requestCaptor.getValue().getBody().toString());
+        verify(secondAdapter).sendRequest(requestCaptor.capture());
+        assertEquals("{\"id\":\"1\",\"model\":null,\"description\":null}",
+                requestCaptor.getValue().getBody().toString());
+    }
+
+    @Test
+    void shouldSetTheEndsOfStreamOfEachClientInItsAdapter() {
+        var firstAdapter = Mockito.mock(HttpClientAdapter.class);
+        var secondAdapter = Mockito.mock(HttpClientAdapter.class);
+        CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(firstAdapter)
+                .endOfStream("[DONE]")
+                .build();
+        CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(secondAdapter)
+                .endOfStream("END")
+                .build();
+        verify(firstAdapter).setEndsOfStream(List.of("[DONE]"));
+        verify(secondAdapter).setEndsOfStream(List.of("END"));
+    }
+
+    @Test
+    void shouldRegisterBlackbirdInACopyOfTheObjectMapperWhenItIsEnabled() {
+        var objectMapper = new ObjectMapper();
+        var cleverClient = CleverClient.builder()
+                .baseUrl("https://test")
+                .clientAdapter(Mockito.mock(HttpClientAdapter.class))
+                .objectMapper(objectMapper)
+                .blackbird(true)
+                .build();
+        assertTrue(cleverClient.getObjectMapper()
+                .getRegisteredModuleIds()
+                .contains(new BlackbirdModule().getTypeId()));
+        assertTrue(objectMapper.getRegisteredModuleIds().isEmpty());
+        assertEquals(JacksonCodec.JSON, cleverClient.getCodec().getMediaType());
+    }
+
     @Value
     @Builder
     static class Sample {
@@ -200,4 +461,72 @@ class CleverClientTest {
 
     }
 
+    @Resource("/v1.2/api")
+    interface TestStubClient {
+
+        @GET("/numbers/{id}")
+        CompletableFuture<String> getNumber(@Path("id") long id, @Query("factor") double factor,
+                @Query("exact") boolean exact);
+
+        @GET("/text")
+        CompletableFuture<String> getText(@Body Sample sample, @Query("prefix") String prefix);
+
+        default int twice(int value) {
+            return value * 2;
+        }
+
+    }
+
+    @Resource("/v1.2/api")
+    interface TestLazyClient {
+
+        @GET("/text")
+        CompletableFuture<String> getText(@Query("prefix") String prefix);
+
+    }
+
+    @Resource("/v1.2/api")
+    interface TestLazyStubClient {
+
+        @GET("/text")
+        CompletableFuture<String> getText(@Query("prefix") String prefix);
+
+    }
+
+    @Resource("/v1.2/api/samples")
+    interface TestWarmUpClient {
+
+        @GET("/{id}")
+        Sample getSample(@Path("id") String id);
+
+        @GET
+        CompletableFuture<List<Sample>> getSamples(@Query("size") Integer size);
+
+        @GET("/{sample}/text")
+        String getText(@Path("sample") Sample sample);
+
+    }
+
+    @Resource("/v1.2/api/samples")
+    @MediaType(JacksonCodec.SMILE)
+    interface TestCodecClient {
+
+        @POST
+        Sample createSample(@Body Sample sample);
+
+        @MediaType(JacksonCodec.JSON)
+        @POST("/json")
+        Sample createSampleAsJson(@Body Sample sample);
+
+        @GET("/settings")
+        Map<String, Object> getSettings();
+
+    }
+
+    interface TestInvalidClient {
+
+        CompletableFuture<String> getUnannotated();
+
+    }
+
 }
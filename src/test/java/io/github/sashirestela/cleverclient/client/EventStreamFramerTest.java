@@ -0,0 +1,65 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.EventStreamParser;
+import io.github.sashirestela.cleverclient.support.EventTypeTable;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EventStreamFramerTest {
+
+    private static final EventTypeTable PROCESS_EVENT = EventTypeTable.of(Map.of("process", String.class));
+
+    private static final String RESPONSE = "event: process\r\ndata: {\"name\":\"é\"}\r\n\r\n"
+            + ": keep-alive\rdata: one\rdata: two\r\rid: 5\ndata: three\n\ndata: END\n\n";
+
+    @Test
+    void shouldFrameTheSameEventsWhateverTheChunkSize() {
+        var bytes = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        var expected = List.of("process|{\"name\":\"é\"}|", "|one\ntwo|", "|three|5");
+        for (var chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            List<ServerSentEvent> events = new ArrayList<>();
+            var framer = new EventStreamFramer(new EventStreamParser(List.of("END"), PROCESS_EVENT), events::add);
+            for (var offset = 0; offset < bytes.length; offset += chunkSize) {
+                framer.feed(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            }
+            framer.finish();
+            assertEquals(expected, events.stream()
+                    .map(event -> event.getName() + "|" + event.getText() + "|" + event.getId())
+                    .collect(Collectors.toList()), "Chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void shouldDeliverTheDataAsBytesAndResolveKnownNames() {
+        List<ServerSentEvent> events = new ArrayList<>();
+        var framer = new EventStreamFramer(new EventStreamParser(List.of(), PROCESS_EVENT), events::add);
+        framer.feed(ByteBuffer.wrap("event:process\ndata:{}\n\n".getBytes(StandardCharsets.UTF_8))
+                .asReadOnlyBuffer());
+        assertEquals(1, events.size());
+        assertSame("process", events.get(0).getName());
+        assertArrayEquals("{}".getBytes(StandardCharsets.UTF_8), events.get(0).getData());
+    }
+
+    @Test
+    void shouldDiscardTheLastEventWhenTheResponseEndsWithoutBlankLine() {
+        List<ServerSentEvent> events = new ArrayList<>();
+        var framer = new EventStreamFramer(new EventStreamParser(List.of(), EventTypeTable.of(Map.of())), events::add);
+        var bytes = "data: first\n\ndata: second\ndata: last".getBytes(StandardCharsets.UTF_8);
+        framer.feed(bytes, 0, bytes.length);
+        framer.finish();
+        assertEquals(1, events.size());
+        assertEquals("first", events.get(0).getText());
+    }
+
+}
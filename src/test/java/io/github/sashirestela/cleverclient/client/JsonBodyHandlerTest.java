@@ -0,0 +1,102 @@
+package io.github.sashirestela.cleverclient.client;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.JsonBody;
+import io.github.sashirestela.cleverclient.test.TestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JsonBodyHandlerTest {
+
+    static JavaType mapType = TypeFactory.defaultInstance()
+            .constructMapType(Map.class, String.class, Object.class);
+
+    @BeforeAll
+    static void setup() {
+        TestSupport.setupConfigurator();
+    }
+
+    @Test
+    void shouldParseTheJsonWhileChunksArriveWhenResponseIsSuccessful() {
+        var subscriber = new JsonBodyHandler(mapType).apply(responseInfo(200));
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(buffer("{\"name\":\"ca"), buffer("fé\",\"val")));
+        assertFalse(subscriber.getBody().toCompletableFuture().isDone());
+        subscriber.onNext(List.of(buffer("ues\":[1,2.5,"), buffer("true]}")));
+        subscriber.onComplete();
+
+        var body = subscriber.getBody().toCompletableFuture().join();
+        assertInstanceOf(JsonBodyHandler.ParsedJson.class, body);
+        var value = (Map<?, ?>) ((JsonBodyHandler.ParsedJson) body).getValue();
+        assertEquals("café", value.get("name"));
+        assertEquals(List.of(1, 2.5, true), value.get("values"));
+    }
+
+    @Test
+    void shouldReadBytesWhenResponseIsAnError() {
+        var subscriber = new JsonBodyHandler(mapType).apply(responseInfo(404));
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(buffer("{\"error\":\"Not Found\"}")));
+        subscriber.onComplete();
+
+        var body = subscriber.getBody().toCompletableFuture().join();
+        assertInstanceOf(JsonBody.class, body);
+        assertEquals("{\"error\":\"Not Found\"}", body.toString());
+    }
+
+    @Test
+    void shouldReturnEmptyBodyWhenResponseHasNoContent() {
+        var subscriber = new JsonBodyHandler(mapType).apply(responseInfo(200));
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(buffer("  ")));
+        subscriber.onComplete();
+
+        var body = subscriber.getBody().toCompletableFuture().join();
+        assertTrue(((JsonBody) body).isBlank());
+    }
+
+    @Test
+    void shouldCancelAndFailWhenJsonIsMalformed() {
+        var subscription = mock(Flow.Subscription.class);
+        BodySubscriber<Object> subscriber = new JsonBodyHandler(mapType).apply(responseInfo(200));
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(List.of(buffer("{\"name\":}")));
+        subscriber.onComplete();
+
+        var future = subscriber.getBody().toCompletableFuture();
+        var exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(CleverClientException.class, exception.getCause());
+        verify(subscription).cancel();
+    }
+
+    private static ResponseInfo responseInfo(int statusCode) {
+        var responseInfo = mock(ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(statusCode);
+        return responseInfo;
+    }
+
+    private static ByteBuffer buffer(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MulticastStreamTest {
+
+    @Test
+    void shouldDeliverAllTheItemsToEverySubscriberReadingTheUpstreamOnce() throws Exception {
+        var reads = new AtomicInteger();
+        var upstreamClosed = new AtomicInteger();
+        var upstream = IntStream.range(0, 1000).boxed().peek(i -> reads.incrementAndGet())
+                .onClose(upstreamClosed::incrementAndGet);
+        try (var multicast = MulticastStream.of(upstream, 4, Duration.ofSeconds(10))) {
+            // All of them subscribe before any is read, so none starts later than the first item
+            var subscriptions = List.of(multicast.subscribe(), multicast.subscribe(), multicast.subscribe());
+            List<CompletableFuture<List<Integer>>> results = new ArrayList<>();
+            for (var subscription : subscriptions) {
+                results.add(CompletableFuture.supplyAsync(() -> subscription.collect(Collectors.toList())));
+            }
+            var expected = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+            for (var result : results) {
+                assertEquals(expected, result.get(10, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1000, reads.get());
+        assertEquals(1, upstreamClosed.get());
+    }
+
+    @Test
+    void shouldReplayTheBufferedItemsFromTheStartOrTheTail() {
+        var multicast = MulticastStream.of(IntStream.range(0, 10).boxed(), 4);
+        var first = multicast.subscribe();
+        var firstIterator = first.iterator();
+        for (var i = 0; i < 6; i++) {
+            assertEquals(i, firstIterator.next());
+        }
+        var fromStart = multicast.subscribe();
+        assertEquals(2, fromStart.iterator().next());
+        fromStart.close();
+        var fromTail = multicast.subscribe(1);
+        assertEquals(5, fromTail.iterator().next());
+        fromTail.close();
+        var live = multicast.subscribe(0);
+        first.close();
+        assertEquals(List.of(6, 7, 8, 9), live.collect(Collectors.toList()));
+        assertEquals(List.of(8, 9), multicast.subscribe(2).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldDropAnAbandonedSubscriberSoTheOthersGoOn() {
+        var multicast = MulticastStream.of(IntStream.range(0, 10).boxed(), 4, Duration.ofMillis(50));
+        var moderation = multicast.subscribe();
+        var browser = multicast.subscribe();
+        assertTrue(moderation.anyMatch(i -> i == 1));
+        assertEquals(IntStream.range(0, 10).boxed().collect(Collectors.toList()),
+                browser.collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldFailTheSlowerSubscriberWhenOneThreadReadsThemOneAfterTheOther() {
+        var multicast = MulticastStream.of(IntStream.range(0, 10).boxed(), 4, Duration.ZERO);
+        var first = multicast.subscribe();
+        var second = multicast.subscribe();
+        assertEquals(IntStream.range(0, 10).boxed().collect(Collectors.toList()),
+                first.collect(Collectors.toList()));
+        var exception = assertThrows(CleverClientException.class, () -> second.collect(Collectors.toList()));
+        assertEquals("The subscriber fell more than 4 items behind the shared stream.", exception.getMessage());
+    }
+
+    @Test
+    void shouldThrowTheErrorOfTheUpstreamToEverySubscriber() {
+        var upstream = Stream.of("a", "b", "fail").map(text -> {
+            if ("fail".equals(text)) {
+                throw new CleverClientException("Cannot read the server sent events.");
+            }
+            return text;
+        });
+        var multicast = MulticastStream.of(upstream, 8);
+        var first = multicast.subscribe().iterator();
+        var second = multicast.subscribe().iterator();
+        assertEquals("a", first.next());
+        assertEquals("b", first.next());
+        assertThrows(CleverClientException.class, first::hasNext);
+        assertEquals("a", second.next());
+        assertEquals("b", second.next());
+        assertThrows(CleverClientException.class, second::hasNext);
+    }
+
+}
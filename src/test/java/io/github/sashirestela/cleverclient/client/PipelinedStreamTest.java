@@ -0,0 +1,129 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelinedStreamTest {
+
+    @Test
+    void shouldDeliverTheResultsOfTheStageInTheOrderOfTheSource() {
+        var metrics = new PipelineMetrics();
+        try (var stream = PipelinedStream.of(IntStream.range(0, 1000).boxed(), i -> i * 2, 8, metrics)) {
+            var actual = stream.collect(Collectors.toList());
+            assertEquals(IntStream.range(0, 1000).map(i -> i * 2).boxed().collect(Collectors.toList()), actual);
+        }
+        assertEquals(0, metrics.getQueuedItems());
+        assertTrue(metrics.getPeakQueuedItems() <= 8);
+    }
+
+    @Test
+    void shouldDeliverNullResultsAndThrowTheErrorOfTheStageWhenItIsReached() {
+        var metrics = new PipelineMetrics();
+        var stream = PipelinedStream.of(Stream.of("a", "", "b", "fail", "c"), text -> {
+            if ("fail".equals(text)) {
+                throw new CleverClientException("Cannot decode {0}.", text, null);
+            }
+            return text.isEmpty() ? null : text.toUpperCase();
+        }, 2, metrics);
+        var iterator = stream.iterator();
+        var actual = Arrays.asList(iterator.next(), iterator.next(), iterator.next());
+        assertEquals(Arrays.asList("A", null, "B"), actual);
+        var exception = assertThrows(CleverClientException.class, iterator::hasNext);
+        assertEquals("Cannot decode fail.", exception.getMessage());
+    }
+
+    @Test
+    void shouldCountOnlyTheResultsAsQueuedItems() throws InterruptedException {
+        var metrics = new PipelineMetrics();
+        try (var stream = PipelinedStream.of(Stream.of(1, 2, 3), i -> i, 8, metrics)) {
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (metrics.getQueuedItems() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            assertEquals(3, metrics.getQueuedItems());
+            assertEquals(List.of(1, 2, 3), stream.collect(Collectors.toList()));
+        }
+        assertEquals(0, metrics.getQueuedItems());
+        assertEquals(3, metrics.getPeakQueuedItems());
+    }
+
+    @Test
+    void shouldStopTheStageAndCloseTheSourceWhenTheStreamIsDroppedWithoutClosing() throws InterruptedException {
+        var metrics = new PipelineMetrics();
+        var sourceClosed = new CountDownLatch(1);
+        assertEquals(0, firstOfAnEndlessPipeline(metrics, sourceClosed));
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!sourceClosed.await(50, TimeUnit.MILLISECONDS) && System.nanoTime() < deadline) {
+            System.gc();
+        }
+        assertEquals(0, sourceClosed.getCount());
+        while (metrics.getQueuedItems() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, metrics.getQueuedItems());
+    }
+
+    @Test
+    void shouldBatchTheBufferedResultsUpToTheMaxSizeInTheOrderOfTheSource() {
+        var metrics = new PipelineMetrics();
+        try (var stream = PipelinedStream.batched(IntStream.range(0, 1000).boxed(), i -> i * 2, 16, 16, 5,
+                metrics)) {
+            var batches = stream.collect(Collectors.toList());
+            assertTrue(batches.stream().allMatch(batch -> !batch.isEmpty() && batch.size() <= 16));
+            assertTrue(batches.size() < 1000);
+            var actual = batches.stream().flatMap(List::stream).collect(Collectors.toList());
+            assertEquals(IntStream.range(0, 1000).map(i -> i * 2).boxed().collect(Collectors.toList()), actual);
+        }
+        assertEquals(0, metrics.getQueuedItems());
+    }
+
+    @Test
+    void shouldDeliverThePartialBatchBeforeThrowingTheErrorOfTheStage() {
+        var stream = PipelinedStream.batched(Stream.of("a", "b", "fail", "c"), text -> {
+            if ("fail".equals(text)) {
+                throw new CleverClientException("Cannot decode {0}.", text, null);
+            }
+            return text.toUpperCase();
+        }, 8, 8, 1000, new PipelineMetrics());
+        var iterator = stream.iterator();
+        assertEquals(List.of("A", "B"), iterator.next());
+        var exception = assertThrows(CleverClientException.class, iterator::hasNext);
+        assertEquals("Cannot decode fail.", exception.getMessage());
+    }
+
+    @Test
+    void shouldStopTheStageAndCloseTheSourceWhenTheStreamIsClosed() throws InterruptedException {
+        var metrics = new PipelineMetrics();
+        var sourceClosed = new CountDownLatch(1);
+        var source = IntStream.iterate(0, i -> i + 1).boxed().onClose(sourceClosed::countDown);
+        var stream = PipelinedStream.of(source, i -> i, 4, metrics);
+        assertEquals(List.of(0, 1, 2), stream.limit(3).collect(Collectors.toList()));
+        stream.close();
+        assertTrue(sourceClosed.await(5, TimeUnit.SECONDS));
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metrics.getQueuedItems() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, metrics.getQueuedItems());
+        assertTrue(metrics.getProducerStalls() > 0);
+    }
+
+    private static int firstOfAnEndlessPipeline(PipelineMetrics metrics, CountDownLatch sourceClosed) {
+        var source = IntStream.iterate(0, i -> i + 1).boxed().onClose(sourceClosed::countDown);
+        return PipelinedStream.of(source, i -> i, 4, metrics).findFirst().orElseThrow();
+    }
+
+}
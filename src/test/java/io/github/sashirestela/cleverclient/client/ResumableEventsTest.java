@@ -0,0 +1,122 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.retry.RetryConfig;
+import io.github.sashirestela.cleverclient.retry.RetryableRequest;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.ServerSentEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResumableEventsTest {
+
+    private static final RetryableRequest RETRYABLE_REQUEST = new RetryableRequest(RetryConfig.builder()
+            .maxAttempts(2)
+            .initialDelayMs(1)
+            .build());
+
+    @Test
+    void shouldReconnectWithTheLastEventIdAndGoOnWithTheNewEvents() {
+        List<String> lastEventIds = new ArrayList<>();
+        var first = failingAfter(event("1", "one", 0), event("2", "two", -1));
+        var resumed = ResumableEvents.of(first, lastEventId -> {
+            lastEventIds.add(lastEventId);
+            return Stream.of(event("3", "three", -1), event("", "four", -1));
+        }, RETRYABLE_REQUEST, 2);
+        var texts = resumed.map(ServerSentEvent::getText).collect(Collectors.toList());
+        assertEquals(List.of("one", "two", "three", "four"), texts);
+        assertEquals(List.of("2"), lastEventIds);
+    }
+
+    @Test
+    void shouldRetryTheReconnectionUpToTheMaxAttempts() {
+        List<String> lastEventIds = new ArrayList<>();
+        var first = failingAfter(event("7", "seven", 0));
+        var resumed = ResumableEvents.of(first, lastEventId -> {
+            lastEventIds.add(lastEventId);
+            throw new CleverClientException(new IOException("Connection refused"));
+        }, RETRYABLE_REQUEST, 2);
+        var iterator = resumed.iterator();
+        assertEquals("seven", iterator.next().getText());
+        var exception = assertThrows(CleverClientException.class, iterator::hasNext);
+        assertEquals("Connection refused", exception.getCause().getMessage());
+        assertEquals(List.of("7", "7"), lastEventIds);
+    }
+
+    @Test
+    void shouldNotReconnectWhenTheFailureIsNotRetryable() {
+        List<String> lastEventIds = new ArrayList<>();
+        var first = Stream.concat(Stream.of(event("1", "one", 0)), Stream.<ServerSentEvent>generate(() -> {
+            throw new CleverClientException("Cannot decode the event.");
+        }));
+        var resumed = ResumableEvents.of(first, lastEventId -> {
+            lastEventIds.add(lastEventId);
+            return Stream.empty();
+        }, RETRYABLE_REQUEST, 2);
+        var iterator = resumed.iterator();
+        assertEquals("one", iterator.next().getText());
+        assertThrows(CleverClientException.class, iterator::hasNext);
+        assertEquals(List.of(), lastEventIds);
+    }
+
+    @Test
+    void shouldStopWithoutReconnectingWhenClosedFromAnotherThread() {
+        var firstClosed = new AtomicInteger();
+        var first = failingAfter(event("1", "one", 0)).onClose(firstClosed::incrementAndGet);
+        var reconnections = new AtomicInteger();
+        var resumed = ResumableEvents.of(first, lastEventId -> {
+            reconnections.incrementAndGet();
+            return Stream.empty();
+        }, RETRYABLE_REQUEST, 2);
+        var iterator = resumed.iterator();
+        assertEquals("one", iterator.next().getText());
+        CompletableFuture.runAsync(resumed::close).join();
+        assertFalse(iterator.hasNext());
+        assertEquals(0, reconnections.get());
+        assertEquals(1, firstClosed.get());
+    }
+
+    private static ServerSentEvent event(String id, String text, long retry) {
+        return new ServerSentEvent("", 0, id, text.getBytes(StandardCharsets.UTF_8), retry);
+    }
+
+    private static Stream<ServerSentEvent> failingAfter(ServerSentEvent... events) {
+        var iterator = new Iterator<ServerSentEvent>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index == events.length) {
+                    throw new CleverClientException("Cannot read the server sent events.",
+                            new IOException("Connection reset"));
+                }
+                return true;
+            }
+
+            @Override
+            public ServerSentEvent next() {
+                hasNext();
+                return events[index++];
+            }
+
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.github.sashirestela.cleverclient.client;
+
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpscRingBufferTest {
+
+    @Test
+    void shouldHandOverTheItemsInOrderWhenTheBufferWrapsAround() {
+        var buffer = new SpscRingBuffer<Integer>(4);
+        for (var i = 0; i < 10; i++) {
+            assertTrue(buffer.put(i, () -> false));
+            assertEquals(i, buffer.take(() -> false));
+        }
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll(() -> false, 0));
+    }
+
+    @Test
+    void shouldStopAConsumerWaitingInTakeWhenItIsInterrupted() throws InterruptedException {
+        var buffer = new SpscRingBuffer<String>(4);
+        var failure = new AtomicReference<Throwable>();
+        var keptInterruptStatus = new AtomicBoolean();
+        var consumer = new Thread(() -> {
+            try {
+                buffer.take(() -> false);
+            } catch (CleverClientException e) {
+                failure.set(e);
+                keptInterruptStatus.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        consumer.start();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (consumer.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        consumer.interrupt();
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(consumer.isAlive());
+        assertInstanceOf(CleverClientException.class, failure.get());
+        assertInstanceOf(InterruptedException.class, failure.get().getCause());
+        assertTrue(keptInterruptStatus.get());
+    }
+
+}
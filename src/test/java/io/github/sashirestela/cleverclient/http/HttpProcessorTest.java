@@ -20,13 +20,18 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -39,15 +44,19 @@ interface HttpProcessorTest {
 
     HttpProcessor getHttpProcessor(RetryableRequest retrayableRequest);
 
+    HttpProcessor getHttpProcessor(int pipelineDepth);
+
     void setMocksForString(SyncType syncType, String result) throws IOException, InterruptedException;
 
     void setMocksForBinary(SyncType syncType, InputStream result) throws IOException, InterruptedException;
 
     void setMocksForStream(SyncType syncType, Stream<String> result) throws IOException, InterruptedException;
 
+    void setMocksForPublisher(Stream<String> result) throws IOException, InterruptedException;
+
     void setMocksForException() throws IOException, InterruptedException;
 
-    void setMocksForStringWithError(String result) throws IOException, URISyntaxException;
+    void setMocksForStringWithError(String result) throws IOException, InterruptedException, URISyntaxException;
 
     void setMocksForBinaryWithError(InputStream result) throws IOException, URISyntaxException;
 
@@ -55,6 +64,16 @@ interface HttpProcessorTest {
 
     void setMocksForInterceptor(String result) throws IOException, InterruptedException, URISyntaxException;
 
+    /**
+     * Mocks two responses of server sent events: the first one fails with a retryable IOException
+     * after its lines, and the second one is the resumed stream.
+     *
+     * @return The Last-Event-ID header of each request, or an empty String if it has none, filled as
+     *         the requests are sent.
+     */
+    List<String> setMocksForResumedStream(Stream<String> failedResult, Stream<String> resumedResult)
+            throws IOException, InterruptedException;
+
     void testShutdown();
 
     @BeforeAll
@@ -81,6 +100,28 @@ interface HttpProcessorTest {
         assertEquals(expectedDemo, actualDemo);
     }
 
+    @Test
+    default void shouldReturnAnOptionalSyncWhenMethodReturnTypeIsAnOptional()
+            throws IOException, InterruptedException {
+        setMocksForString(SyncType.SYNC, "{\"id\":100,\"description\":\"Description\",\"active\":true}");
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        assertEquals(Optional.of(new ITest.Demo(100, "Description", true)), service.getOptionalDemo(100));
+
+        setMocksForString(SyncType.SYNC, "");
+        assertEquals(Optional.empty(), service.getOptionalDemo(100));
+    }
+
+    @Test
+    default void shouldReturnANestedMapSyncWhenMethodReturnTypeIsANestedGeneric()
+            throws IOException, InterruptedException {
+        setMocksForString(SyncType.SYNC,
+                "{\"first\":[{\"id\":100,\"description\":\"Description\",\"active\":true}],\"second\":[]}");
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        var actualDemos = service.getGroupedDemos();
+        var expectedDemos = Map.of("first", List.of(new ITest.Demo(100, "Description", true)), "second", List.of());
+        assertEquals(expectedDemos, actualDemos);
+    }
+
     @Test
     default void shouldThrownExceptionWhenMethodReturnTypeIsAString() throws IOException, InterruptedException {
         setMocksForException();
@@ -167,7 +208,7 @@ interface HttpProcessorTest {
     @Test
     default void shouldReturnAStreamSyncWhenMethodReturnTypeIsAStream() throws IOException, InterruptedException {
         setMocksForStream(SyncType.SYNC,
-                Stream.of("data: {\"id\":100,\"description\":\"Description\",\"active\":true}"));
+                Stream.of("data: {\"id\":100,\"description\":\"Description\",\"active\":true}", ""));
 
         var service = getHttpProcessor().createProxy(ITest.SyncService.class);
         var actualStreamDemo = service.getDemoStream(new ITest.RequestDemo("Descr", null));
@@ -177,6 +218,58 @@ interface HttpProcessorTest {
         assertEquals(expectedDemo, actualDemo);
     }
 
+    @Test
+    default void shouldReturnAStreamSyncWhenMethodReturnTypeIsAStreamOfJsonArray()
+            throws IOException, InterruptedException {
+        var closed = new boolean[1];
+        setMocksForBinary(SyncType.SYNC, new ByteArrayInputStream(("[{\"id\":100,\"description\":\"First\"},"
+                + "{\"id\":101,\"description\":\"Second\",\"active\":true}]").getBytes(StandardCharsets.UTF_8)) {
+
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+
+        });
+
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        try (var actualStreamDemo = service.exportDemos()) {
+            var iterator = actualStreamDemo.iterator();
+            assertEquals(new ITest.Demo(100, "First", null), iterator.next());
+            assertFalse(closed[0]);
+            assertEquals(new ITest.Demo(101, "Second", true), iterator.next());
+            assertFalse(iterator.hasNext());
+        }
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    default void shouldReturnAStreamSyncWhenMethodReturnTypeIsAStreamOfNdjson()
+            throws IOException, InterruptedException {
+        setMocksForBinary(SyncType.SYNC, new ByteArrayInputStream(("[{\"id\":100,\"description\":\"First\"}]\n"
+                + "\n"
+                + "[{\"id\":101},{\"id\":102,\"active\":true}]\n").getBytes(StandardCharsets.UTF_8)));
+
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        var actualBatches = service.feedDemoBatches().collect(Collectors.toList());
+        var expectedBatches = List.of(
+                List.of(new ITest.Demo(100, "First", null)),
+                List.of(new ITest.Demo(101, null, null), new ITest.Demo(102, null, true)));
+
+        assertEquals(expectedBatches, actualBatches);
+    }
+
+    @Test
+    default void shouldThrownExceptionWhenStreamOfJsonArrayIsMalformed() throws IOException, InterruptedException {
+        setMocksForBinary(SyncType.SYNC,
+                new ByteArrayInputStream("[{\"id\":100},{\"id\":".getBytes(StandardCharsets.UTF_8)));
+
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        var actualStreamDemo = service.exportDemos();
+        assertThrows(CleverClientException.class, () -> actualStreamDemo.count());
+    }
+
     @Test
     default void shouldThrownExceptionWhenMethodReturnTypeIsAStream() throws IOException, InterruptedException {
         setMocksForException();
@@ -188,7 +281,8 @@ interface HttpProcessorTest {
     @Test
     default void shouldReturnAStreamSyncWhenMethodReturnTypeIsAStreamEvent() throws IOException, InterruptedException {
         setMocksForStream(SyncType.SYNC,
-                Stream.of("event: created", "data: {\"id\":100,\"description\":\"Description\",\"active\":true}"));
+                Stream.of("event: created", "data: {\"id\":100,\"description\":\"Description\",\"active\":true}",
+                        ""));
 
         var service = getHttpProcessor().createProxy(ITest.SyncService.class);
         var actualStreamObject = service.getStreamEvent(new ITest.RequestDemo("Descr", null));
@@ -198,6 +292,56 @@ interface HttpProcessorTest {
         assertEquals(expectedObject, actualObject);
     }
 
+    @Test
+    default void shouldDecodeTheEventsAheadInOrderWhenThePipelineIsEnabled() throws IOException, InterruptedException {
+        var lines = IntStream.range(0, 50)
+                .mapToObj(i -> "data: {\"id\":" + i + ",\"description\":\"Demo\",\"active\":true}\n")
+                .collect(Collectors.toList());
+        setMocksForStream(SyncType.SYNC, lines.stream());
+
+        var service = getHttpProcessor(4).createProxy(ITest.SyncService.class);
+        try (var actualStreamDemo = service.getDemoStream(new ITest.RequestDemo("Descr", null))) {
+            var actualIds = actualStreamDemo.map(ITest.Demo::getId).collect(Collectors.toList());
+            assertEquals(IntStream.range(0, 50).boxed().collect(Collectors.toList()), actualIds);
+        }
+    }
+
+    @Test
+    default void shouldDeliverTheEventsInBatchesWhenTheStreamIsBatched() throws IOException, InterruptedException {
+        var lines = IntStream.range(0, 50)
+                .mapToObj(i -> "data: {\"id\":" + i + ",\"description\":\"Demo\",\"active\":true}\n")
+                .collect(Collectors.toList());
+        setMocksForStream(SyncType.SYNC, lines.stream());
+
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        try (var actualBatches = service.getDemoBatches(new ITest.RequestDemo("Descr", null))) {
+            var batches = actualBatches.collect(Collectors.toList());
+            assertTrue(batches.stream().allMatch(batch -> !batch.isEmpty() && batch.size() <= 8));
+            var actualIds = batches.stream()
+                    .flatMap(List::stream)
+                    .map(ITest.Demo::getId)
+                    .collect(Collectors.toList());
+            assertEquals(IntStream.range(0, 50).boxed().collect(Collectors.toList()), actualIds);
+        }
+    }
+
+    @Test
+    default void shouldResumeTheStreamWithTheLastEventIdWhenTheResponseFails()
+            throws IOException, InterruptedException {
+        var lastEventIds = setMocksForResumedStream(
+                Stream.of("retry: 1", "id: 1", "data: {\"id\":100,\"description\":\"First\",\"active\":true}", ""),
+                Stream.of("id: 2", "data: {\"id\":101,\"description\":\"Second\",\"active\":false}", "",
+                        "data: END", ""));
+
+        var service = getHttpProcessor().createProxy(ITest.SyncService.class);
+        var actualDemos = service.resumeDemoStream(new ITest.RequestDemo("Descr", null))
+                .collect(Collectors.toList());
+        var expectedDemos = List.of(new ITest.Demo(100, "First", true), new ITest.Demo(101, "Second", false));
+
+        assertEquals(expectedDemos, actualDemos);
+        assertEquals(List.of("", "1"), lastEventIds);
+    }
+
     @Test
     default void shouldThrownExceptionWhenMethodReturnTypeIsAStreamObject() throws IOException, InterruptedException {
         setMocksForException();
@@ -268,7 +412,7 @@ interface HttpProcessorTest {
     @Test
     default void shouldReturnAStreamAsyncWhenMethodReturnTypeIsAStream() throws IOException, InterruptedException {
         setMocksForStream(SyncType.ASYNC,
-                Stream.of("data: {\"id\":100,\"description\":\"Description\",\"active\":true}"));
+                Stream.of("data: {\"id\":100,\"description\":\"Description\",\"active\":true}", ""));
 
         var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
         var actualStreamDemo = service.getDemoStream(new ITest.RequestDemo("Descr", null)).join();
@@ -278,10 +422,38 @@ interface HttpProcessorTest {
         assertEquals(expectedDemo, actualDemo);
     }
 
+    @Test
+    default void shouldReturnAStreamAsyncWhenMethodReturnTypeIsAStreamOfJsonArray()
+            throws IOException, InterruptedException {
+        setMocksForBinary(SyncType.ASYNC,
+                new ByteArrayInputStream("[{\"id\":100,\"description\":\"Description\",\"active\":true}]"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
+        var actualDemos = service.exportDemos().join().collect(Collectors.toList());
+        var expectedDemos = List.of(new ITest.Demo(100, "Description", true));
+
+        assertEquals(expectedDemos, actualDemos);
+    }
+
+    @Test
+    default void shouldReturnAStreamAsyncWhenMethodReturnTypeIsAStreamOfNdjson()
+            throws IOException, InterruptedException {
+        setMocksForBinary(SyncType.ASYNC, new ByteArrayInputStream(("{\"id\":100,\"description\":\"First\"}\r\n"
+                + "{\"id\":101,\"description\":\"Second\",\"active\":true}").getBytes(StandardCharsets.UTF_8)));
+
+        var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
+        var actualDemos = service.feedDemos().join().collect(Collectors.toList());
+        var expectedDemos = List.of(new ITest.Demo(100, "First", null), new ITest.Demo(101, "Second", true));
+
+        assertEquals(expectedDemos, actualDemos);
+    }
+
     @Test
     default void shouldReturnAStreamAsyncWhenMethodReturnTypeIsAStreamEvent() throws IOException, InterruptedException {
         setMocksForStream(SyncType.ASYNC,
-                Stream.of("event: created", "data: {\"id\":100,\"description\":\"Description\",\"active\":true}"));
+                Stream.of("event: created", "data: {\"id\":100,\"description\":\"Description\",\"active\":true}",
+                        ""));
 
         var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
         var actualStreamObject = service.getStreamEvent(new ITest.RequestDemo("Descr", null)).join();
@@ -291,6 +463,35 @@ interface HttpProcessorTest {
         assertEquals(expectedObject, actualObject);
     }
 
+    @Test
+    default void shouldPublishTheObjectsWhenMethodReturnTypeIsAPublisher() throws Exception {
+        setMocksForPublisher(Stream.of(
+                "data: {\"id\":100,\"description\":\"First\",\"active\":true}", "",
+                "event: other", "data: {}", "",
+                "data: {\"id\":101,\"description\":\"Second\",\"active\":false}", "",
+                "data: END", ""));
+
+        var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
+        var actualDemos = TestSupport.collect(service.publishDemos(new ITest.RequestDemo("Descr", null)));
+        var expectedDemos = List.of(new ITest.Demo(100, "First", true), new ITest.Demo(101, "Second", false));
+
+        assertEquals(expectedDemos, actualDemos);
+    }
+
+    @Test
+    default void shouldPublishTheEventsWhenMethodReturnTypeIsAPublisherOfEvent() throws Exception {
+        setMocksForPublisher(Stream.of("event: created",
+                "data: {\"id\":100,\"description\":\"Description\",\"active\":true}", "",
+                "event: deleted", "data: {}", ""));
+
+        var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
+        var actualEvents = TestSupport.collect(service.publishEvents(new ITest.RequestDemo("Descr", null)));
+
+        assertEquals(1, actualEvents.size());
+        assertEquals("created", actualEvents.get(0).getName());
+        assertEquals(new ITest.Demo(100, "Description", true), actualEvents.get(0).getData());
+    }
+
     @Test
     default void shouldReturnAnObjectWhenMethodIsAnnotatedWithMultipart() throws IOException, InterruptedException {
         setMocksForString(SyncType.ASYNC, "{\"id\":100,\"description\":\"Description\",\"active\":true}");
@@ -305,7 +506,7 @@ interface HttpProcessorTest {
 
     @Test
     default void shouldThrownExceptionWhenCallingNoStreamingMethodAndServerRespondsWithError()
-            throws IOException, URISyntaxException {
+            throws IOException, InterruptedException, URISyntaxException {
         setMocksForStringWithError(
                 "{\"error\": {\"message\": \"The resource does not exist\", \"type\": \"T\", \"param\": \"P\", \"code\": \"C\"}}");
 
@@ -389,6 +590,16 @@ interface HttpProcessorTest {
         assertEquals(expectedValue, actualValue);
     }
 
+    @Test
+    default void shouldExecuteDefaultMethodsRepeatedlyWithCachedHandles() {
+        var service = getHttpProcessor().createProxy(ITest.AsyncService.class);
+        for (var i = 0; i < 3; i++) {
+            assertEquals("Hello " + i, service.defaultMethod(String.valueOf(i)));
+            assertEquals("Hello World", service.defaultMethodWithoutArgs());
+            assertEquals(i + 10, service.defaultMethodWithPrimitives(i, 10));
+        }
+    }
+
     @Test
     default void shouldShutdownWithoutExceptions() {
         testShutdown();
@@ -1,6 +1,7 @@
 package io.github.sashirestela.cleverclient.http;
 
 import io.github.sashirestela.cleverclient.Event;
+import io.github.sashirestela.cleverclient.annotation.BatchedStream;
 import io.github.sashirestela.cleverclient.annotation.Body;
 import io.github.sashirestela.cleverclient.annotation.GET;
 import io.github.sashirestela.cleverclient.annotation.Header;
@@ -9,6 +10,9 @@ import io.github.sashirestela.cleverclient.annotation.POST;
 import io.github.sashirestela.cleverclient.annotation.Path;
 import io.github.sashirestela.cleverclient.annotation.Query;
 import io.github.sashirestela.cleverclient.annotation.Resource;
+import io.github.sashirestela.cleverclient.annotation.ResumableStream;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat.Format;
 import io.github.sashirestela.cleverclient.annotation.StreamType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,8 +24,10 @@ import lombok.ToString;
 
 import java.io.InputStream;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.stream.Stream;
 
 public interface ITest {
@@ -64,7 +70,7 @@ public interface ITest {
     interface AsyncService {
 
         @GET
-        Set<Demo> unsupportedMethod();
+        Stream<InputStream> unsupportedMethod();
 
         @GET("/{demoId}")
         CompletableFuture<String> getDemoPlain(@Path("demoId") Integer demoId);
@@ -89,11 +95,26 @@ public interface ITest {
         @POST
         CompletableFuture<Stream<Demo>> getDemoStream(@Body RequestDemo request);
 
+        @GET("/export")
+        @StreamFormat(Format.JSON_ARRAY)
+        CompletableFuture<Stream<Demo>> exportDemos();
+
+        @GET("/feed")
+        @StreamFormat(Format.NDJSON)
+        CompletableFuture<Stream<Demo>> feedDemos();
+
         @POST
         @StreamType(type = Demo.class, events = { "created", "completed" })
         @StreamType(type = String.class, events = { "delta" })
         CompletableFuture<Stream<Event>> getStreamEvent(@Body RequestDemo request);
 
+        @POST
+        Flow.Publisher<Demo> publishDemos(@Body RequestDemo request);
+
+        @POST
+        @StreamType(type = Demo.class, events = { "created" })
+        Flow.Publisher<Event> publishEvents(@Body RequestDemo request);
+
         @Multipart
         @POST
         CompletableFuture<Demo> getFile(@Body RequestDemo request);
@@ -102,6 +123,14 @@ public interface ITest {
             return "Hello " + name;
         }
 
+        default String defaultMethodWithoutArgs() {
+            return defaultMethod("World");
+        }
+
+        default int defaultMethodWithPrimitives(int first, int second) {
+            return first + second;
+        }
+
     }
 
     @Resource("/demos")
@@ -126,13 +155,35 @@ public interface ITest {
         @Header(name = "MyHeader", value = "MyValue")
         List<Demo> getDemos();
 
+        @GET("/{demoId}")
+        Optional<Demo> getOptionalDemo(@Path("demoId") Integer demoId);
+
+        @GET
+        Map<String, List<Demo>> getGroupedDemos();
+
         @POST
         Stream<Demo> getDemoStream(@Body RequestDemo request);
 
+        @POST
+        @BatchedStream(maxSize = 8)
+        Stream<List<Demo>> getDemoBatches(@Body RequestDemo request);
+
+        @GET("/export")
+        @StreamFormat(Format.JSON_ARRAY)
+        Stream<Demo> exportDemos();
+
+        @GET("/feed")
+        @StreamFormat(Format.NDJSON)
+        Stream<List<Demo>> feedDemoBatches();
+
         @POST
         @StreamType(type = Demo.class, events = { "created" })
         Stream<Event> getStreamEvent(@Body RequestDemo request);
 
+        @POST("/resumable")
+        @ResumableStream(maxAttempts = 2)
+        Stream<Demo> resumeDemoStream(@Body RequestDemo request);
+
     }
 
     interface NotSavedService {
@@ -1,6 +1,9 @@
 package io.github.sashirestela.cleverclient.http;
 
+import io.github.sashirestela.cleverclient.client.EventStreamBodyHandler;
+import io.github.sashirestela.cleverclient.client.EventStreamPublisher;
 import io.github.sashirestela.cleverclient.client.JavaHttpClientAdapter;
+import io.github.sashirestela.cleverclient.client.JsonBodyHandler;
 import io.github.sashirestela.cleverclient.retry.RetryableRequest;
 import io.github.sashirestela.cleverclient.test.TestSupport.SyncType;
 
@@ -13,15 +16,22 @@ import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -31,13 +41,15 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
     HttpProcessor httpProcessor;
     HttpClient httpClient;
     HttpResponse<String> httpResponse;
-    HttpResponse<Stream<String>> httpResponseStream;
+    HttpResponse<byte[]> httpResponseBytes;
+    HttpResponse<Object> httpResponseStream;
     HttpResponse<InputStream> httpResponseBinary;
     HttpRequest httpRequest;
 
     JavaHttpProcessorTest() {
         httpClient = mock(HttpClient.class);
         httpResponse = mock(HttpResponse.class);
+        httpResponseBytes = mock(HttpResponse.class);
         httpResponseStream = mock(HttpResponse.class);
         httpResponseBinary = mock(HttpResponse.class);
         httpRequest = mock(HttpRequest.class);
@@ -45,10 +57,12 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
 
     @Override
     public HttpProcessor getHttpProcessor() {
+        var clientAdapter = new JavaHttpClientAdapter(httpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
         httpProcessor = HttpProcessor.builder()
                 .baseUrl("https://api.demo")
                 .headers(List.of())
-                .clientAdapter(new JavaHttpClientAdapter(httpClient))
+                .clientAdapter(clientAdapter)
                 .build();
         return httpProcessor;
     }
@@ -56,6 +70,7 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
     @Override
     public HttpProcessor getHttpProcessor(UnaryOperator<HttpResponseData> responseInterceptor) {
         var clientAdapter = new JavaHttpClientAdapter(httpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
         clientAdapter.setResponseInterceptor(responseInterceptor);
         httpProcessor = HttpProcessor.builder()
                 .baseUrl("https://api.demo")
@@ -68,6 +83,7 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
     @Override
     public HttpProcessor getHttpProcessor(RetryableRequest retrayableRequest) {
         var clientAdapter = new JavaHttpClientAdapter(httpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
         clientAdapter.setRetryableRequest(retrayableRequest);
         httpProcessor = HttpProcessor.builder()
                 .baseUrl("https://api.demo")
@@ -77,6 +93,19 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
         return httpProcessor;
     }
 
+    @Override
+    public HttpProcessor getHttpProcessor(int pipelineDepth) {
+        var clientAdapter = new JavaHttpClientAdapter(httpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
+        clientAdapter.setPipelineDepth(pipelineDepth);
+        httpProcessor = HttpProcessor.builder()
+                .baseUrl("https://api.demo")
+                .headers(List.of())
+                .clientAdapter(clientAdapter)
+                .build();
+        return httpProcessor;
+    }
+
     @Override
     public void setMocksForString(SyncType syncType, String result) throws IOException, InterruptedException {
         if (syncType == SyncType.SYNC) {
@@ -89,6 +118,29 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
         when(httpResponse.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
         when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
         when(httpResponse.body()).thenReturn(result);
+        setMocksForBytes(syncType, HttpURLConnection.HTTP_OK, result);
+    }
+
+    /**
+     * Json responses are read with BodyHandlers.ofByteArray or, when async, with JsonBodyHandler, so the
+     * same result is also served as bytes.
+     */
+    private void setMocksForBytes(SyncType syncType, int statusCode, String result)
+            throws IOException, InterruptedException {
+        if (syncType == SyncType.SYNC) {
+            when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofByteArray().getClass())))
+                    .thenReturn(httpResponseBytes);
+        } else {
+            when(httpClient.sendAsync(any(HttpRequest.class),
+                    any(HttpResponse.BodyHandlers.ofByteArray().getClass())))
+                    .thenReturn(CompletableFuture.completedFuture(httpResponseBytes));
+            doReturn(CompletableFuture.completedFuture(httpResponseBytes))
+                    .when(httpClient)
+                    .sendAsync(any(HttpRequest.class), any(JsonBodyHandler.class));
+        }
+        when(httpResponseBytes.statusCode()).thenReturn(statusCode);
+        when(httpResponseBytes.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
+        when(httpResponseBytes.body()).thenReturn(result.getBytes(StandardCharsets.UTF_8));
     }
 
     @Override
@@ -108,30 +160,130 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
 
     @Override
     public void setMocksForStream(SyncType syncType, Stream<String> result) throws IOException, InterruptedException {
+        var bytes = toBytes(result);
+        var bodyHandler = new AtomicReference<EventStreamBodyHandler>();
         if (syncType == SyncType.SYNC) {
-            when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofLines().getClass())))
-                    .thenReturn(httpResponseStream);
+            when(httpClient.send(any(HttpRequest.class), any(EventStreamBodyHandler.class)))
+                    .thenAnswer(invocation -> {
+                        bodyHandler.set(invocation.getArgument(1));
+                        return httpResponseStream;
+                    });
         } else {
-            when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofLines().getClass())))
-                    .thenReturn(CompletableFuture.completedFuture(httpResponseStream));
+            when(httpClient.sendAsync(any(HttpRequest.class), any(EventStreamBodyHandler.class)))
+                    .thenAnswer(invocation -> {
+                        bodyHandler.set(invocation.getArgument(1));
+                        return CompletableFuture.completedFuture(httpResponseStream);
+                    });
         }
         when(httpResponseStream.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
         when(httpResponseStream.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
-        when(httpResponseStream.body()).thenReturn(result);
+        when(httpResponseStream.body()).thenAnswer(invocation -> serverSentEvents(bodyHandler.get(), bytes));
+    }
+
+    @Override
+    public List<String> setMocksForResumedStream(Stream<String> failedResult, Stream<String> resumedResult)
+            throws IOException, InterruptedException {
+        var results = List.of(toBytes(failedResult), toBytes(resumedResult));
+        List<String> lastEventIds = new ArrayList<>();
+        when(httpClient.send(any(HttpRequest.class), any(EventStreamBodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    HttpRequest request = invocation.getArgument(0);
+                    lastEventIds.add(request.headers().firstValue("Last-Event-ID").orElse(""));
+                    var failure = lastEventIds.size() == 1 ? new IOException("Connection reset") : null;
+                    var body = serverSentEvents(invocation.getArgument(1), results.get(lastEventIds.size() - 1),
+                            failure);
+                    HttpResponse<Object> response = mock(HttpResponse.class);
+                    when(response.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+                    when(response.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
+                    when(response.body()).thenReturn(body);
+                    return response;
+                });
+        return lastEventIds;
+    }
+
+    private static Object serverSentEvents(EventStreamBodyHandler bodyHandler, byte[] bytes) {
+        return serverSentEvents(bodyHandler, bytes, null);
+    }
+
+    /**
+     * Frames the bytes through the subscriber of the EventStreamBodyHandler sent by the adapter, as the
+     * HttpClient delivers them, so the events are resolved by the parser of the method. With a failure
+     * the response fails after the bytes instead of completing.
+     */
+    private static Object serverSentEvents(EventStreamBodyHandler bodyHandler, byte[] bytes, Throwable failure) {
+        var responseInfo = mock(HttpResponse.ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        var subscriber = bodyHandler.apply(responseInfo);
+        subscriber.onSubscribe(mock(Flow.Subscription.class));
+        subscriber.onNext(List.of(ByteBuffer.wrap(bytes)));
+        if (failure != null) {
+            subscriber.onError(failure);
+        } else {
+            subscriber.onComplete();
+        }
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    @Override
+    public void setMocksForPublisher(Stream<String> result) throws IOException, InterruptedException {
+        var bytes = toBytes(result);
+        var bodyHandler = new AtomicReference<EventStreamBodyHandler>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(EventStreamBodyHandler.class)))
+                .thenAnswer(invocation -> {
+                    bodyHandler.set(invocation.getArgument(1));
+                    return CompletableFuture.completedFuture(httpResponseStream);
+                });
+        when(httpResponseStream.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(httpResponseStream.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
+        when(httpResponseStream.body()).thenAnswer(invocation -> eventPublisher(bodyHandler.get(), bytes));
+    }
+
+    /**
+     * Subscribes the EventStreamPublisher of the body handler to a subscription that delivers the bytes
+     * in one chunk.
+     */
+    private static Object eventPublisher(EventStreamBodyHandler bodyHandler, byte[] bytes) {
+        var responseInfo = mock(HttpResponse.ResponseInfo.class);
+        when(responseInfo.statusCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        var publisher = (EventStreamPublisher) bodyHandler.apply(responseInfo);
+        publisher.onSubscribe(new Flow.Subscription() {
+
+            private boolean sent = false;
+
+            @Override
+            public void request(long n) {
+                if (sent) {
+                    publisher.onComplete();
+                } else {
+                    sent = true;
+                    publisher.onNext(List.of(ByteBuffer.wrap(bytes)));
+                }
+            }
+
+            @Override
+            public void cancel() {
+                sent = true;
+            }
+
+        });
+        return publisher;
     }
 
     @Override
     public void setMocksForException() throws IOException, InterruptedException {
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofString().getClass())))
                 .thenThrow(new InterruptedException("The operation was interrupted"));
+        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofByteArray().getClass())))
+                .thenThrow(new InterruptedException("The operation was interrupted"));
         when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofInputStream().getClass())))
                 .thenThrow(new InterruptedException("The operation was interrupted"));
-        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofLines().getClass())))
+        when(httpClient.send(any(HttpRequest.class), any(EventStreamBodyHandler.class)))
                 .thenThrow(new InterruptedException("The operation was interrupted"));
     }
 
     @Override
-    public void setMocksForStringWithError(String result) throws IOException, URISyntaxException {
+    public void setMocksForStringWithError(String result)
+            throws IOException, InterruptedException, URISyntaxException {
         when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofString().getClass())))
                 .thenReturn(CompletableFuture.completedFuture(httpResponse));
         when(httpRequest.method()).thenReturn("GET");
@@ -141,6 +293,8 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
         when(httpResponse.body()).thenReturn(result);
         when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
         when(httpResponse.request()).thenReturn(httpRequest);
+        setMocksForBytes(SyncType.ASYNC, HttpURLConnection.HTTP_NOT_FOUND, result);
+        when(httpResponseBytes.request()).thenReturn(httpRequest);
     }
 
     @Override
@@ -158,13 +312,13 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
 
     @Override
     public void setMocksForStreamWithError(Stream<String> result) throws IOException, URISyntaxException {
-        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandlers.ofLines().getClass())))
+        when(httpClient.sendAsync(any(HttpRequest.class), any(EventStreamBodyHandler.class)))
                 .thenReturn(CompletableFuture.completedFuture(httpResponseStream));
         when(httpRequest.method()).thenReturn("GET");
         when(httpRequest.uri()).thenReturn(new URI("https://api.com"));
         when(httpRequest.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
         when(httpResponseStream.statusCode()).thenReturn(HttpURLConnection.HTTP_NOT_FOUND);
-        when(httpResponseStream.body()).thenReturn(result);
+        when(httpResponseStream.body()).thenReturn(result.collect(Collectors.joining("\n")));
         when(httpResponseStream.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
         when(httpResponseStream.request()).thenReturn(httpRequest);
     }
@@ -180,6 +334,8 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
         when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (t, s) -> true));
         when(httpResponse.body()).thenReturn(result);
         when(httpResponse.request()).thenReturn(httpRequest);
+        setMocksForBytes(SyncType.ASYNC, HttpURLConnection.HTTP_OK, result);
+        when(httpResponseBytes.request()).thenReturn(httpRequest);
     }
 
     @Override
@@ -192,4 +348,8 @@ class JavaHttpProcessorTest implements HttpProcessorTest {
         assertDoesNotThrow(() -> customAdapter.shutdown());
     }
 
+    private static byte[] toBytes(Stream<String> lines) {
+        return lines.collect(Collectors.joining("\n", "", "\n")).getBytes(StandardCharsets.UTF_8);
+    }
+
 }
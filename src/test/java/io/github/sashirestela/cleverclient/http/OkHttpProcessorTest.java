@@ -5,19 +5,24 @@ import io.github.sashirestela.cleverclient.retry.RetryableRequest;
 import io.github.sashirestela.cleverclient.test.TestSupport.SyncType;
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Okio;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -49,10 +54,12 @@ class OkHttpProcessorTest implements HttpProcessorTest {
 
     @Override
     public HttpProcessor getHttpProcessor() {
+        var clientAdapter = new OkHttpClientAdapter(okHttpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
         httpProcessor = HttpProcessor.builder()
                 .baseUrl("https://api.demo")
                 .headers(List.of())
-                .clientAdapter(new OkHttpClientAdapter(okHttpClient))
+                .clientAdapter(clientAdapter)
                 .build();
         return httpProcessor;
     }
@@ -60,6 +67,7 @@ class OkHttpProcessorTest implements HttpProcessorTest {
     @Override
     public HttpProcessor getHttpProcessor(UnaryOperator<HttpResponseData> responseInterceptor) {
         var clientAdapter = new OkHttpClientAdapter(okHttpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
         clientAdapter.setResponseInterceptor(responseInterceptor);
         httpProcessor = HttpProcessor.builder()
                 .baseUrl("https://api.demo")
@@ -72,6 +80,7 @@ class OkHttpProcessorTest implements HttpProcessorTest {
     @Override
     public HttpProcessor getHttpProcessor(RetryableRequest retrayableRequest) {
         var clientAdapter = new OkHttpClientAdapter(okHttpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
         clientAdapter.setRetryableRequest(retrayableRequest);
         httpProcessor = HttpProcessor.builder()
                 .baseUrl("https://api.demo")
@@ -81,6 +90,19 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         return httpProcessor;
     }
 
+    @Override
+    public HttpProcessor getHttpProcessor(int pipelineDepth) {
+        var clientAdapter = new OkHttpClientAdapter(okHttpClient);
+        clientAdapter.setEndsOfStream(List.of("END"));
+        clientAdapter.setPipelineDepth(pipelineDepth);
+        httpProcessor = HttpProcessor.builder()
+                .baseUrl("https://api.demo")
+                .headers(List.of())
+                .clientAdapter(clientAdapter)
+                .build();
+        return httpProcessor;
+    }
+
     @Override
     public void setMocksForString(SyncType syncType, String result) throws IOException {
         when(okHttpClient.newCall(any(okhttp3.Request.class))).thenReturn(call);
@@ -97,6 +119,7 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         when(okHttpResponse.headers()).thenReturn(okhttp3.Headers.of(Map.of()));
         when(okHttpResponse.body()).thenReturn(responseBody);
         when(responseBody.string()).thenReturn(result);
+        when(responseBody.bytes()).thenReturn(result.getBytes(StandardCharsets.UTF_8));
     }
 
     @Override
@@ -132,8 +155,45 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         when(okHttpResponse.code()).thenReturn(HttpURLConnection.HTTP_OK);
         when(okHttpResponse.headers()).thenReturn(okhttp3.Headers.of(Map.of()));
         when(okHttpResponse.body()).thenReturn(responseBody);
-        when(responseBody.byteStream()).thenReturn(
-                new ByteArrayInputStream(result.collect(Collectors.joining("\n")).getBytes(StandardCharsets.UTF_8)));
+        when(responseBody.source()).thenReturn(Okio.buffer(Okio.source(
+                new ByteArrayInputStream(toBytes(result)))));
+    }
+
+    @Override
+    public List<String> setMocksForResumedStream(Stream<String> failedResult, Stream<String> resumedResult) {
+        var results = List.of(toBytes(failedResult), toBytes(resumedResult));
+        List<String> lastEventIds = new ArrayList<>();
+        when(okHttpClient.newCall(any(okhttp3.Request.class))).thenAnswer(invocation -> {
+            okhttp3.Request request = invocation.getArgument(0);
+            lastEventIds.add(Optional.ofNullable(request.header("Last-Event-ID")).orElse(""));
+            InputStream input = new ByteArrayInputStream(results.get(lastEventIds.size() - 1));
+            if (lastEventIds.size() == 1) {
+                input = new SequenceInputStream(input, new InputStream() {
+
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+
+                });
+            }
+            var body = mock(ResponseBody.class);
+            when(body.source()).thenReturn(Okio.buffer(Okio.source(input)));
+            var response = mock(Response.class);
+            when(response.code()).thenReturn(HttpURLConnection.HTTP_OK);
+            when(response.headers()).thenReturn(okhttp3.Headers.of(Map.of()));
+            when(response.body()).thenReturn(body);
+            var resumedCall = mock(Call.class);
+            when(resumedCall.execute()).thenReturn(response);
+            return resumedCall;
+        });
+        return lastEventIds;
+    }
+
+    @Override
+    public void setMocksForPublisher(Stream<String> result) throws IOException {
+        setMocksForStream(SyncType.ASYNC, result);
+        when(okHttpClient.dispatcher()).thenReturn(new Dispatcher());
     }
 
     @Override
@@ -158,6 +218,7 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         when(okHttpResponse.headers()).thenReturn(okhttp3.Headers.of(Map.of()));
         when(okHttpResponse.body()).thenReturn(responseBody);
         when(responseBody.string()).thenReturn(result);
+        when(responseBody.bytes()).thenReturn(result.getBytes(StandardCharsets.UTF_8));
         when(okHttpResponse.request()).thenReturn(okHttpRequest);
     }
 
@@ -195,8 +256,7 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         when(okHttpResponse.code()).thenReturn(HttpURLConnection.HTTP_NOT_FOUND);
         when(okHttpResponse.headers()).thenReturn(okhttp3.Headers.of(Map.of()));
         when(okHttpResponse.body()).thenReturn(responseBody);
-        when(responseBody.byteStream()).thenReturn(
-                new ByteArrayInputStream(result.collect(Collectors.joining("\n")).getBytes(StandardCharsets.UTF_8)));
+        when(responseBody.string()).thenReturn(result.collect(Collectors.joining("\n")));
         when(okHttpResponse.request()).thenReturn(okHttpRequest);
     }
 
@@ -216,6 +276,7 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         when(okHttpResponse.headers()).thenReturn(okhttp3.Headers.of(Map.of()));
         when(okHttpResponse.body()).thenReturn(responseBody);
         when(responseBody.string()).thenReturn(result);
+        when(responseBody.bytes()).thenReturn(result.getBytes(StandardCharsets.UTF_8));
         when(okHttpResponse.request()).thenReturn(okHttpRequest);
     }
 
@@ -229,4 +290,8 @@ class OkHttpProcessorTest implements HttpProcessorTest {
         assertDoesNotThrow(() -> customAdapter.shutdown());
     }
 
+    private static byte[] toBytes(Stream<String> lines) {
+        return lines.collect(Collectors.joining("\n", "", "\n")).getBytes(StandardCharsets.UTF_8);
+    }
+
 }
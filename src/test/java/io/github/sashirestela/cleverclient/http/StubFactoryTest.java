@@ -0,0 +1,101 @@
+package io.github.sashirestela.cleverclient.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StubFactoryTest {
+
+    @Test
+    void shouldCallTheStubOfEachMethodFromTheDefinedClass() {
+        List<Method> stubbedMethods = new ArrayList<>();
+        List<Object[]> calls = new ArrayList<>();
+        var service = StubFactory.create(NumberService.class, method -> {
+            stubbedMethods.add(method);
+            return arguments -> {
+                calls.add(arguments);
+                return method.getName().equals("sum") ? (Object) 42L : "text";
+            };
+        }).orElseThrow();
+
+        assertFalse(Proxy.isProxyClass(service.getClass()));
+        assertEquals(NumberService.class.getName() + "$$CleverClientStub", service.getClass().getName());
+        assertSame(NumberService.class.getClassLoader(), service.getClass().getClassLoader());
+        assertEquals(List.of("sum", "text", "text"),
+                stubbedMethods.stream().map(Method::getName).collect(Collectors.toList()));
+        assertArrayEquals(new Class<?>[] { int.class }, stubbedMethods.get(1).getParameterTypes());
+        assertEquals(42L, service.sum(1, 2.5, true));
+        assertEquals("text", service.text("a"));
+        assertEquals("text", service.text(1));
+        assertEquals(6, service.twice(3));
+        assertArrayEquals(new Object[] { 1, 2.5, true }, calls.get(0));
+        assertArrayEquals(new Object[] { "a" }, calls.get(1));
+        assertArrayEquals(new Object[] { 1 }, calls.get(2));
+    }
+
+    @Test
+    void shouldDefineTheClassOnceWhenSeveralThreadsCreateTheSameInterface() throws Exception {
+        var threads = 8;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Class<?>>> tasks = new ArrayList<>();
+            for (var i = 0; i < threads; i++) {
+                tasks.add(() -> {
+                    start.await();
+                    return StubFactory.create(TextService.class, method -> arguments -> "text")
+                            .orElseThrow()
+                            .getClass();
+                });
+            }
+            var futures = new ArrayList<Future<Class<?>>>();
+            for (var task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            var first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (var future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    interface NumberService {
+
+        String text(int value);
+
+        String text(String value);
+
+        long sum(int first, double second, boolean exact);
+
+        default int twice(int value) {
+            return value * 2;
+        }
+
+    }
+
+    interface TextService {
+
+        String text();
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.github.sashirestela.cleverclient.http;
+
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.AnnotationMetadata;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class URLTemplateTest {
+
+    @Test
+    void shouldReturnSameUrlWhenTemplateHasNoPlaceholders() {
+        var url = "/api/domain/entities";
+        var template = URLTemplate.compile(url, List.of());
+        assertFalse(template.hasPlaceholders());
+        assertEquals(url, template.expand(new Object[] {}));
+    }
+
+    @Test
+    void shouldExpandPlaceholdersInOrderWhenTemplateHasSeveralOnes() {
+        var template = URLTemplate.compile("/api/{first}/items/{second}{third}",
+                List.of(pathParameter(2, "second"), pathParameter(0, "first"), pathParameter(1, "third")));
+        var actualUrl = template.expand(new Object[] { 10, ".json", 20 });
+        assertEquals("/api/10/items/20.json", actualUrl);
+    }
+
+    @Test
+    void shouldPercentEncodeValuesAsPathSegments() {
+        var template = URLTemplate.compile("/files/{name}", List.of(pathParameter(0, "name")));
+        var actualUrl = template.expand(new Object[] { "a b/c?d#e%f~g:h@i+j ñ€" });
+        assertEquals("/files/a%20b%2Fc%3Fd%23e%25f~g:h@i+j%20%C3%B1%E2%82%AC", actualUrl);
+    }
+
+    @Test
+    void shouldKeepPlaceholderWhenThereIsNoMatchingPathParameter() {
+        var template = URLTemplate.compile("/api/{unknown}/items/{id}", List.of(pathParameter(0, "id")));
+        assertEquals("/api/{unknown}/items/5", template.expand(new Object[] { 5 }));
+    }
+
+    @Test
+    void shouldThrownExceptionWhenPathValueIsNull() {
+        var template = URLTemplate.compile("/api/items/{id}", List.of(pathParameter(0, "id")));
+        var arguments = new Object[] { null };
+        Exception exception = assertThrows(CleverClientException.class, () -> template.expand(arguments));
+        assertEquals("The value of the path param id cannot be null.", exception.getMessage());
+    }
+
+    private static ParameterMetadata pathParameter(int index, String name) {
+        return ParameterMetadata.builder()
+                .index(index)
+                .annotation(AnnotationMetadata.builder()
+                        .name("Path")
+                        .isHttpMethod(false)
+                        .valueByField(Map.of("value", name))
+                        .build())
+                .build();
+    }
+
+}
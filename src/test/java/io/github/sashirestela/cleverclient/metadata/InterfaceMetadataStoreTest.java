@@ -1,19 +1,38 @@
 package io.github.sashirestela.cleverclient.metadata;
 
+import io.github.sashirestela.cleverclient.annotation.Body;
+import io.github.sashirestela.cleverclient.annotation.DELETE;
+import io.github.sashirestela.cleverclient.annotation.GET;
+import io.github.sashirestela.cleverclient.annotation.PATCH;
+import io.github.sashirestela.cleverclient.annotation.POST;
+import io.github.sashirestela.cleverclient.annotation.Path;
+import io.github.sashirestela.cleverclient.annotation.Query;
+import io.github.sashirestela.cleverclient.annotation.Resource;
 import io.github.sashirestela.cleverclient.http.ITest;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.AnnotationMetadata;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.MethodMetadata;
 import io.github.sashirestela.cleverclient.metadata.InterfaceMetadata.ParameterMetadata;
 import io.github.sashirestela.cleverclient.support.CleverClientException;
+import io.github.sashirestela.cleverclient.support.ContentType;
 import io.github.sashirestela.cleverclient.support.ReturnType;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static io.github.sashirestela.cleverclient.util.CommonUtil.createMapString;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class InterfaceMetadataStoreTest {
@@ -128,6 +147,31 @@ class InterfaceMetadataStoreTest {
         assertEquals(expectedInterfaceMetadata.toString(), actualInterfaceMetadata.toString());
     }
 
+    @Test
+    void shouldCompileInvocationPlanWhenInterfaceIsSaved() throws NoSuchMethodException {
+        var interfaceClass = ITest.GoodService.class;
+        store.save(interfaceClass);
+        var method = interfaceClass.getMethod("demoPostMethod", ITest.RequestDemo.class, Long.class);
+        var plan = store.getPlan(method);
+        assertEquals("/api/demos/{demoId}", plan.getUrl());
+        assertEquals("POST", plan.getHttpMethod());
+        assertEquals(0, plan.getBodyIndex());
+        assertEquals(ContentType.MULTIPART_FORMDATA, plan.getContentType());
+        assertEquals(List.of("Content-Type",
+                ContentType.MULTIPART_FORMDATA.getMimeType() + ContentType.MULTIPART_FORMDATA.getDetails(),
+                "FirstKey", "FirstVal", "SecondKey", "SecondVal", "ThirdKey", "ThirdVal"), plan.getHeaders());
+        assertEquals("io.github.sashirestela.cleverclient.http.ITest$Demo", plan.getReturnType().toString());
+        assertEquals(1, plan.getPathParameters().size());
+        assertEquals(0, plan.getQueryParameters().size());
+    }
+
+    @Test
+    void shouldThrownExceptionWhenTryingToGetPlanOfNotPreviouslySavedMethod() throws NoSuchMethodException {
+        var method = ITest.NotSavedService.class.getMethod("goodMethod");
+        Exception exception = assertThrows(CleverClientException.class, () -> store.getPlan(method));
+        assertEquals("The method goodMethod has not been saved yet.", exception.getMessage());
+    }
+
     @Test
     void shouldThrownExceptionWhenTryingToGetNotPreviouslySavedInterface() {
         Exception exception = assertThrows(CleverClientException.class,
@@ -157,4 +201,86 @@ class InterfaceMetadataStoreTest {
         assertDoesNotThrow(() -> store.save(ITest.WithResourcePathParamAndDefaultMethods.class));
     }
 
+    @Test
+    void shouldBuildPlanOnFirstCallWhenInterfaceIsSavedLazily() throws NoSuchMethodException {
+        var interfaceClass = ITest.BadPathParamService.class;
+        assertDoesNotThrow(() -> store.saveLazily(interfaceClass));
+        var goodMethod = interfaceClass.getMethod("goodMethod");
+        var badMethod = interfaceClass.getMethod("unmatchedPathParamMethod", int.class);
+        assertFalse(store.hasPlan(goodMethod));
+        var plan = store.getPlan(goodMethod);
+        assertEquals("/demos", plan.getUrl());
+        assertSame(plan, store.getPlan(goodMethod));
+        Exception exception = assertThrows(CleverClientException.class, () -> store.getPlan(badMethod));
+        assertEquals(
+                "Path param demoId in the url cannot find an annotated argument in the method unmatchedPathParamMethod.",
+                exception.getMessage());
+    }
+
+    @Test
+    void shouldSaveOnceAndReadSafelyWhenManyThreadsUseTheStoreConcurrently() throws Exception {
+        var interfaces = List.of(ConcurrentFirstService.class, ConcurrentSecondService.class,
+                ConcurrentThirdService.class);
+        var threads = 16;
+        var startGate = new CyclicBarrier(threads);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Object>>> results = new ArrayList<>();
+            for (var t = 0; t < threads; t++) {
+                var offset = t;
+                results.add(executor.submit(() -> {
+                    startGate.await();
+                    List<Object> seen = new ArrayList<>();
+                    for (var i = 0; i < interfaces.size(); i++) {
+                        var interfaceClass = interfaces.get((i + offset) % interfaces.size());
+                        store.save(interfaceClass);
+                        seen.add(store.get(interfaceClass));
+                        for (var method : interfaceClass.getDeclaredMethods()) {
+                            seen.add(store.getPlan(method));
+                        }
+                    }
+                    return seen;
+                }));
+            }
+            Map<Object, Boolean> distinct = new IdentityHashMap<>();
+            for (var result : results) {
+                result.get(30, TimeUnit.SECONDS).forEach(object -> distinct.put(object, true));
+            }
+            var expected = interfaces.size() + interfaces.stream().mapToInt(i -> i.getDeclaredMethods().length).sum();
+            assertEquals(expected, distinct.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Resource("/concurrent/first")
+    interface ConcurrentFirstService {
+
+        @GET("/{id}")
+        String getOne(@Path("id") Integer id);
+
+        @DELETE("/{id}")
+        String deleteOne(@Path("id") Integer id);
+
+    }
+
+    @Resource("/concurrent/second")
+    interface ConcurrentSecondService {
+
+        @GET
+        List<String> getAll(@Query("limit") Integer limit);
+
+    }
+
+    @Resource("/concurrent/third")
+    interface ConcurrentThirdService {
+
+        @POST
+        String create(@Body String body);
+
+        @PATCH("/{id}")
+        String update(@Path("id") Integer id, @Body String body);
+
+    }
+
 }
@@ -0,0 +1,220 @@
+package io.github.sashirestela.cleverclient.processor;
+
+import io.github.sashirestela.cleverclient.client.HttpClientAdapter;
+import io.github.sashirestela.cleverclient.client.RequestData;
+import io.github.sashirestela.cleverclient.http.HttpProcessor;
+import io.github.sashirestela.cleverclient.metadata.InterfaceMetadataStore;
+import io.github.sashirestela.cleverclient.metadata.InvocationPlan;
+import io.github.sashirestela.cleverclient.support.CleverClientException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import javax.tools.ToolProvider;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResourceProcessorTest {
+
+    private static final String SOURCE = "package demo;\n"
+            + "import io.github.sashirestela.cleverclient.annotation.*;\n"
+            + "import java.util.List;\n"
+            + "import java.util.concurrent.CompletableFuture;\n"
+            + "public interface Outer {\n"
+            + "    @Resource(\"/demos\")\n"
+            + "    interface DemoService {\n"
+            + "        @GET(\"/{demoId}\")\n"
+            + "        String getDemo(@Path(\"demoId\") Integer demoId);\n"
+            + "        @GET\n"
+            + "        CompletableFuture<List<String>> getDemos(@Query(\"tags\") String... tags);\n"
+            + "        default String getDemoOne() {\n"
+            + "            return getDemo(1);\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String PLAN_SOURCE = "package demo;\n"
+            + "import io.github.sashirestela.cleverclient.Event;\n"
+            + "import io.github.sashirestela.cleverclient.annotation.*;\n"
+            + "import java.util.*;\n"
+            + "import java.util.concurrent.CompletableFuture;\n"
+            + "import java.util.stream.Stream;\n"
+            + "@Resource(\"/plans\")\n"
+            + "@Header(name = \"First\", value = \"One\")\n"
+            + "@Header(name = \"Second\", value = \"Two\")\n"
+            + "@MediaType(\"application/json\")\n"
+            + "public interface PlanService {\n"
+            + "    @POST(\"/{id}/files\")\n"
+            + "    @Multipart\n"
+            + "    @Header(name = \"Third\", value = \"Three\")\n"
+            + "    String upload(@Path(\"id\") long id, @Body Map<String, Object> form, @Query(\"tag\") String tag);\n"
+            + "    @GET(\"/events\")\n"
+            + "    @StreamType(type = String.class, events = { \"created\", \"completed\" })\n"
+            + "    @StreamType(type = Integer.class, events = { \"delta\" })\n"
+            + "    @ResumableStream(maxAttempts = 3)\n"
+            + "    Stream<Event> events();\n"
+            + "    @GET(\"/batches\")\n"
+            + "    @BatchedStream(maxSize = 8, maxDelayMs = 5)\n"
+            + "    Stream<List<String>> batches();\n"
+            + "    @GET(\"/lines\")\n"
+            + "    @StreamFormat(StreamFormat.Format.NDJSON)\n"
+            + "    CompletableFuture<Stream<Map<String, List<Integer>>>> lines();\n"
+            + "    @GET(\"/generic\")\n"
+            + "    <T extends Number> Optional<T[]> generic(@Query Map<String, Object> filter);\n"
+            + "    @PUT(\"/bounded\")\n"
+            + "    List<? extends CharSequence> bounded(@Body Object body);\n"
+            + "}\n";
+
+    private static final String BROKEN_SOURCE = "package demo;\n"
+            + "import io.github.sashirestela.cleverclient.annotation.*;\n"
+            + "@Resource(\"/broken\")\n"
+            + "public interface Broken {\n"
+            + "    @GET\n"
+            + "    String get();\n"
+            + "}\n";
+
+    private static final String BROKEN_GENERATED_SOURCE = "package demo;\n"
+            + "public final class Broken_CleverClient implements Broken {\n"
+            + "    static {\n"
+            + "        if (true) {\n"
+            + "            throw new IllegalStateException(\"Cannot build the plans.\");\n"
+            + "        }\n"
+            + "    }\n"
+            + "    public Broken_CleverClient(io.github.sashirestela.cleverclient.http.HttpProcessor httpProcessor) {\n"
+            + "    }\n"
+            + "    public String get() {\n"
+            + "        return null;\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldGenerateClassThatIsUsedInsteadOfProxy() throws Exception {
+        var classLoader = compile(Map.of("Outer.java", SOURCE), "-processor", ResourceProcessor.class.getName());
+        var interfaceClass = classLoader.loadClass("demo.Outer$DemoService");
+        var clientAdapter = mock(HttpClientAdapter.class);
+        when(clientAdapter.sendRequest(any())).thenReturn("Demo 1");
+        var httpProcessor = HttpProcessor.builder()
+                .baseUrl("https://test")
+                .headers(List.of())
+                .clientAdapter(clientAdapter)
+                .build();
+
+        var service = httpProcessor.createProxy(interfaceClass);
+        assertFalse(Proxy.isProxyClass(service.getClass()));
+        assertEquals("demo.Outer_DemoService_CleverClient", service.getClass().getName());
+        assertTrue(Files.exists(tempDir.resolve("classes/demo/Outer_DemoService_CleverClient.java")));
+
+        var actualValue = interfaceClass.getMethod("getDemoOne").invoke(service);
+        assertEquals("Demo 1", actualValue);
+        var requestCaptor = ArgumentCaptor.forClass(RequestData.class);
+        verify(clientAdapter).sendRequest(requestCaptor.capture());
+        assertEquals("https://test/demos/1", requestCaptor.getValue().getUrl());
+        assertEquals("GET", requestCaptor.getValue().getHttpMethod());
+        var exception = assertThrows(CleverClientException.class,
+                () -> InterfaceMetadataStore.one().get(interfaceClass));
+        assertEquals("The interface DemoService has not been saved yet.", exception.getMessage());
+        var generatedSource = Files.readString(tempDir.resolve("classes/demo/Outer_DemoService_CleverClient.java"));
+        assertFalse(generatedSource.contains("java.lang.reflect"));
+    }
+
+    @Test
+    void shouldGenerateThePlansThatTheMetadataStoreBuildsAtRuntime() throws Exception {
+        var classLoader = compile(Map.of("PlanService.java", PLAN_SOURCE), "-processor",
+                ResourceProcessor.class.getName());
+        var interfaceClass = classLoader.loadClass("demo.PlanService");
+        var generatedClass = classLoader.loadClass("demo.PlanService_CleverClient");
+        Map<String, InvocationPlan> generatedPlans = new HashMap<>();
+        for (var field : generatedClass.getDeclaredFields()) {
+            if (field.getType() == InvocationPlan.class) {
+                field.setAccessible(true);
+                var plan = (InvocationPlan) field.get(null);
+                generatedPlans.put(plan.getUrl(), plan);
+            }
+        }
+        var store = InterfaceMetadataStore.one();
+        store.save(interfaceClass);
+        assertEquals(interfaceClass.getDeclaredMethods().length, generatedPlans.size());
+        for (var method : interfaceClass.getDeclaredMethods()) {
+            var expected = store.getPlan(method);
+            var actual = generatedPlans.get(expected.getUrl());
+            assertEquals(expected.getHttpMethod(), actual.getHttpMethod());
+            assertEquals(expected.getBodyIndex(), actual.getBodyIndex());
+            assertEquals(expected.getContentType(), actual.getContentType());
+            assertEquals(expected.getMediaType(), actual.getMediaType());
+            assertEquals(expected.getHeaders(), actual.getHeaders());
+            assertEquals(expected.getPathParameters(), actual.getPathParameters());
+            assertEquals(expected.getQueryParameters(), actual.getQueryParameters());
+            var expectedType = expected.getReturnType();
+            var actualType = actual.getReturnType();
+            assertEquals(expectedType.category(), actualType.category());
+            assertEquals(expectedType.getJavaType(), actualType.getJavaType());
+            assertEquals(expectedType.getBaseClass(), actualType.getBaseClass());
+            assertEquals(expectedType.getStreamFormat(), actualType.getStreamFormat());
+            assertEquals(expectedType.getClassByEvent(), actualType.getClassByEvent());
+            assertEquals(expectedType.getBatched() == null, actualType.getBatched() == null);
+            if (expectedType.getBatched() != null) {
+                assertEquals(expectedType.getBatched().maxSize(), actualType.getBatched().maxSize());
+                assertEquals(expectedType.getBatched().maxDelayMs(), actualType.getBatched().maxDelayMs());
+            }
+            assertEquals(expectedType.getResumable() == null, actualType.getResumable() == null);
+            if (expectedType.getResumable() != null) {
+                assertEquals(expectedType.getResumable().maxAttempts(), actualType.getResumable().maxAttempts());
+            }
+        }
+    }
+
+    @Test
+    void shouldThrowTheErrorOfAGeneratedClassThatCannotBeInitialized() throws Exception {
+        var classLoader = compile(Map.of("Broken.java", BROKEN_SOURCE, "Broken_CleverClient.java",
+                BROKEN_GENERATED_SOURCE), "-proc:none");
+        var interfaceClass = classLoader.loadClass("demo.Broken");
+        var httpProcessor = HttpProcessor.builder()
+                .baseUrl("https://test")
+                .headers(List.of())
+                .clientAdapter(mock(HttpClientAdapter.class))
+                .build();
+
+        var error = assertThrows(ExceptionInInitializerError.class, () -> httpProcessor.createProxy(interfaceClass));
+        assertEquals("Cannot build the plans.", error.getCause().getMessage());
+    }
+
+    private URLClassLoader compile(Map<String, String> sources, String... options) throws IOException {
+        var classesDir = Files.createDirectory(tempDir.resolve("classes"));
+        List<String> arguments = new ArrayList<>(List.of(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classesDir.toString()));
+        arguments.addAll(List.of(options));
+        for (var source : sources.entrySet()) {
+            var sourceFile = tempDir.resolve(source.getKey());
+            Files.writeString(sourceFile, source.getValue(), StandardCharsets.UTF_8);
+            arguments.add(sourceFile.toString());
+        }
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var result = compiler.run(null, null, null, arguments.toArray(new String[0]));
+        assertEquals(0, result);
+        return new URLClassLoader(new URL[] { classesDir.toUri().toURL() }, getClass().getClassLoader());
+    }
+
+}
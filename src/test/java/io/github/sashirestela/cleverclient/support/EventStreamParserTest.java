@@ -0,0 +1,142 @@
+package io.github.sashirestela.cleverclient.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventStreamParserTest {
+
+    @Test
+    void shouldDispatchEventsWithJoinedDataOnBlankLines() {
+        var parser = new EventStreamParser(List.of("END"), eventTypes("process"));
+        var lines = List.of(": comment", "event: process", "data: first", "data:second", "data", "",
+                "data:  indented", "", "data: END", "");
+        List<String> dispatched = new ArrayList<>();
+        for (var line : lines) {
+            if (feed(parser, line)) {
+                dispatched.add(parser.getName() + "|" + dataText(parser));
+            }
+        }
+        assertEquals(List.of("process|first\nsecond\n", "| indented"), dispatched);
+    }
+
+    @Test
+    void shouldResolveKnownEventNamesAndResetThemAfterDispatch() {
+        var parser = new EventStreamParser(List.of(), eventTypes("process"));
+        feed(parser, "event:process");
+        feed(parser, "data: one");
+        assertTrue(feed(parser, ""));
+        assertSame("process", parser.getName());
+        feed(parser, "data: two");
+        assertTrue(feed(parser, ""));
+        assertSame(EventStreamParser.UNNAMED, parser.getName());
+        feed(parser, "event: other");
+        feed(parser, "data: three");
+        assertTrue(feed(parser, ""));
+        assertEquals("other", parser.getName());
+    }
+
+    @Test
+    void shouldIgnoreEventNamesWithoutData() {
+        var parser = new EventStreamParser(List.of(), eventTypes("process"));
+        feed(parser, "event: process");
+        assertFalse(feed(parser, ""));
+        feed(parser, "data: one");
+        assertTrue(feed(parser, ""));
+        assertSame(EventStreamParser.UNNAMED, parser.getName());
+    }
+
+    @Test
+    void shouldKeepTheLastIdAndTheRetryAcrossEvents() {
+        var parser = new EventStreamParser(List.of(), eventTypes());
+        assertEquals("", parser.getLastEventId());
+        assertEquals(-1, parser.getRetry());
+        feed(parser, "id: 7");
+        feed(parser, "retry: 3000");
+        feed(parser, "data: one");
+        feed(parser, "");
+        feed(parser, "id: 8\u0000");
+        feed(parser, "retry: soon");
+        feed(parser, "data: two");
+        feed(parser, "");
+        assertEquals("7", parser.getLastEventId());
+        assertEquals(3000, parser.getRetry());
+        feed(parser, "retry: 9223372036854775807");
+        assertEquals(Long.MAX_VALUE, parser.getRetry());
+        feed(parser, "retry: 9223372036854775808");
+        feed(parser, "retry: 99999999999999999999");
+        assertEquals(Long.MAX_VALUE, parser.getRetry());
+    }
+
+    @Test
+    void shouldParseLinesGivenAsRangesOfAnArray() {
+        var parser = new EventStreamParser(List.of("END"), eventTypes("process"));
+        var lines = List.of("event: process", "id: 9", "retry: 10", "data: é", "data:two", "", "data: END", "");
+        var dispatched = 0;
+        for (var line : lines) {
+            var bytes = ("#" + line + "#").getBytes(StandardCharsets.UTF_8);
+            if (parser.feed(bytes, 1, bytes.length - 1)) {
+                dispatched++;
+                assertSame("process", parser.getName());
+                assertArrayEquals("é\ntwo".getBytes(StandardCharsets.UTF_8), parser.getDataBytes());
+            }
+        }
+        assertEquals(1, dispatched);
+        assertEquals("9", parser.getLastEventId());
+        assertEquals(10, parser.getRetry());
+    }
+
+    @Test
+    void shouldDiscardThePendingEventWhenFinished() {
+        var parser = new EventStreamParser(List.of(), eventTypes());
+        feed(parser, "event: process");
+        feed(parser, "data: last");
+        parser.finish();
+        assertFalse(feed(parser, "data: next"));
+        assertTrue(feed(parser, ""));
+        assertEquals("next", dataText(parser));
+        assertSame(EventStreamParser.UNNAMED, parser.getName());
+    }
+
+    @Test
+    void shouldResolveTheTypeOfTheEventsFromTheTable() {
+        var parser = new EventStreamParser(List.of(), eventTypes("process", "message"));
+        var lines = List.of("event: message", "data: one", "", "data: two", "", "event: process", "data: three", "",
+                "event: other", "data: four", "");
+        List<Integer> types = new ArrayList<>();
+        for (var line : lines) {
+            if (feed(parser, line)) {
+                types.add(parser.getType());
+            }
+        }
+        assertEquals(List.of(1, 1, 0, -1), types);
+    }
+
+    private static EventTypeTable eventTypes(String... names) {
+        Map<String, Class<?>> classByEvent = new LinkedHashMap<>();
+        for (var name : names) {
+            classByEvent.put(name, String.class);
+        }
+        return EventTypeTable.of(classByEvent);
+    }
+
+    private static boolean feed(EventStreamParser parser, String line) {
+        var bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.feed(bytes, 0, bytes.length);
+    }
+
+    private static String dataText(EventStreamParser parser) {
+        return new String(parser.getDataBytes(), StandardCharsets.UTF_8);
+    }
+
+}
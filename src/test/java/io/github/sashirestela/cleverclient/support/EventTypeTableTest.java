@@ -0,0 +1,61 @@
+package io.github.sashirestela.cleverclient.support;
+
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventTypeTableTest {
+
+    @Test
+    void shouldFindEveryEventNameByItsBytesAndByItsName() {
+        List<String> names = new ArrayList<>();
+        for (var i = 0; i < 40; i++) {
+            names.add("thread.run.step." + i);
+        }
+        Map<String, Class<?>> classByEvent = new LinkedHashMap<>();
+        names.forEach(name -> classByEvent.put(name, String.class));
+        var table = EventTypeTable.of(classByEvent);
+        assertEquals(40, table.size());
+        for (var i = 0; i < names.size(); i++) {
+            var bytes = ("event: " + names.get(i) + "\n").getBytes(StandardCharsets.UTF_8);
+            assertEquals(i, table.indexOf(bytes, 7, bytes.length - 1));
+            assertEquals(i, table.indexOf(names.get(i)));
+            assertEquals(names.get(i), table.getName(i));
+        }
+    }
+
+    @Test
+    void shouldNotFindUnknownEventNames() {
+        Map<String, Class<?>> classByEvent = new LinkedHashMap<>();
+        classByEvent.put("created", String.class);
+        classByEvent.put("completed", String.class);
+        var table = EventTypeTable.of(classByEvent);
+        var bytes = "createdcompleted.".getBytes(StandardCharsets.UTF_8);
+        assertEquals(-1, table.indexOf(bytes, 0, 6));
+        assertEquals(-1, table.indexOf(bytes, 7, bytes.length));
+        assertEquals(-1, table.indexOf(bytes, 0, 0));
+        assertEquals(-1, table.indexOf("deleted"));
+        assertEquals(-1, EventTypeTable.of(Map.of()).indexOf(bytes, 0, 7));
+    }
+
+    @Test
+    void shouldBindTheTypeOfTheDataToEachEvent() {
+        Map<String, Class<?>> classByEvent = new LinkedHashMap<>();
+        classByEvent.put("created", String.class);
+        classByEvent.put("completed", Integer.class);
+        var table = EventTypeTable.of(classByEvent);
+        var index = table.indexOf("completed");
+        assertEquals(TypeFactory.defaultInstance().constructType(Integer.class), table.getJavaType(index));
+        var single = EventTypeTable.of(EventStreamParser.MESSAGE, table.getJavaType(index));
+        assertEquals(0, single.indexOf(EventStreamParser.MESSAGE));
+        assertEquals(table.getJavaType(index), single.getJavaType(0));
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.github.sashirestela.cleverclient.support;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JacksonCodecTest {
+
+    private static final JavaType ITEM_TYPE = TypeFactory.defaultInstance().constructType(Item.class);
+
+    @Test
+    void shouldEncodeAndDecodeJsonWithTheDefaultCodec() {
+        var codec = JacksonCodec.json();
+        var bytes = codec.encode(new Item("one", 1));
+        assertEquals("application/json", codec.getMediaType());
+        assertArrayEquals("{\"name\":\"one\",\"size\":1}".getBytes(StandardCharsets.UTF_8), bytes);
+        Item item = codec.decode(bytes, ITEM_TYPE);
+        assertEquals("one", item.getName());
+        assertEquals(1, item.getSize());
+    }
+
+    @Test
+    void shouldEncodeAndDecodeBinaryFormatsWhenTheirCodecsAreUsed() {
+        for (var codec : List.of(JacksonCodec.smile(), JacksonCodec.cbor())) {
+            var bytes = codec.encode(new Item("two", 2));
+            Item item = codec.decode(bytes, ITEM_TYPE);
+            assertEquals("two", item.getName());
+            assertEquals(2, item.getSize());
+        }
+        assertEquals(':', JacksonCodec.smile().encode(new Item("two", 2))[0]);
+    }
+
+    @Test
+    void shouldDecodeTheValuesOfASequenceOneByOne() throws IOException {
+        var codec = JacksonCodec.smile();
+        var output = new ByteArrayOutputStream();
+        output.write(codec.encode(new Item("one", 1)));
+        output.write(codec.encode(new Item("two", 2)));
+        var iterator = codec.decodeValues(new ByteArrayInputStream(output.toByteArray()), ITEM_TYPE, false);
+        List<String> names = new ArrayList<>();
+        while (iterator.hasNextValue()) {
+            names.add(((Item) iterator.nextValue()).getName());
+        }
+        assertEquals(List.of("one", "two"), names);
+    }
+
+    @Test
+    void shouldCreateNonBlockingParserWhenTheFactorySupportsIt() {
+        assertNotNull(JacksonCodec.json().createNonBlockingParser());
+        assertNull(JacksonCodec.cbor().createNonBlockingParser());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenContentCannotBeDecoded() {
+        var codec = JacksonCodec.cbor();
+        var bytes = "not cbor".getBytes(StandardCharsets.UTF_8);
+        var exception = assertThrows(CleverClientException.class, () -> codec.decode(bytes, ITEM_TYPE));
+        assertEquals("Cannot decode the application/cbor content to type [simple type, class "
+                + Item.class.getName() + "].", exception.getMessage());
+        assertThrows(CleverClientException.class, () -> new JacksonCodec("application/cbor", null));
+        assertNotNull(new JacksonCodec("application/json", new ObjectMapper()).readerFor(ITEM_TYPE));
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    static class Item {
+
+        private String name;
+        private int size;
+
+    }
+
+}
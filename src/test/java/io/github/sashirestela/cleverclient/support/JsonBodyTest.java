@@ -0,0 +1,55 @@
+package io.github.sashirestela.cleverclient.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonBodyTest {
+
+    @Test
+    void shouldDecodeTheStringViewOnceWhenItIsRead() {
+        var bytes = "{\"name\":\"café\"}".getBytes(StandardCharsets.UTF_8);
+        var jsonBody = new JsonBody(bytes);
+        assertSame(bytes, jsonBody.getBytes());
+        assertEquals(16, jsonBody.length());
+        var text = jsonBody.toString();
+        assertEquals("{\"name\":\"café\"}", text);
+        assertSame(text, jsonBody.toString());
+    }
+
+    @Test
+    void shouldRecognizeOnlyItsOwnStringView() {
+        var jsonBody = new JsonBody("{}".getBytes(StandardCharsets.UTF_8));
+        assertFalse(jsonBody.isViewOf(null));
+        assertFalse(jsonBody.isViewOf(new String("{}")));
+        assertTrue(jsonBody.isViewOf(jsonBody.toString()));
+        assertFalse(jsonBody.isViewOf(new String("{}")));
+    }
+
+    @Test
+    void shouldBeBlankOnlyWhenAllBytesAreWhitespace() {
+        assertTrue(new JsonBody(new byte[0]).isBlank());
+        assertTrue(new JsonBody(" \r\n\t".getBytes(StandardCharsets.UTF_8)).isBlank());
+        assertFalse(new JsonBody(" {} ".getBytes(StandardCharsets.UTF_8)).isBlank());
+    }
+
+    @Test
+    void shouldDescribeBinaryBodiesInsteadOfDecodingThem() {
+        var bytes = new byte[] { ':', ')', '\n', (byte) 0xFA, ' ' };
+        var binaryBody = new JsonBody(bytes, JacksonCodec.SMILE);
+        assertFalse(binaryBody.isTextual());
+        assertEquals(JacksonCodec.SMILE, binaryBody.getMediaType());
+        var view = binaryBody.toString();
+        assertEquals("(5 bytes of application/x-jackson-smile)", view);
+        assertTrue(binaryBody.isViewOf(view));
+        assertFalse(new JsonBody(new byte[] { ' ' }, JacksonCodec.CBOR).isBlank());
+        assertTrue(new JsonBody(new byte[0], JacksonCodec.CBOR).isBlank());
+        assertTrue(new JsonBody(bytes, "application/problem+json").isTextual());
+    }
+
+}
@@ -1,19 +1,30 @@
 package io.github.sashirestela.cleverclient.support;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import io.github.sashirestela.cleverclient.Event;
+import io.github.sashirestela.cleverclient.annotation.BatchedStream;
 import io.github.sashirestela.cleverclient.annotation.POST;
+import io.github.sashirestela.cleverclient.annotation.ResumableStream;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat;
+import io.github.sashirestela.cleverclient.annotation.StreamFormat.Format;
 import org.junit.jupiter.api.Test;
 
 import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ReturnTypeTest {
 
@@ -26,11 +37,49 @@ class ReturnTypeTest {
         assertEquals(expectedClass, actualClass);
     }
 
+    @Test
+    void shouldResolveJacksonTypeOnceAccordingToTheMethodType() throws NoSuchMethodException, SecurityException {
+        var typeFactory = TypeFactory.defaultInstance();
+        Map<String, JavaType> testData = new HashMap<>();
+        testData.put("asyncStreamMethod", typeFactory.constructType(MyClass.class));
+        testData.put("asyncListMethod", typeFactory.constructCollectionType(List.class, MyClass.class));
+        testData.put("asyncGenericMethod", typeFactory.constructParametricType(Generic.class, MyClass.class));
+        testData.put("syncMyClassMethod", typeFactory.constructType(MyClass.class));
+        testData.put("syncStringMethod", null);
+        testData.put("syncBinaryMethod", null);
+        testData.put("syncStreamEventMethod", null);
+        for (var entry : testData.entrySet()) {
+            var method = TestInterface.class.getMethod(entry.getKey(), new Class[] {});
+            var returnType = new ReturnType(method);
+            assertEquals(entry.getValue(), returnType.getJavaType(), entry.getKey());
+            assertSame(returnType.getJavaType(), returnType.getJavaType());
+        }
+    }
+
+    @Test
+    void shouldFlagOnlyWholeJsonResponsesAsJson() throws NoSuchMethodException, SecurityException {
+        var testData = Map.of(
+                "asyncListMethod", true,
+                "asyncGenericMethod", true,
+                "syncMyClassMethod", true,
+                "asyncStreamMethod", false,
+                "syncStringMethod", false,
+                "syncBinaryMethod", false);
+        for (var entry : testData.entrySet()) {
+            var method = TestInterface.class.getMethod(entry.getKey(), new Class[] {});
+            assertEquals(entry.getValue(), new ReturnType(method).isJson(), entry.getKey());
+        }
+    }
+
     @Test
     void shouldReturnCategoryAccordingToTheMethodType() throws NoSuchMethodException, SecurityException {
         var testData = Map.ofEntries(
                 Map.entry("asyncStreamEventMethod", ReturnType.Category.ASYNC_STREAM_EVENT),
                 Map.entry("asyncStreamMethod", ReturnType.Category.ASYNC_STREAM),
+                Map.entry("asyncStreamJsonArrayMethod", ReturnType.Category.ASYNC_STREAM_JSON_ARRAY),
+                Map.entry("syncStreamJsonArrayMethod", ReturnType.Category.SYNC_STREAM_JSON_ARRAY),
+                Map.entry("asyncStreamNdjsonMethod", ReturnType.Category.ASYNC_STREAM_NDJSON),
+                Map.entry("syncStreamNdjsonMethod", ReturnType.Category.SYNC_STREAM_NDJSON),
                 Map.entry("asyncListMethod", ReturnType.Category.ASYNC_LIST),
                 Map.entry("asyncGenericMethod", ReturnType.Category.ASYNC_GENERIC),
                 Map.entry("asyncMyClassMethod", ReturnType.Category.ASYNC_CUSTOM),
@@ -42,7 +91,11 @@ class ReturnTypeTest {
                 Map.entry("syncGenericMethod", ReturnType.Category.SYNC_GENERIC),
                 Map.entry("syncMyClassMethod", ReturnType.Category.SYNC_CUSTOM),
                 Map.entry("syncBinaryMethod", ReturnType.Category.SYNC_BINARY),
-                Map.entry("syncStringMethod", ReturnType.Category.SYNC_PLAIN_TEXT));
+                Map.entry("syncStringMethod", ReturnType.Category.SYNC_PLAIN_TEXT),
+                Map.entry("asyncSetMethod", ReturnType.Category.ASYNC_GENERIC),
+                Map.entry("syncSetMethod", ReturnType.Category.SYNC_GENERIC),
+                Map.entry("publisherMethod", ReturnType.Category.PUBLISHER),
+                Map.entry("publisherEventMethod", ReturnType.Category.PUBLISHER_EVENT));
         for (String methodName : testData.keySet()) {
             var method = TestInterface.class.getMethod(methodName, new Class[] {});
             var returnType = new ReturnType(method);
@@ -54,12 +107,78 @@ class ReturnTypeTest {
 
     @Test
     void shouldReturnNullCategoryWhenMethodReturnTypeIsNotExpected() throws NoSuchMethodException, SecurityException {
-        var method = TestInterface.class.getMethod("asyncSetMethod", new Class[] {});
-        var returnType = new ReturnType(method);
-        assertNull(returnType.category());
-        method = TestInterface.class.getMethod("syncSetMethod", new Class[] {});
-        returnType = new ReturnType(method);
-        assertNull(returnType.category());
+        for (var methodName : List.of("asyncNestedAsyncMethod", "syncStreamOfBinaryMethod",
+                "syncOptionalStringMethod", "syncVoidMethod", "syncStreamJsonArrayOfEventMethod",
+                "publisherNdjsonMethod")) {
+            var method = TestInterface.class.getMethod(methodName, new Class[] {});
+            var returnType = new ReturnType(method);
+            assertNull(returnType.category(), methodName);
+        }
+    }
+
+    @Test
+    void shouldSupportRicherShapesWhenMethodReturnTypeIsNestedOrWrapped()
+            throws NoSuchMethodException, SecurityException {
+        var typeFactory = TypeFactory.defaultInstance();
+        var testData = Map.of(
+                "asyncSetMethod", typeFactory.constructCollectionType(Set.class, MyClass.class),
+                "syncMapMethod", typeFactory.constructMapType(Map.class, typeFactory.constructType(String.class),
+                        typeFactory.constructCollectionType(List.class, MyClass.class)),
+                "syncArrayMethod", typeFactory.constructArrayType(MyClass.class),
+                "syncNestedGenericMethod", typeFactory.constructParametricType(Generic.class,
+                        typeFactory.constructCollectionType(List.class, MyClass.class)),
+                "asyncOptionalMethod", typeFactory.constructType(MyClass.class));
+        for (var entry : testData.entrySet()) {
+            var method = TestInterface.class.getMethod(entry.getKey(), new Class[] {});
+            var returnType = new ReturnType(method);
+            assertEquals(entry.getValue(), returnType.getJavaType(), entry.getKey());
+            assertEquals(MyClass.class, returnType.getBaseClass(), entry.getKey());
+        }
+        var optionalType = new ReturnType(TestInterface.class.getMethod("asyncOptionalMethod", new Class[] {}));
+        assertEquals(ReturnType.Category.ASYNC_CUSTOM, optionalType.category());
+        assertTrue(optionalType.isOptional());
+        var mapType = new ReturnType(TestInterface.class.getMethod("syncMapMethod", new Class[] {}));
+        assertEquals(ReturnType.Category.SYNC_GENERIC, mapType.category());
+    }
+
+    @Test
+    void shouldHandlePublishersAsAsyncStreams() throws NoSuchMethodException, SecurityException {
+        var returnType = new ReturnType(TestInterface.class.getMethod("publisherMethod", new Class[] {}));
+        assertTrue(returnType.isPublisher());
+        assertTrue(returnType.isAsync());
+        assertTrue(returnType.isStream());
+        assertEquals(TypeFactory.defaultInstance().constructType(MyClass.class), returnType.getJavaType());
+        var eventType = new ReturnType(TestInterface.class.getMethod("publisherEventMethod", new Class[] {}));
+        assertNull(eventType.getJavaType());
+        assertEquals(Set.of("first.create", "first.complete"), eventType.getClassByEvent().keySet());
+        assertEquals(0, returnType.getEventTypes().indexOf("message"));
+        var eventTypes = eventType.getEventTypes();
+        assertEquals(2, eventTypes.size());
+        assertEquals(TypeFactory.defaultInstance().constructType(First.class),
+                eventTypes.getJavaType(eventTypes.indexOf("first.complete")));
+    }
+
+    @Test
+    void shouldKeepTheResumableAnnotationOnlyForServerSentEventsStreams() throws NoSuchMethodException {
+        var resumable = new ReturnType(TestInterface.class.getMethod("syncResumableStreamMethod"));
+        assertEquals(5, resumable.getResumable().maxAttempts());
+        assertNull(new ReturnType(TestInterface.class.getMethod("syncResumableNdjsonMethod")).getResumable());
+        assertNull(new ReturnType(TestInterface.class.getMethod("syncStreamMethod")).getResumable());
+    }
+
+    @Test
+    void shouldUseTheElementTypeOfTheBatchesWhenTheStreamIsBatched() throws NoSuchMethodException {
+        var batched = new ReturnType(TestInterface.class.getMethod("syncBatchedStreamMethod"));
+        assertEquals(16, batched.getBatched().maxSize());
+        assertEquals(ReturnType.Category.SYNC_STREAM, batched.category());
+        assertEquals(TypeFactory.defaultInstance().constructType(MyClass.class), batched.getJavaType());
+        var batchedEvents = new ReturnType(TestInterface.class.getMethod("asyncBatchedStreamEventMethod"));
+        assertEquals(ReturnType.Category.ASYNC_STREAM_EVENT, batchedEvents.category());
+        assertEquals(Set.of("first.create", "first.complete"), batchedEvents.getClassByEvent().keySet());
+        var notBatched = new ReturnType(TestInterface.class.getMethod("syncBatchedNdjsonMethod"));
+        assertNull(notBatched.getBatched());
+        assertEquals(TypeFactory.defaultInstance().constructCollectionType(List.class, MyClass.class),
+                notBatched.getJavaType());
     }
 
     @Test
@@ -95,6 +214,21 @@ class ReturnTypeTest {
 
         CompletableFuture<Stream<MyClass>> asyncStreamMethod();
 
+        @StreamFormat(Format.JSON_ARRAY)
+        CompletableFuture<Stream<MyClass>> asyncStreamJsonArrayMethod();
+
+        @StreamFormat(Format.JSON_ARRAY)
+        Stream<MyClass> syncStreamJsonArrayMethod();
+
+        @StreamFormat(Format.JSON_ARRAY)
+        Stream<Event> syncStreamJsonArrayOfEventMethod();
+
+        @StreamFormat(Format.NDJSON)
+        CompletableFuture<Stream<MyClass>> asyncStreamNdjsonMethod();
+
+        @StreamFormat(Format.NDJSON)
+        Stream<List<MyClass>> syncStreamNdjsonMethod();
+
         CompletableFuture<List<MyClass>> asyncListMethod();
 
         CompletableFuture<Generic<MyClass>> asyncGenericMethod();
@@ -110,8 +244,34 @@ class ReturnTypeTest {
         @CompositeOne
         Stream<Event> syncStreamEventMethod();
 
+        Flow.Publisher<MyClass> publisherMethod();
+
+        @CompositeOne
+        Flow.Publisher<Event> publisherEventMethod();
+
+        @StreamFormat(Format.NDJSON)
+        Flow.Publisher<MyClass> publisherNdjsonMethod();
+
         Stream<MyClass> syncStreamMethod();
 
+        @ResumableStream(maxAttempts = 5)
+        Stream<MyClass> syncResumableStreamMethod();
+
+        @ResumableStream
+        @StreamFormat(Format.NDJSON)
+        Stream<MyClass> syncResumableNdjsonMethod();
+
+        @BatchedStream(maxSize = 16)
+        Stream<List<MyClass>> syncBatchedStreamMethod();
+
+        @BatchedStream
+        @CompositeOne
+        CompletableFuture<Stream<List<Event>>> asyncBatchedStreamEventMethod();
+
+        @BatchedStream
+        @StreamFormat(Format.NDJSON)
+        Stream<List<MyClass>> syncBatchedNdjsonMethod();
+
         List<MyClass> syncListMethod();
 
         Generic<MyClass> syncGenericMethod();
@@ -124,6 +284,22 @@ class ReturnTypeTest {
 
         Set<MyClass> syncSetMethod();
 
+        Map<String, List<MyClass>> syncMapMethod();
+
+        MyClass[] syncArrayMethod();
+
+        Generic<List<MyClass>> syncNestedGenericMethod();
+
+        CompletableFuture<Optional<MyClass>> asyncOptionalMethod();
+
+        CompletableFuture<CompletableFuture<MyClass>> asyncNestedAsyncMethod();
+
+        Stream<InputStream> syncStreamOfBinaryMethod();
+
+        Optional<String> syncOptionalStringMethod();
+
+        void syncVoidMethod();
+
     }
 
     static class First {
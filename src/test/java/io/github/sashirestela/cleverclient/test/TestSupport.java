@@ -4,6 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.github.sashirestela.cleverclient.support.Configurator;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public class TestSupport {
 
     private TestSupport() {
@@ -17,6 +25,43 @@ public class TestSupport {
                 .build();
     }
 
+    /**
+     * Subscribes to the publisher requesting one item at a time and waits for its completion.
+     */
+    public static <T> List<T> collect(Flow.Publisher<T> publisher)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        var result = new CompletableFuture<List<T>>();
+        publisher.subscribe(new Flow.Subscriber<T>() {
+
+            private final List<T> items = new ArrayList<>();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                items.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(items);
+            }
+
+        });
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
     public enum SyncType {
         SYNC,
         ASYNC;
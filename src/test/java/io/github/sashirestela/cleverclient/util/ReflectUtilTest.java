@@ -8,6 +8,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ReflectUtilTest {
 
@@ -26,6 +27,14 @@ class ReflectUtilTest {
         assertEquals(expectedValue, actualValue);
     }
 
+    @Test
+    void shouldFindNoGeneratedClassWhenInterfaceHasNone() {
+        assertEquals("io.github.sashirestela.cleverclient.util.ReflectUtilTest_TestInterface_CleverClient",
+                ReflectUtil.generatedClassName(TestInterface.class));
+        assertTrue(ReflectUtil.findGeneratedClass(TestInterface.class).isEmpty());
+        assertTrue(ReflectUtil.findGeneratedClass(TestInterface.class).isEmpty());
+    }
+
     static interface TestInterface {
 
         @GET("/api/test/url")